@@ -51,14 +51,42 @@ dependencies {
     implementation("androidx.appcompat:appcompat:1.6.1")
     implementation("com.google.android.material:material:1.10.0")
     implementation("androidx.constraintlayout:constraintlayout:2.1.4")
+    implementation("androidx.recyclerview:recyclerview:1.3.2")
     implementation("androidx.navigation:navigation-fragment:2.7.5")
     implementation("androidx.core:core:1.12.0")
     testImplementation("junit:junit:4.13.2")
+    testImplementation("org.openjdk.jmh:jmh-core:1.37")
+    testAnnotationProcessor("org.openjdk.jmh:jmh-generator-annprocess:1.37")
     implementation("com.google.mlkit:barcode-scanning:17.2.0")
+    implementation("androidx.camera:camera-camera2:1.3.0")
+    implementation("androidx.camera:camera-lifecycle:1.3.0")
+    implementation("androidx.camera:camera-view:1.3.0")
     androidTestImplementation("androidx.test.ext:junit:1.1.5")
     androidTestImplementation("androidx.test.espresso:espresso-core:3.5.1")
     androidTestImplementation("androidx.test.espresso:espresso-intents:3.4.0")
+    androidTestImplementation("androidx.test.espresso:espresso-contrib:3.5.1")
     androidTestImplementation("androidx.test.uiautomator:uiautomator:2.2.0")
     implementation("com.google.firebase:firebase-auth")
     compileOnly(files("${android.sdkDirectory}/platforms/${android.compileSdkVersion}/android.jar"))
-}
\ No newline at end of file
+}
+
+// Runs the JMH benchmarks in src/test/java/.../benchmark on the local JVM with the unit test
+// classpath. Select benchmarks with -Pjmh.include=<regex>, e.g. ./gradlew jmh -Pjmh.include=Sort
+afterEvaluate {
+    val unitTest = tasks.named<Test>("testDebugUnitTest").get()
+    tasks.register<JavaExec>("jmh") {
+        group = "verification"
+        description = "Runs the filter and sort benchmarks"
+        dependsOn(unitTest.dependsOn)
+        classpath = unitTest.classpath
+        mainClass.set("org.openjdk.jmh.Main")
+        val results = layout.buildDirectory.file("reports/jmh/results.json").get().asFile
+        doFirst { results.parentFile.mkdirs() }
+        args(
+            (project.findProperty("jmh.include") as String?) ?: "com.example.househomey.benchmark",
+            "-prof", "gc",
+            "-rf", "json",
+            "-rff", results.absolutePath
+        )
+    }
+}
@@ -1,6 +1,5 @@
 package com.example.househomey;
 
-import static androidx.test.espresso.Espresso.onData;
 import static androidx.test.espresso.Espresso.onView;
 import static androidx.test.espresso.action.ViewActions.click;
 import static androidx.test.espresso.assertion.ViewAssertions.matches;
@@ -11,6 +10,7 @@ import static androidx.test.espresso.matcher.ViewMatchers.hasDescendant;
 import static androidx.test.espresso.matcher.ViewMatchers.isDisplayed;
 import static androidx.test.espresso.matcher.ViewMatchers.withId;
 import static androidx.test.espresso.matcher.ViewMatchers.withText;
+import static com.example.househomey.testUtils.TestHelpers.atPosition;
 import static com.example.househomey.testUtils.TestHelpers.enterText;
 import static com.example.househomey.testUtils.TestHelpers.hasListLength;
 import static com.example.househomey.testUtils.TestHelpers.mockImageBitmap;
@@ -18,7 +18,6 @@ import static com.example.househomey.testUtils.TestHelpers.mockImageUri;
 import static com.example.househomey.testUtils.TestHelpers.pickDate;
 import static com.example.househomey.testUtils.TestHelpers.waitFor;
 import static org.hamcrest.CoreMatchers.allOf;
-import static org.hamcrest.CoreMatchers.anything;
 
 import android.app.Activity;
 import android.app.Instrumentation;
@@ -58,26 +57,14 @@ public class AddItemFragmentTest extends TestSetup {
         // Wait for Firebase to update list on home page
         waitFor(() -> hasListLength(1));
         // Check that the item in list matches description, date, and cost
-        onData(anything())
-                .inAdapterView(withId(R.id.item_list))
-                .atPosition(0)
-                .onChildView(withId(R.id.item_description_text))
-                .check(matches(withText(itemDescription)));
-        onData(anything())
-                .inAdapterView(withId(R.id.item_list))
-                .atPosition(0)
-                .onChildView(withId(R.id.item_date_text))
-                .check(matches(withText("2023-10-01")));
-        onData(anything())
-                .inAdapterView(withId(R.id.item_list))
-                .atPosition(0)
-                .onChildView(withId(R.id.item_make_text))
-                .check(matches(withText(itemMake)));
-        onData(anything())
-                .inAdapterView(withId(R.id.item_list))
-                .atPosition(0)
-                .onChildView(withId(R.id.item_cost_text))
-                .check(matches(withText("$"+estimatedCost)));
+        onView(withId(R.id.item_list))
+                .check(matches(atPosition(0, hasDescendant(allOf(withId(R.id.item_description_text), withText(itemDescription))))));
+        onView(withId(R.id.item_list))
+                .check(matches(atPosition(0, hasDescendant(allOf(withId(R.id.item_date_text), withText("2023-10-01"))))));
+        onView(withId(R.id.item_list))
+                .check(matches(atPosition(0, hasDescendant(allOf(withId(R.id.item_make_text), withText(itemMake))))));
+        onView(withId(R.id.item_list))
+                .check(matches(atPosition(0, hasDescendant(allOf(withId(R.id.item_cost_text), withText("$"+estimatedCost))))));
     }
 
     @Test
@@ -1,6 +1,5 @@
 package com.example.househomey;
 
-import static androidx.test.espresso.Espresso.onData;
 import static androidx.test.espresso.Espresso.onView;
 import static androidx.test.espresso.action.ViewActions.clearText;
 import static androidx.test.espresso.action.ViewActions.click;
@@ -9,11 +8,10 @@ import static androidx.test.espresso.assertion.ViewAssertions.matches;
 import static androidx.test.espresso.matcher.ViewMatchers.isDisplayed;
 import static androidx.test.espresso.matcher.ViewMatchers.withId;
 import static androidx.test.espresso.matcher.ViewMatchers.withText;
+import static com.example.househomey.testUtils.TestHelpers.clickListItemChild;
 import static com.example.househomey.testUtils.TestHelpers.hasListLength;
 import static com.example.househomey.testUtils.TestHelpers.waitFor;
 
-import static org.hamcrest.CoreMatchers.anything;
-
 import com.example.househomey.testUtils.TestSetup;
 import com.google.common.collect.ImmutableMap;
 import com.google.firebase.Timestamp;
@@ -45,11 +43,7 @@ public class ApplyTagFragmentTest extends TestSetup {
 
     public void navigateToApplyTagFragment() {
         onView(withId(R.id.select_items_button)).perform(click());
-        onData(anything())
-                .inAdapterView(withId(R.id.item_list))
-                .atPosition(0)
-                .onChildView(withId(R.id.item_checkBox))
-                .perform(click());
+        clickListItemChild(0, R.id.item_checkBox);
         onView(withId(R.id.action_tags)).perform(click());
     }
 
@@ -1,6 +1,5 @@
 package com.example.househomey;
 
-import static androidx.test.espresso.Espresso.onData;
 import static androidx.test.espresso.Espresso.onView;
 import static androidx.test.espresso.action.ViewActions.clearText;
 import static androidx.test.espresso.action.ViewActions.click;
@@ -11,10 +10,10 @@ import static androidx.test.espresso.matcher.ViewMatchers.hasDescendant;
 import static androidx.test.espresso.matcher.ViewMatchers.isDisplayed;
 import static androidx.test.espresso.matcher.ViewMatchers.withId;
 import static androidx.test.espresso.matcher.ViewMatchers.withText;
+import static com.example.househomey.testUtils.TestHelpers.clickListItem;
 import static com.example.househomey.testUtils.TestHelpers.enterText;
 import static com.example.househomey.testUtils.TestHelpers.waitFor;
 import static org.hamcrest.CoreMatchers.allOf;
-import static org.hamcrest.CoreMatchers.anything;
 import static org.hamcrest.CoreMatchers.not;
 
 import com.example.househomey.testUtils.TestSetup;
@@ -44,10 +43,7 @@ public class EditItemFragmentTest extends TestSetup {
         database.addTestItem(mockData);
         // Click to view the item page
         waitFor(() -> {
-            onData(anything())
-                    .inAdapterView(withId(R.id.item_list))
-                    .atPosition(0)
-                    .perform(click());
+            clickListItem(0);
             onView(withId(R.id.edit_button)).perform(scrollTo(), click());
         });
     }
@@ -0,0 +1,90 @@
+package com.example.househomey;
+
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.net.Uri;
+import android.util.Log;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.househomey.photo.ImageCompressor;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Measures the bytes and upload time saved by compressing photos before uploading them.
+ * Run with ./gradlew connectedAndroidTest and read the "ImageCompressorBenchmark" log lines.
+ */
+public class ImageCompressorBenchmark {
+    private static final String TAG = "ImageCompressorBenchmark";
+    private static final int RUNS = 5;
+    // A typical mobile upload speed, used to estimate the upload time saved
+    private static final double UPLOAD_BYTES_PER_SECOND = 1_000_000;
+
+    private final Context context = ApplicationProvider.getApplicationContext();
+
+    /**
+     * Writes a noisy 12 MP JPEG, about the size of a camera photo
+     * @return The URI of the written photo
+     */
+    private Uri writeCameraSizedPhoto() throws IOException {
+        Bitmap bitmap = Bitmap.createBitmap(4032, 3024, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        Paint paint = new Paint();
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            paint.setColor(Color.rgb(random.nextInt(256), random.nextInt(256), random.nextInt(256)));
+            float x = random.nextInt(4032);
+            float y = random.nextInt(3024);
+            canvas.drawRect(x, y, x + 8 + random.nextInt(64), y + 8 + random.nextInt(64), paint);
+        }
+        File file = new File(context.getCacheDir(), "benchmark_photo.jpg");
+        try (FileOutputStream output = new FileOutputStream(file)) {
+            bitmap.compress(Bitmap.CompressFormat.JPEG, 95, output);
+        }
+        bitmap.recycle();
+        return Uri.fromFile(file);
+    }
+
+    private void measure(String name, Uri uri, ImageCompressor compressor) throws IOException {
+        ImageCompressor.Result result = null;
+        long totalNanos = 0;
+        for (int i = 0; i < RUNS; i++) {
+            result = compressor.compress(context.getContentResolver(), uri);
+            totalNanos += result.getElapsedNanos();
+        }
+        long savedBytes = result.getOriginalSize() - result.getBytes().length;
+        double compressMillis = totalNanos / 1e6 / RUNS;
+        double savedUploadMillis = savedBytes / UPLOAD_BYTES_PER_SECOND * 1000;
+        Log.i(TAG, String.format("%s: %d -> %d bytes (%.0f%% saved), compress %.0f ms, upload ~%.0f ms saved",
+                name, result.getOriginalSize(), result.getBytes().length,
+                100.0 * savedBytes / result.getOriginalSize(), compressMillis, savedUploadMillis));
+        assertTrue(result.getBytes().length < result.getOriginalSize());
+    }
+
+    @Test
+    public void benchmarkCameraPhoto() throws IOException {
+        Uri uri = writeCameraSizedPhoto();
+        measure("camera webp", uri, new ImageCompressor());
+        measure("camera jpeg", uri, new ImageCompressor(ImageCompressor.DEFAULT_MAX_DIMENSION,
+                ImageCompressor.DEFAULT_QUALITY, Bitmap.CompressFormat.JPEG));
+    }
+
+    @Test
+    public void benchmarkSamplePhotos() throws IOException {
+        measure("barcode_test", Uri.parse("android.resource://com.example.househomey/" + R.raw.barcode_test),
+                new ImageCompressor());
+        measure("serial_num", Uri.parse("android.resource://com.example.househomey/" + R.raw.serial_num),
+                new ImageCompressor());
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.househomey;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.househomey.inventory.store.SQLiteInventoryStore;
+import com.example.househomey.item.Item;
+import com.example.househomey.tags.Tag;
+import com.google.firebase.Timestamp;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public class InventoryStoreTest {
+    private Context context;
+    private String username;
+    private SQLiteInventoryStore store;
+
+    private Item createItem(String id) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("description", "Desk " + id);
+        data.put("acquisitionDate", new Timestamp(new Date(1700000000000L)));
+        data.put("cost", "149.99");
+        data.put("make", "IKEA");
+        data.put("serialNumber", "SN-" + id);
+        data.put("photoIds", new ArrayList<>(Arrays.asList("photo1", "photo2")));
+        return new Item(id, data);
+    }
+
+    private SQLiteInventoryStore reopen() {
+        // Closing waits for the queued writes
+        store.close();
+        store = new SQLiteInventoryStore(context, username);
+        return store;
+    }
+
+    @Before
+    public void setup() {
+        context = ApplicationProvider.getApplicationContext();
+        username = "store-test-" + UUID.randomUUID();
+        store = new SQLiteInventoryStore(context, username);
+    }
+
+    @After
+    public void cleanup() {
+        store.close();
+    }
+
+    @Test
+    public void testItemsSurviveReopening() {
+        Item item = createItem("1");
+        store.putItems(Arrays.asList(item, createItem("2")));
+        store.removeItems(Collections.singletonList("2"));
+
+        List<Item> items = reopen().loadItems();
+        assertEquals(1, items.size());
+        assertEquals(item.getData(), items.get(0).getData());
+    }
+
+    @Test
+    public void testTagsSurviveReopening() {
+        Map<String, Object> tagData = new HashMap<>();
+        tagData.put("items", new ArrayList<>(Arrays.asList("1", "3")));
+        store.putTags(Arrays.asList(new Tag("Office", tagData), new Tag("Kitchen", new HashMap<>())));
+        store.removeTags(Collections.singletonList("Kitchen"));
+
+        List<Tag> tags = reopen().loadTags();
+        assertEquals(1, tags.size());
+        assertEquals("Office", tags.get(0).getTagLabel());
+        assertEquals(Arrays.asList("1", "3"), tags.get(0).getItemIds());
+    }
+
+    @Test
+    public void testUsersAreSeparate() {
+        store.putItems(Collections.singletonList(createItem("1")));
+        reopen();
+        SQLiteInventoryStore otherStore = new SQLiteInventoryStore(context, username + "-other");
+        assertTrue(otherStore.loadItems().isEmpty());
+        otherStore.close();
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.househomey;
+
+import static org.junit.Assert.assertFalse;
+
+import android.content.Context;
+import android.net.Uri;
+import android.util.Log;
+
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.LifecycleRegistry;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.househomey.scanner.ScannerService;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.mlkit.vision.barcode.common.Barcode;
+import com.google.mlkit.vision.text.Text;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Measures how long the first and later scans take with and without warming up the detectors.
+ * Run with ./gradlew connectedAndroidTest and read the "ScannerServiceBenchmark" log lines.
+ */
+public class ScannerServiceBenchmark {
+    private static final String TAG = "ScannerServiceBenchmark";
+    private static final int RUNS = 5;
+
+    private final Context context = ApplicationProvider.getApplicationContext();
+    private final Uri barcodePhoto = Uri.parse("android.resource://com.example.househomey/" + R.raw.barcode_test);
+    private final Uri serialPhoto = Uri.parse("android.resource://com.example.househomey/" + R.raw.serial_num);
+
+    /**
+     * Starts a scan on the main thread, where the service is used, and waits for its result
+     */
+    private <T> T scan(Callable<Task<T>> start) throws ExecutionException, InterruptedException {
+        AtomicReference<Task<T>> task = new AtomicReference<>();
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            try {
+                task.set(start.call());
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        return Tasks.await(task.get());
+    }
+
+    private <T> long time(Callable<Task<T>> start) throws ExecutionException, InterruptedException {
+        long begin = System.nanoTime();
+        scan(start);
+        return (System.nanoTime() - begin) / 1_000_000;
+    }
+
+    private void measure(String name, ScannerService service) throws ExecutionException, InterruptedException {
+        long firstBarcode = time(() -> service.scanBarcodes(barcodePhoto));
+        long firstText = time(() -> service.scanText(serialPhoto));
+        long totalBarcode = 0;
+        long totalText = 0;
+        for (int i = 0; i < RUNS; i++) {
+            totalBarcode += time(() -> service.scanBarcodes(barcodePhoto));
+            totalText += time(() -> service.scanText(serialPhoto));
+        }
+        Log.i(TAG, String.format("%s: first barcode %d ms, text %d ms; later barcode %d ms, text %d ms",
+                name, firstBarcode, firstText, totalBarcode / RUNS, totalText / RUNS));
+    }
+
+    @Test
+    public void benchmarkColdScans() throws ExecutionException, InterruptedException {
+        ScannerService service = new ScannerService(context);
+        measure("cold", service);
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(service::close);
+    }
+
+    @Test
+    public void benchmarkWarmScans() throws ExecutionException, InterruptedException {
+        ScannerService service = new ScannerService(context);
+        AtomicReference<LifecycleRegistry> lifecycle = new AtomicReference<>();
+        LifecycleOwner owner = () -> lifecycle.get();
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            lifecycle.set(new LifecycleRegistry(owner));
+            lifecycle.get().addObserver(service);
+            lifecycle.get().setCurrentState(Lifecycle.State.CREATED);
+        });
+        // Give the warm-up time to finish, as it would while the user fills in the form
+        Thread.sleep(3000);
+        measure("warm", service);
+
+        List<Barcode> barcodes = scan(() -> service.scanBarcodes(barcodePhoto));
+        assertFalse(barcodes.isEmpty());
+        Text text = scan(() -> service.scanText(serialPhoto));
+        assertFalse(text.getText().isEmpty());
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(
+                () -> lifecycle.get().setCurrentState(Lifecycle.State.DESTROYED));
+    }
+}
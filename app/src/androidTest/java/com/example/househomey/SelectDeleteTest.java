@@ -1,6 +1,5 @@
 package com.example.househomey;
 
-import static androidx.test.espresso.Espresso.onData;
 import static androidx.test.espresso.Espresso.onView;
 import static androidx.test.espresso.action.ViewActions.click;
 import static androidx.test.espresso.assertion.ViewAssertions.matches;
@@ -9,10 +8,10 @@ import static androidx.test.espresso.matcher.ViewMatchers.isDisplayed;
 import static androidx.test.espresso.matcher.ViewMatchers.withContentDescription;
 import static androidx.test.espresso.matcher.ViewMatchers.withId;
 import static androidx.test.espresso.matcher.ViewMatchers.withText;
+import static com.example.househomey.testUtils.TestHelpers.clickListItemChild;
 import static com.example.househomey.testUtils.TestHelpers.enterText;
 import static com.example.househomey.testUtils.TestHelpers.hasListLength;
 import static com.example.househomey.testUtils.TestHelpers.waitFor;
-import static org.hamcrest.CoreMatchers.anything;
 
 import androidx.test.espresso.matcher.RootMatchers;
 
@@ -54,16 +53,8 @@ public class SelectDeleteTest extends TestSetup {
     public void testSelectDeleteWithNewUser() {
         // Add required description and estimated cost
         onView(withId(R.id.select_items_button)).perform(click());
-        onData(anything())
-                .inAdapterView(withId(R.id.item_list))
-                .atPosition(0)
-                .onChildView(withId(R.id.item_checkBox))
-                .perform(click());
-        onData(anything())
-                .inAdapterView(withId(R.id.item_list))
-                .atPosition(2)
-                .onChildView(withId(R.id.item_checkBox))
-                .perform(click());
+        clickListItemChild(0, R.id.item_checkBox);
+        clickListItemChild(2, R.id.item_checkBox);
 
         onView(withId(R.id.action_delete)).perform(click());
         onView(withText("OK")).perform(click());
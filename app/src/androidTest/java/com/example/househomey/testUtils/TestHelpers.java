@@ -8,6 +8,7 @@ import static androidx.test.espresso.action.ViewActions.pressImeActionButton;
 import static androidx.test.espresso.action.ViewActions.replaceText;
 import static androidx.test.espresso.action.ViewActions.scrollTo;
 import static androidx.test.espresso.action.ViewActions.typeText;
+import static androidx.test.espresso.contrib.RecyclerViewActions.actionOnItemAtPosition;
 import static androidx.test.espresso.assertion.ViewAssertions.matches;
 import static androidx.test.espresso.matcher.ViewMatchers.isDisplayed;
 import static androidx.test.espresso.matcher.ViewMatchers.withContentDescription;
@@ -23,6 +24,10 @@ import android.view.ViewGroup;
 import android.view.ViewParent;
 
 import androidx.annotation.IdRes;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.espresso.UiController;
+import androidx.test.espresso.ViewAction;
+import androidx.test.espresso.matcher.BoundedMatcher;
 
 import com.example.househomey.R;
 
@@ -79,6 +84,63 @@ public class TestHelpers {
         onView(withId(R.id.total_count_text)).check(matches(withText(String.valueOf(expectedCount))));
     }
 
+    /*
+     * Clicks the item at a position in the inventory list.
+     *
+     * @param position The position of the item in the list.
+     */
+    public static void clickListItem(int position) {
+        onView(withId(R.id.item_list)).perform(actionOnItemAtPosition(position, click()));
+    }
+
+    /*
+     * Clicks a child view of the item at a position in the inventory list, e.g. its checkbox.
+     *
+     * @param position The position of the item in the list.
+     * @param childId  The resource ID of the child view to click.
+     */
+    public static void clickListItemChild(int position, @IdRes int childId) {
+        onView(withId(R.id.item_list)).perform(actionOnItemAtPosition(position, new ViewAction() {
+            @Override
+            public Matcher<View> getConstraints() {
+                return isDisplayed();
+            }
+
+            @Override
+            public String getDescription() {
+                return "Click on child view with id " + childId;
+            }
+
+            @Override
+            public void perform(UiController uiController, View view) {
+                view.findViewById(childId).performClick();
+            }
+        }));
+    }
+
+    /*
+     * Custom Matcher for a RecyclerView whose item at a specific position matches a given matcher
+     *
+     * @param position    The position of the item within the RecyclerView's adapter.
+     * @param itemMatcher The Matcher<View> the item's view must match.
+     * @return A Matcher<View> instance matching the RecyclerView.
+     */
+    public static Matcher<View> atPosition(final int position, final Matcher<View> itemMatcher) {
+        return new BoundedMatcher<View, RecyclerView>(RecyclerView.class) {
+            @Override
+            public void describeTo(Description description) {
+                description.appendText("has item at position " + position + ": ");
+                itemMatcher.describeTo(description);
+            }
+
+            @Override
+            protected boolean matchesSafely(RecyclerView view) {
+                RecyclerView.ViewHolder viewHolder = view.findViewHolderForAdapterPosition(position);
+                return viewHolder != null && itemMatcher.matches(viewHolder.itemView);
+            }
+        };
+    }
+
     /*
      * Types text into an EditText field.
      * Presses the IME action button, for actions like "Done," "Search," or "Next"
@@ -12,6 +12,11 @@ import androidx.fragment.app.FragmentManager;
 
 import com.example.househomey.form.AddItemFragment;
 import com.example.househomey.home.HomeFragment;
+import com.example.househomey.inventory.InventoryRepository;
+import com.example.househomey.metrics.MetricsOverlay;
+import com.example.househomey.photo.ImageCompressor;
+import com.example.househomey.photo.PhotoReferences;
+import com.example.househomey.photo.PhotoUploadManager;
 import com.example.househomey.signin.SignInActivity;
 import com.example.househomey.user.User;
 import com.example.househomey.user.UserProfileFragment;
@@ -31,6 +36,7 @@ import org.checkerframework.checker.units.qual.A;
  */
 public class MainActivity extends AppCompatActivity {
     private User user;
+    private MetricsOverlay metricsOverlay;
 
     /**
      * Method to run on creation of the activity. Handles user setup and creates the bottom
@@ -46,6 +52,10 @@ public class MainActivity extends AppCompatActivity {
         FirebaseUser currentUser = FirebaseAuth.getInstance().getCurrentUser();
         if (currentUser != null) {
             user = new User(currentUser.getDisplayName());
+            // Finish photo uploads that were interrupted when the app was last closed
+            PhotoUploadManager uploadManager = PhotoUploadManager.getInstance(this);
+            uploadManager.setCompressor(ImageCompressor.fromPreferences(this));
+            uploadManager.resumePending();
         } else {
             Intent intent = new Intent(this, SignInActivity.class);
             this.startActivity(intent);
@@ -81,6 +91,24 @@ public class MainActivity extends AppCompatActivity {
             }
             return true;
         });
+
+        // Long press the home button in debug builds to show Firestore metrics
+        if (MetricsOverlay.isAvailable(this)) {
+            metricsOverlay = new MetricsOverlay(findViewById(R.id.metrics_overlay));
+            bottomNavigationView.findViewById(R.id.action_home).setOnLongClickListener(v -> {
+                metricsOverlay.toggle();
+                return true;
+            });
+        }
+    }
+
+    /**
+     * Stops refreshing the metrics overlay when the activity is destroyed
+     */
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (metricsOverlay != null) metricsOverlay.hide();
     }
 
     /**
@@ -97,6 +125,13 @@ public class MainActivity extends AppCompatActivity {
      */
     public CollectionReference getTagRef() { return user.getTagRef(); }
 
+    /**
+     * Retrieves the shared in-memory inventory of the current user.
+     *
+     * @return The current user's inventory repository.
+     */
+    public InventoryRepository getInventory() { return InventoryRepository.getInstance(this, user); }
+
     /**
      * Retrieves a StorageReference to an image in Cloud Storage based on
      * the current user and the provided image ID.
@@ -105,9 +140,38 @@ public class MainActivity extends AppCompatActivity {
      * @return A StorageReference pointing to the specified image in Cloud Storage.
      */
     public StorageReference getImageRef(String imageId) {
+        return getImageFolderRef().child(imageId);
+    }
+
+    /**
+     * Retrieves a StorageReference to the Cloud Storage folder holding the current user's images.
+     *
+     * @return A StorageReference pointing to the user's image folder.
+     */
+    public StorageReference getImageFolderRef() {
         return FirebaseStorage.getInstance()
                 .getReference("images/")
-                .child(user.getUsername())
-                .child(imageId);
+                .child(user.getUsername());
+    }
+
+    /**
+     * Retrieves the reference counts of the current user's photos, which decide when a photo
+     * shared by several items can be deleted from Cloud Storage.
+     *
+     * @return The current user's photo references.
+     */
+    public PhotoReferences getPhotoReferences() {
+        return new PhotoReferences(user.getPhotoRef(), getImageFolderRef());
+    }
+
+    /**
+     * Retrieves a StorageReference to the thumbnail of an image in Cloud Storage, which is
+     * uploaded alongside the image.
+     *
+     * @param imageId The unique identifier of the image.
+     * @return A StorageReference pointing to the image's thumbnail in Cloud Storage.
+     */
+    public StorageReference getThumbnailRef(String imageId) {
+        return getImageRef(imageId + ImageCompressor.THUMBNAIL_SUFFIX);
     }
 }
\ No newline at end of file
@@ -1,8 +1,11 @@
 package com.example.househomey.filter.model;
 
 import com.example.househomey.item.Item;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.Query;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Date;
 import java.util.stream.Collectors;
 
@@ -10,7 +13,7 @@ import java.util.stream.Collectors;
  * Filters out items from list that are after the given start date and before the given end date.
  * @author Matthew Neufeld
  */
-public class DateFilter extends Filter {
+public class DateFilter extends PushableFilter {
     private Date startDate;
     private Date endDate;
 
@@ -56,16 +59,59 @@ public class DateFilter extends Filter {
     public ArrayList<Item> filterList(ArrayList<Item> itemList) {
         if (startDate == null && endDate == null) return itemList;
         return itemList.stream()
-                .filter(item -> {
-                    Date itemDate = item.getAcquisitionDate();
-                    // only return non-null items after startDate and before endDate
-                    boolean result = itemDate != null;
-                    if (startDate != null)
-                        result = result && itemDate.compareTo(startDate) >= 0;
-                    if (endDate != null)
-                        result = result && itemDate.compareTo(endDate) <= 0;
-                    return result;
-                })
+                .filter(this::matches)
                 .collect(Collectors.toCollection(ArrayList::new));
     }
+
+    /**
+     * Checks whether an item was acquired between the start and end dates.
+     * @param item The item to check.
+     * @return true if the item's date is within the bounds, or if no bounds are set
+     */
+    @Override
+    public boolean matches(Item item) {
+        if (startDate == null && endDate == null) return true;
+        long itemTime = item.getAcquisitionTime();
+        // only return items after startDate and before endDate
+        boolean result = true;
+        if (startDate != null)
+            result = itemTime >= startDate.getTime();
+        if (endDate != null)
+            result = result && itemTime <= endDate.getTime();
+        return result;
+    }
+
+    /**
+     * Selects the items acquired between the start and end dates from the date index.
+     * @param index The indexes of the items to be filtered.
+     * @return the ordinals of the items within the bounds, or null if no bounds are set
+     */
+    @Override
+    public BitSet select(FilterIndex index) {
+        if (startDate == null && endDate == null) return null;
+        return index.acquiredBetween(startDate, endDate);
+    }
+
+    /**
+     * A date range can be evaluated by Firestore on the acquisitionDate field.
+     * @return true if a start or end date is set
+     */
+    @Override
+    public boolean canPushDown() {
+        return startDate != null || endDate != null;
+    }
+
+    /**
+     * Narrows a query to the items acquired between the start and end dates.
+     * @param query The query of the item collection to narrow.
+     * @return The query with a range on the acquisition date
+     */
+    @Override
+    public Query pushDown(Query query) {
+        if (startDate != null)
+            query = query.whereGreaterThanOrEqualTo("acquisitionDate", new Timestamp(startDate));
+        if (endDate != null)
+            query = query.whereLessThanOrEqualTo("acquisitionDate", new Timestamp(endDate));
+        return query;
+    }
 }
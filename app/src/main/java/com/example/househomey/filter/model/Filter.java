@@ -4,6 +4,7 @@ import com.example.househomey.item.Item;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Objects;
 
 /**
@@ -20,6 +21,36 @@ public abstract class Filter implements Serializable {
      */
     public abstract ArrayList<Item> filterList(ArrayList<Item> itemList);
 
+    /**
+     * Checks a single item against this filter. Used to place individual items that were added
+     * or modified in Firestore without re-filtering the whole list.
+     *
+     * @param item The item to check.
+     * @return {@code true} if the item would be retained by {@link #filterList(ArrayList)}.
+     */
+    public abstract boolean matches(Item item);
+
+    /**
+     * Checks a single item against this filter, looking up anything the item does not hold
+     * itself, such as the current members of a tag, in the secondary indexes of its item list.
+     *
+     * @param item  The item to check.
+     * @param index The indexes of the item list the item belongs to.
+     * @return {@code true} if the item would be selected by {@link #select(FilterIndex)}.
+     */
+    public boolean matches(Item item, FilterIndex index) {
+        return matches(item);
+    }
+
+    /**
+     * Selects the items that pass this filter using the secondary indexes of an item list.
+     *
+     * @param index The indexes of the items to be filtered.
+     * @return The ordinals of the items that pass the filter, or {@code null} if the filter
+     * currently retains every item.
+     */
+    public abstract BitSet select(FilterIndex index);
+
     /**
      * Indicates whether some other object is "equal to" this filter.
      *
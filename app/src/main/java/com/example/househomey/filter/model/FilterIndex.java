@@ -0,0 +1,241 @@
+package com.example.househomey.filter.model;
+
+import com.example.househomey.item.Item;
+import com.example.househomey.item.ItemOrdinals;
+import com.example.househomey.tags.TagMembership;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Secondary indexes over a set of items, used to evaluate filters without scanning every item.
+ * Each indexed item is given a small integer ordinal, and each index maps a key to the set of
+ * ordinals (as a {@link BitSet}) of the items with that key. Filters are then evaluated by
+ * intersecting bitsets. The index can share its ordinals with a {@link TagMembership}, whose
+ * tags' bitsets are then intersected like any other index.
+ * @see Filter#select(FilterIndex)
+ */
+public class FilterIndex {
+    private final ItemOrdinals ordinals;
+    private final TagMembership tagMembership;
+    private final List<Item> items = new ArrayList<>();
+    private final BitSet live = new BitSet();
+    private final TreeMap<Long, BitSet> dateIndex = new TreeMap<>();
+    private final Map<String, BitSet> makeIndex = new HashMap<>();
+    private final KeywordIndex keywordIndex = new KeywordIndex();
+
+    /**
+     * Constructs empty indexes without tags, numbering their own items
+     */
+    public FilterIndex() {
+        this.ordinals = new ItemOrdinals();
+        this.tagMembership = null;
+    }
+
+    /**
+     * Constructs empty indexes that look up tags in a tag membership index
+     * @param tagMembership The tags of the items, whose item ordinals the indexes share
+     */
+    public FilterIndex(TagMembership tagMembership) {
+        this.ordinals = tagMembership.getItemOrdinals();
+        this.tagMembership = tagMembership;
+    }
+
+    /**
+     * Getter for the tag membership index the items' tags are looked up in
+     * @return The tag index sharing this index's ordinals, or null if tags are not indexed
+     */
+    public TagMembership getTagMembership() {
+        return tagMembership;
+    }
+
+    /**
+     * Adds an item to every index, replacing any indexed item with the same id
+     * @param item The item to index
+     */
+    public void add(Item item) {
+        remove(item.getId());
+        int ordinal = ordinals.ordinalOf(item.getId());
+        live.set(ordinal);
+        while (items.size() <= ordinal) {
+            items.add(null);
+        }
+        items.set(ordinal, item);
+
+        posting(dateIndex, item.getAcquisitionTime()).set(ordinal);
+        posting(makeIndex, foldCase(item.getMake())).set(ordinal);
+        keywordIndex.add(item.getDescription(), ordinal);
+    }
+
+    /**
+     * Removes the item with the given id from every index
+     * @param id The id of the item to remove
+     */
+    public void remove(String id) {
+        int ordinal = ordinals.find(id);
+        if (ordinal < 0 || !live.get(ordinal)) return;
+        Item item = items.get(ordinal);
+        items.set(ordinal, null);
+        live.clear(ordinal);
+
+        clear(dateIndex, item.getAcquisitionTime(), ordinal);
+        clear(makeIndex, foldCase(item.getMake()), ordinal);
+        keywordIndex.remove(item.getDescription(), ordinal);
+    }
+
+    /**
+     * Removes every item from the indexes
+     */
+    public void clear() {
+        items.clear();
+        live.clear();
+        dateIndex.clear();
+        makeIndex.clear();
+        keywordIndex.clear();
+    }
+
+    /**
+     * Evaluates every filter against the indexes
+     * @param filters The filters to apply
+     * @return The ordinals of the items that pass all of the filters
+     */
+    public BitSet evaluate(Collection<Filter> filters) {
+        BitSet result = all();
+        for (Filter filter : filters) {
+            BitSet selected = filter.select(this);
+            if (selected != null) result.and(selected);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the items with the given ordinals
+     * @param selected The ordinals of the items
+     * @return The items, in ordinal order
+     */
+    public ArrayList<Item> getItems(BitSet selected) {
+        ArrayList<Item> result = new ArrayList<>(selected.cardinality());
+        for (int ordinal = selected.nextSetBit(0); ordinal >= 0; ordinal = selected.nextSetBit(ordinal + 1)) {
+            result.add(items.get(ordinal));
+        }
+        return result;
+    }
+
+    /**
+     * Gets the ordinals of every indexed item
+     * @return A new bitset of all indexed ordinals
+     */
+    public BitSet all() {
+        return (BitSet) live.clone();
+    }
+
+    /**
+     * Gets the ordinals of the items acquired between the given dates, inclusive
+     * @param startDate The earliest acquisition date, or null for no lower bound
+     * @param endDate   The latest acquisition date, or null for no upper bound
+     * @return A new bitset of the matching ordinals
+     */
+    public BitSet acquiredBetween(Date startDate, Date endDate) {
+        long start = startDate == null ? Long.MIN_VALUE : startDate.getTime();
+        long end = endDate == null ? Long.MAX_VALUE : endDate.getTime();
+        BitSet result = new BitSet();
+        if (start > end) return result;
+        for (BitSet posting : dateIndex.subMap(start, true, end, true).values()) {
+            result.or(posting);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the ordinals of the items with the given make, ignoring case
+     * @param make The make to look up
+     * @return A new bitset of the matching ordinals
+     */
+    public BitSet withMake(String make) {
+        return copy(makeIndex.get(foldCase(make)));
+    }
+
+    /**
+     * Gets the ordinals of the items whose descriptions contain at least one of the keywords
+     * as a whole word
+     * @param keywords The lower case keywords to look up
+     * @return A new bitset of the matching ordinals
+     */
+    public BitSet withAnyKeyword(Collection<String> keywords) {
+        return withAnyKeyword(keywords, KeywordFilter.MatchMode.EXACT);
+    }
+
+    /**
+     * Gets the ordinals of the items whose descriptions have a word matching at least one of
+     * the keywords
+     * @param keywords The lower case keywords to look up
+     * @param mode     How the keywords are compared to the words of the descriptions
+     * @return A new bitset of the matching ordinals
+     */
+    public BitSet withAnyKeyword(Collection<String> keywords, KeywordFilter.MatchMode mode) {
+        return keywordIndex.lookup(keywords, mode);
+    }
+
+    /**
+     * Gets the ordinals of the items with the given ids, such as the items of a tag
+     * @param ids The ids of the items to look up
+     * @return A new bitset of the ordinals of the ids that are indexed
+     */
+    public BitSet withIds(Collection<String> ids) {
+        BitSet result = new BitSet();
+        for (String id : ids) {
+            int ordinal = ordinals.find(id);
+            if (ordinal >= 0 && live.get(ordinal)) result.set(ordinal);
+        }
+        return result;
+    }
+
+    /**
+     * Folds the case of a string so that two strings are equal after folding exactly when
+     * they are equal according to {@link String#equalsIgnoreCase(String)}
+     * @param value The string to fold
+     * @return The case folded string
+     */
+    static String foldCase(String value) {
+        char[] chars = value.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Gets the posting for a key, creating an empty one if needed
+     */
+    private static <K> BitSet posting(Map<K, BitSet> index, K key) {
+        BitSet posting = index.get(key);
+        if (posting == null) {
+            posting = new BitSet();
+            index.put(key, posting);
+        }
+        return posting;
+    }
+
+    /**
+     * Clears an ordinal from the posting of a key, dropping the posting once it is empty
+     */
+    private static <K> void clear(Map<K, BitSet> index, K key, int ordinal) {
+        BitSet posting = index.get(key);
+        if (posting == null) return;
+        posting.clear(ordinal);
+        if (posting.isEmpty()) index.remove(key);
+    }
+
+    /**
+     * Copies a posting so callers can modify the result
+     */
+    private static BitSet copy(BitSet posting) {
+        return posting == null ? new BitSet() : (BitSet) posting.clone();
+    }
+}
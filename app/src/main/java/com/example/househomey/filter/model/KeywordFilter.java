@@ -3,7 +3,8 @@ package com.example.househomey.filter.model;
 import com.example.househomey.item.Item;
 
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashSet;
 import java.util.Locale;
 import java.util.Objects;
 import java.util.stream.Collectors;
@@ -13,17 +14,41 @@ import java.util.stream.Collectors;
  * @author Antonio Lech Martin-Ozimek
  */
 public class KeywordFilter extends Filter {
-    private ArrayList<String> keyWords;
+    private LinkedHashSet<String> keyWords;
     private ArrayList<String> ogKeyWords;
+    private MatchMode matchMode;
 
     /**
-     * Constructs a new KeywordFilter with the specified keywords.
+     * How the keywords of a filter are compared to the words of item descriptions.
+     */
+    public enum MatchMode {
+        /** A word must equal a keyword. */
+        EXACT,
+        /** A word must start with a keyword. */
+        PREFIX,
+        /** A word must be at most one letter away from a keyword. */
+        FUZZY
+    }
+
+    /**
+     * Constructs a new KeywordFilter with the specified keywords, matching whole words.
      *
      * @param keyWords The keywords to filter by.
      */
     public KeywordFilter(ArrayList<String> keyWords) {
+        this(keyWords, MatchMode.EXACT);
+    }
+
+    /**
+     * Constructs a new KeywordFilter with the specified keywords and match mode.
+     *
+     * @param keyWords  The keywords to filter by.
+     * @param matchMode How the keywords are compared to the words of item descriptions.
+     */
+    public KeywordFilter(ArrayList<String> keyWords, MatchMode matchMode) {
         this.ogKeyWords = keyWords;
-        this.keyWords = new ArrayList<>();
+        this.matchMode = matchMode;
+        this.keyWords = new LinkedHashSet<>();
         for (String keyword : keyWords) {
             if (!Objects.equals(keyword, "")){this.keyWords.add(keyword.toLowerCase(Locale.ENGLISH));}
         }
@@ -33,6 +58,10 @@ public class KeywordFilter extends Filter {
         return ogKeyWords;
     }
 
+    public MatchMode getMatchMode() {
+        return matchMode;
+    }
+
     /**
      * Filters the passed in list of items, retaining only those items that match the
      * make value specified in this filter.
@@ -43,9 +72,41 @@ public class KeywordFilter extends Filter {
     @Override
     public ArrayList<Item> filterList(ArrayList<Item> itemList) {
         if (keyWords.isEmpty()) return itemList;
-        return itemList.stream().filter(item -> Arrays.stream(
-                item.getDescription().toLowerCase(Locale.ENGLISH).split(" "))
-                .anyMatch(keyWords::contains)).collect(Collectors.toCollection(ArrayList::new));
+        return itemList.stream().filter(this::matches).collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    /**
+     * Checks whether an item's description contains at least one of the keywords.
+     *
+     * @param item The item to check.
+     * @return true if the item has one of the keywords, or if there are no keywords
+     */
+    @Override
+    public boolean matches(Item item) {
+        if (keyWords.isEmpty()) return true;
+        for (String token : KeywordIndex.tokenize(item.getDescription())) {
+            if (matchMode == MatchMode.EXACT) {
+                if (keyWords.contains(token)) return true;
+                continue;
+            }
+            for (String keyword : keyWords) {
+                if (KeywordIndex.matches(token, keyword, matchMode)) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Selects the items whose descriptions contain at least one of the keywords from the
+     * keyword index.
+     *
+     * @param index The indexes of the items to be filtered.
+     * @return the ordinals of the items with one of the keywords, or null if there are no keywords
+     */
+    @Override
+    public BitSet select(FilterIndex index) {
+        if (keyWords.isEmpty()) return null;
+        return index.withAnyKeyword(keyWords, matchMode);
     }
 
 }
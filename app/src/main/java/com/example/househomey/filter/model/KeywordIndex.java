@@ -0,0 +1,154 @@
+package com.example.househomey.filter.model;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An inverted index from the words of item descriptions to the ordinals of the items that
+ * contain them. The words are kept sorted so that prefix lookups only visit matching words.
+ * @see KeywordFilter
+ */
+public class KeywordIndex {
+    /**
+     * Keywords shorter than this must match exactly in fuzzy mode, since nearly every short
+     * word is one edit away from another.
+     */
+    static final int FUZZY_MIN_LENGTH = 4;
+
+    private final TreeMap<String, BitSet> postings = new TreeMap<>();
+
+    /**
+     * Splits a description into lower case words separated by spaces
+     * @param description The description to split
+     * @return The non-empty words of the description, in order
+     */
+    public static List<String> tokenize(String description) {
+        String lowerCase = description.toLowerCase(Locale.ENGLISH);
+        List<String> tokens = new ArrayList<>();
+        int start = 0;
+        while (start <= lowerCase.length()) {
+            int end = lowerCase.indexOf(' ', start);
+            if (end < 0) end = lowerCase.length();
+            if (end > start) tokens.add(lowerCase.substring(start, end));
+            start = end + 1;
+        }
+        return tokens;
+    }
+
+    /**
+     * Checks whether a word of a description matches a keyword
+     * @param token   A lower case word of a description
+     * @param keyword A lower case keyword
+     * @param mode    How the keyword is compared to the word
+     * @return true if the word matches the keyword
+     */
+    public static boolean matches(String token, String keyword, KeywordFilter.MatchMode mode) {
+        switch (mode) {
+            case PREFIX:
+                return token.startsWith(keyword);
+            case FUZZY:
+                if (keyword.length() < FUZZY_MIN_LENGTH) return token.equals(keyword);
+                return withinOneEdit(token, keyword);
+            default:
+                return token.equals(keyword);
+        }
+    }
+
+    /**
+     * Adds an item's description to the index
+     * @param description The description of the item
+     * @param ordinal     The ordinal of the item
+     */
+    public void add(String description, int ordinal) {
+        for (String token : tokenize(description)) {
+            BitSet posting = postings.get(token);
+            if (posting == null) {
+                posting = new BitSet();
+                postings.put(token, posting);
+            }
+            posting.set(ordinal);
+        }
+    }
+
+    /**
+     * Removes an item's description from the index
+     * @param description The description the item was added with
+     * @param ordinal     The ordinal of the item
+     */
+    public void remove(String description, int ordinal) {
+        for (String token : tokenize(description)) {
+            BitSet posting = postings.get(token);
+            if (posting == null) continue;
+            posting.clear(ordinal);
+            if (posting.isEmpty()) postings.remove(token);
+        }
+    }
+
+    /**
+     * Removes every description from the index
+     */
+    public void clear() {
+        postings.clear();
+    }
+
+    /**
+     * Gets the ordinals of the items with a word that matches at least one of the keywords
+     * @param keywords The lower case keywords to look up
+     * @param mode     How the keywords are compared to the words
+     * @return A new bitset of the matching ordinals
+     */
+    public BitSet lookup(Collection<String> keywords, KeywordFilter.MatchMode mode) {
+        BitSet result = new BitSet();
+        for (String keyword : keywords) {
+            switch (mode) {
+                case PREFIX:
+                    for (Map.Entry<String, BitSet> entry : postings.tailMap(keyword, true).entrySet()) {
+                        if (!entry.getKey().startsWith(keyword)) break;
+                        result.or(entry.getValue());
+                    }
+                    break;
+                case FUZZY:
+                    if (keyword.length() >= FUZZY_MIN_LENGTH) {
+                        for (Map.Entry<String, BitSet> entry : postings.entrySet()) {
+                            if (withinOneEdit(entry.getKey(), keyword)) result.or(entry.getValue());
+                        }
+                        break;
+                    }
+                    // fall through to an exact match for short keywords
+                default:
+                    BitSet posting = postings.get(keyword);
+                    if (posting != null) result.or(posting);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether two words differ by at most one inserted, deleted or substituted letter
+     * @param a The first word
+     * @param b The second word
+     * @return true if the edit distance between the words is at most one
+     */
+    static boolean withinOneEdit(String a, String b) {
+        if (a.length() < b.length()) {
+            String temp = a;
+            a = b;
+            b = temp;
+        }
+        if (a.length() - b.length() > 1) return false;
+        int i = 0;
+        while (i < b.length() && a.charAt(i) == b.charAt(i)) i++;
+        if (i == b.length()) return true;
+        if (a.length() == b.length()) {
+            // substitute the first mismatched letter
+            return a.regionMatches(i + 1, b, i + 1, b.length() - i - 1);
+        }
+        // delete the first mismatched letter from the longer word
+        return a.regionMatches(i + 1, b, i, b.length() - i);
+    }
+}
@@ -3,6 +3,7 @@ package com.example.househomey.filter.model;
 import com.example.househomey.item.Item;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.stream.Collectors;
 
 /**
@@ -33,7 +34,35 @@ public class MakeFilter extends Filter {
             return itemList;
         }
         return itemList.stream()
-                .filter(item -> item.getMake().equalsIgnoreCase(makeToFilterBy))
+                .filter(this::matches)
                 .collect(Collectors.toCollection(ArrayList::new));
     }
-}
\ No newline at end of file
+
+    /**
+     * Checks whether an item has the make value specified in this filter.
+     *
+     * @param item The item to check.
+     * @return true if the makes match ignoring case, or if no make is set
+     */
+    @Override
+    public boolean matches(Item item) {
+        if (makeToFilterBy == null || makeToFilterBy.isEmpty()) {
+            return true;
+        }
+        return item.getMake().equalsIgnoreCase(makeToFilterBy);
+    }
+
+    /**
+     * Selects the items with the make value specified in this filter from the make index.
+     *
+     * @param index The indexes of the items to be filtered.
+     * @return the ordinals of the items with the make, or null if no make is set
+     */
+    @Override
+    public BitSet select(FilterIndex index) {
+        if (makeToFilterBy == null || makeToFilterBy.isEmpty()) {
+            return null;
+        }
+        return index.withMake(makeToFilterBy);
+    }
+}
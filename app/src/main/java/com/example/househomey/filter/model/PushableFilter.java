@@ -0,0 +1,28 @@
+package com.example.househomey.filter.model;
+
+import com.google.firebase.firestore.Query;
+
+/**
+ * A filter that Firestore can evaluate when querying the item collection, so that only the
+ * items passing it are sent to the device.
+ * @see QueryPlan
+ */
+public abstract class PushableFilter extends Filter {
+
+    /**
+     * Checks whether this filter can currently be evaluated by Firestore with
+     * {@link #pushDown(Query)}. If it cannot, it is only evaluated on the device.
+     *
+     * @return {@code true} if {@link #pushDown(Query)} can narrow a query of the item collection.
+     */
+    public abstract boolean canPushDown();
+
+    /**
+     * Narrows a query of the item collection to the items that pass this filter, so that
+     * Firestore only sends those items. Must only be called if {@link #canPushDown()}.
+     *
+     * @param query The query of the item collection to narrow.
+     * @return A query for only the items of the given query that pass the filter.
+     */
+    public abstract Query pushDown(Query query);
+}
@@ -0,0 +1,84 @@
+package com.example.househomey.filter.model;
+
+import com.google.firebase.firestore.Query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Splits a set of filters into the one filter Firestore evaluates when querying the item
+ * collection and the residual filters that are only evaluated on the device.
+ * At most one filter is pushed down, since combining clauses on different fields requires a
+ * composite index for every combination of filters.
+ * @see PushableFilter#pushDown(Query)
+ */
+public class QueryPlan {
+    /**
+     * Filter types in the order they are preferred for pushing down. Tag filters select a
+     * bounded set of items by id, so they are usually the most selective.
+     */
+    private static final List<Class<? extends PushableFilter>> PUSH_DOWN_ORDER =
+            Arrays.asList(TagFilter.class, DateFilter.class);
+
+    private final PushableFilter pushedFilter;
+    private final List<Filter> residualFilters;
+
+    /**
+     * Constructs a plan
+     * @param pushedFilter    The filter evaluated by Firestore, or null if there is none
+     * @param residualFilters The filters evaluated on the device
+     */
+    private QueryPlan(PushableFilter pushedFilter, List<Filter> residualFilters) {
+        this.pushedFilter = pushedFilter;
+        this.residualFilters = residualFilters;
+    }
+
+    /**
+     * Plans how to evaluate the given filters
+     * @param filters The filters applied to the inventory
+     * @return A plan pushing down the most preferred filter that Firestore can evaluate
+     */
+    public static QueryPlan of(Collection<Filter> filters) {
+        PushableFilter pushedFilter = null;
+        for (Class<? extends PushableFilter> type : PUSH_DOWN_ORDER) {
+            for (Filter filter : filters) {
+                if (type.isInstance(filter) && type.cast(filter).canPushDown()) {
+                    pushedFilter = type.cast(filter);
+                    break;
+                }
+            }
+            if (pushedFilter != null) break;
+        }
+        List<Filter> residualFilters = new ArrayList<>(filters);
+        residualFilters.remove(pushedFilter);
+        return new QueryPlan(pushedFilter, Collections.unmodifiableList(residualFilters));
+    }
+
+    /**
+     * Getter for the filter evaluated by Firestore
+     * @return The pushed down filter, or null if every filter is evaluated on the device
+     */
+    public PushableFilter getPushedFilter() {
+        return pushedFilter;
+    }
+
+    /**
+     * Getter for the filters Firestore cannot evaluate
+     * @return The filters that are only evaluated on the device
+     */
+    public List<Filter> getResidualFilters() {
+        return residualFilters;
+    }
+
+    /**
+     * Narrows a query of the item collection by the pushed down filter
+     * @param query The query of the whole item collection
+     * @return The narrowed query, or the given query if nothing is pushed down
+     */
+    public Query apply(Query query) {
+        return pushedFilter == null ? query : pushedFilter.pushDown(query);
+    }
+}
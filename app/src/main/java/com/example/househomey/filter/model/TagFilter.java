@@ -2,18 +2,36 @@ package com.example.househomey.filter.model;
 
 import com.example.househomey.item.Item;
 import com.example.househomey.tags.Tag;
+import com.example.househomey.tags.TagMembership;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.Query;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
  * A filter class that filters a list of items based on selected tags.
+ * When evaluated against a {@link FilterIndex} that indexes tags, the selected tags are looked
+ * up by label in its {@link TagMembership}, so the filter follows tag changes made after it was
+ * created. Otherwise the items of the selected tags as they were when the filter was created
+ * are used.
  * @author Jared Drueco
  */
-public class TagFilter extends Filter implements Serializable {
+public class TagFilter extends PushableFilter implements Serializable {
+    /**
+     * The most values Firestore accepts in a single whereIn clause
+     */
+    static final int MAX_PUSH_DOWN_IDS = 30;
+
     public Set<Tag> selectedTags;
+    private transient Set<String> selectedLabels;
+    private transient Set<String> selectedTagItemIds;
 
     /**
      * Constructs a new TagFilter with the specified keywords.
@@ -35,13 +53,125 @@ public class TagFilter extends Filter implements Serializable {
     public ArrayList<Item> filterList(ArrayList<Item> itemList) {
         if (selectedTags.isEmpty()) return itemList;
 
-        // Collect all item IDs corresponding to selected tags
-        Set<String> selectedTagItemIds = selectedTags.stream()
-                .flatMap(tag -> tag.getItemIds().stream())
-                .collect(Collectors.toSet());
         // Filter items based on selected item IDs
         return itemList.stream()
-                .filter(item -> selectedTagItemIds.contains(item.getId()))
+                .filter(this::matches)
                 .collect(Collectors.toCollection(ArrayList::new));
     }
+
+    /**
+     * Checks whether an item belongs to at least one of the selected tags.
+     *
+     * @param item The item to check.
+     * @return true if the item has one of the tags, or if no tags are selected
+     */
+    @Override
+    public boolean matches(Item item) {
+        if (selectedTags.isEmpty()) return true;
+        return getSelectedTagItemIds().contains(item.getId());
+    }
+
+    /**
+     * Checks whether an item currently belongs to at least one of the selected tags.
+     *
+     * @param item  The item to check.
+     * @param index The indexes of the item list the item belongs to.
+     * @return true if the item has one of the tags, or if no tags are selected
+     */
+    @Override
+    public boolean matches(Item item, FilterIndex index) {
+        TagMembership membership = index.getTagMembership();
+        if (membership == null || selectedTags.isEmpty()) return matches(item);
+        return membership.hasAnyTag(item.getId(), getSelectedLabels());
+    }
+
+    /**
+     * Selects the items that belong to at least one of the selected tags by combining the
+     * tags' bitsets from the index's tag membership.
+     *
+     * @param index The indexes of the items to be filtered.
+     * @return the ordinals of the items with one of the tags, or null if no tags are selected
+     */
+    @Override
+    public BitSet select(FilterIndex index) {
+        if (selectedTags.isEmpty()) return null;
+        TagMembership membership = index.getTagMembership();
+        if (membership == null) return index.withIds(getSelectedTagItemIds());
+        BitSet selected = membership.withAnyTag(getSelectedLabels());
+        // The tags may also hold items that are not indexed
+        selected.and(index.all());
+        return selected;
+    }
+
+    /**
+     * Creates a filter for the same tags as they currently are in a tag membership index,
+     * e.g. to push the filter down with the tags' current items
+     *
+     * @param membership The current tags.
+     * @return A filter for the current version of each selected tag that still exists
+     */
+    public TagFilter withCurrentTags(TagMembership membership) {
+        Set<Tag> currentTags = new HashSet<>();
+        for (String label : getSelectedLabels()) {
+            Tag tag = membership.getTag(label);
+            if (tag != null) currentTags.add(tag);
+        }
+        return new TagFilter(currentTags);
+    }
+
+    /**
+     * The selected tags can be evaluated by Firestore as a list of item ids, if the list is
+     * short enough for a whereIn clause.
+     *
+     * @return true if the selected tags contain between 1 and 30 items
+     */
+    @Override
+    public boolean canPushDown() {
+        if (selectedTags.isEmpty()) return false;
+        int idCount = getSelectedTagItemIds().size();
+        return idCount > 0 && idCount <= MAX_PUSH_DOWN_IDS;
+    }
+
+    /**
+     * Narrows a query to the items that belong to at least one of the selected tags.
+     *
+     * @param query The query of the item collection to narrow.
+     * @return The query restricted to the ids of the tags' items
+     */
+    @Override
+    public Query pushDown(Query query) {
+        // Sort the ids so the same selection always builds an equal query
+        List<String> ids = new ArrayList<>(getSelectedTagItemIds());
+        Collections.sort(ids);
+        return query.whereIn(FieldPath.documentId(), ids);
+    }
+
+    /**
+     * Collects the labels of the selected tags the first time they are needed
+     *
+     * @return the labels of the selected tags
+     */
+    public Set<String> getSelectedLabels() {
+        if (selectedLabels == null) {
+            selectedLabels = selectedTags.stream()
+                    .map(Tag::getTagLabel)
+                    .collect(Collectors.toSet());
+        }
+        return selectedLabels;
+    }
+
+    /**
+     * Collects the item ids of every selected tag the first time they are needed, for
+     * evaluating the filter without a tag membership index
+     *
+     * @return the ids of the items that have at least one of the selected tags
+     */
+    private Set<String> getSelectedTagItemIds() {
+        if (selectedTagItemIds == null) {
+            selectedTagItemIds = selectedTags.stream()
+                    .flatMap(tag -> tag.getItemIds().stream())
+                    .collect(Collectors.toSet());
+        }
+        return selectedTagItemIds;
+    }
 }
\ No newline at end of file
@@ -32,6 +32,7 @@ import java.util.List;
  */
 public class KeywordFilterFragment extends FilterFragment {
     private ChipGroup chipGroup;
+    private ChipGroup matchGroup;
     private ArrayList<String> chipTextVals = new ArrayList<>();
     protected KeywordFilter keywordFilter;
     Button addButton;
@@ -51,6 +52,7 @@ public class KeywordFilterFragment extends FilterFragment {
         Dialog dialog = builder.setTitle("Filter by Keywords").setView(contentView).create();
 
         chipGroup = contentView.findViewById(R.id.chip_group_labels);
+        matchGroup = contentView.findViewById(R.id.keyword_match_group);
         addButton = contentView.findViewById(R.id.add_keyword_button);
         keyWords = contentView.findViewById(R.id.keyword_edit_text);
 
@@ -66,8 +68,10 @@ public class KeywordFilterFragment extends FilterFragment {
             filterCallback = getArguments().getSerializable("callback", FilterCallback.class);
 
             keywordFilter = getArguments().getSerializable("filter", KeywordFilter.class);
-            if (keywordFilter != null)
+            if (keywordFilter != null) {
                 autoFillFilter(keywordFilter.getOgKeyWords());
+                matchGroup.check(getMatchChipId(keywordFilter.getMatchMode()));
+            }
         }
 
         return dialog;
@@ -79,12 +83,39 @@ public class KeywordFilterFragment extends FilterFragment {
     @Override
     public void getFilterInput() {
         // TODO: get the filter properties from fragment input
-        KeywordFilter keywordFilter = new KeywordFilter(chipTextVals);
+        KeywordFilter keywordFilter = new KeywordFilter(chipTextVals, getMatchMode());
         filterCallback.onFilterApplied(keywordFilter);
 
         dismiss();
     }
 
+    /**
+     * Gets the match mode selected in the match chip group.
+     * @return The selected match mode, or exact matching if none is selected.
+     */
+    private KeywordFilter.MatchMode getMatchMode() {
+        int checkedId = matchGroup.getCheckedChipId();
+        if (checkedId == R.id.match_prefix_chip) return KeywordFilter.MatchMode.PREFIX;
+        if (checkedId == R.id.match_fuzzy_chip) return KeywordFilter.MatchMode.FUZZY;
+        return KeywordFilter.MatchMode.EXACT;
+    }
+
+    /**
+     * Gets the chip in the match chip group for a match mode.
+     * @param matchMode The match mode of a keyword filter.
+     * @return The id of the chip representing the match mode.
+     */
+    private int getMatchChipId(KeywordFilter.MatchMode matchMode) {
+        switch (matchMode) {
+            case PREFIX:
+                return R.id.match_prefix_chip;
+            case FUZZY:
+                return R.id.match_fuzzy_chip;
+            default:
+                return R.id.match_exact_chip;
+        }
+    }
+
     /**
      * Takes a list of keywords in and auto fills the chip group with them.
      * @param keyWordArray The list of keywords to fill the chip group with.
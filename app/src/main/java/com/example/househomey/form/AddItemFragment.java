@@ -14,8 +14,10 @@ import androidx.annotation.Nullable;
 
 import com.example.househomey.item.Item;
 import com.example.househomey.R;
+import com.example.househomey.metrics.FirestoreMetrics;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.android.material.textfield.TextInputLayout;
+import com.google.firebase.firestore.DocumentReference;
 
 /**
  * This fragment is responsible for creating and loading to the database a new item
@@ -24,6 +26,7 @@ import com.google.android.material.textfield.TextInputLayout;
  */
 public class AddItemFragment extends ItemFormFragment {
     private Item newItem;
+    private DocumentReference newItemDocument;
     /**
      * This creates the view to add an item to a user's inventory and set's the button listeners
      *
@@ -71,7 +74,20 @@ public class AddItemFragment extends ItemFormFragment {
      */
     private void addItem() {
         newItem = validateItem("");
-        if (newItem != null) prepareItem(newItem);
+        if (newItem == null) return;
+        // Choose the item's id up front, so its photos can finish uploading without this form
+        newItemDocument = itemRef.document();
+        prepareItem(newItem);
+    }
+
+    /**
+     * Gets the Firestore document the new item is created in.
+     *
+     * @return The new item's document.
+     */
+    @Override
+    protected DocumentReference getItemDocument() {
+        return newItemDocument;
     }
 
     /**
@@ -81,8 +97,9 @@ public class AddItemFragment extends ItemFormFragment {
      */
     @Override
     public void writeToFirestore() {
-        itemRef.add(newItem.getData()).addOnSuccessListener(documentReference -> {
-                    Log.d("Firestore", "Successfully created new item with id:" + documentReference.getId());
+        FirestoreMetrics.count("Add Item", FirestoreMetrics.Operation.WRITE, 1);
+        newItemDocument.set(newItem.getData()).addOnSuccessListener(aVoid -> {
+                    Log.d("Firestore", "Successfully created new item with id:" + newItemDocument.getId());
                     navigateHomeWithIndicator(getContext());
                     clearDataFields();
 
@@ -11,12 +11,14 @@ import android.view.View;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
-import androidx.core.os.BundleCompat;
 
+import com.example.househomey.MainActivity;
 import com.example.househomey.R;
 import com.example.househomey.item.Item;
+import com.example.househomey.metrics.FirestoreMetrics;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.android.material.textview.MaterialTextView;
+import com.google.firebase.firestore.DocumentReference;
 
 /**
  * This fragment is responsible for editing an existing item in the database.
@@ -44,7 +46,7 @@ public class EditItemFragment extends ItemFormFragment {
     public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
         View rootView = super.onCreateView(inflater, container, savedInstanceState);
         ofNullable(getArguments())
-                .map(args -> BundleCompat.getParcelable(args, "item", Item.class))
+                .map(args -> ((MainActivity) requireActivity()).getInventory().getItem(args.getString("itemId")))
                 .ifPresent(item -> this.item = item);
 
         // Change title and prefill inputs with the existing Item's data
@@ -100,7 +102,8 @@ public class EditItemFragment extends ItemFormFragment {
      */
     @Override
     public void writeToFirestore() {
-        itemRef.document(updatedItem.getId())
+        FirestoreMetrics.count("Edit Item", FirestoreMetrics.Operation.WRITE, 1);
+        getItemDocument()
                 .set(updatedItem.getData())
                 .addOnSuccessListener(aVoid -> {
                     Log.d("Firestore", "Successfully updated item with id: " + updatedItem.getId());
@@ -113,6 +116,16 @@ public class EditItemFragment extends ItemFormFragment {
                 });
     }
 
+    /**
+     * Gets the Firestore document of the item being edited.
+     *
+     * @return The edited item's document.
+     */
+    @Override
+    protected DocumentReference getItemDocument() {
+        return itemRef.document(updatedItem.getId());
+    }
+
     /**
      * Sends the new item to the view item fragment
      */
@@ -1,9 +1,11 @@
 package com.example.househomey.form;
 
 import static com.example.househomey.utils.FragmentUtils.createDatePicker;
-import static com.example.househomey.utils.FragmentUtils.isValidUUID;
+import static com.example.househomey.utils.FragmentUtils.deletePhotosFromCloud;
+import static com.example.househomey.utils.FragmentUtils.isPhotoId;
 import static java.util.Objects.requireNonNull;
 
+import android.content.ContentResolver;
 import android.net.Uri;
 import android.os.Bundle;
 import android.text.Editable;
@@ -16,29 +18,37 @@ import android.view.ViewGroup;
 import android.widget.EditText;
 import android.widget.Toast;
 
+import androidx.annotation.NonNull;
 import androidx.fragment.app.Fragment;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.househomey.item.Item;
 import com.example.househomey.MainActivity;
 import com.example.househomey.R;
-import com.example.househomey.utils.FragmentUtils;
+import com.example.househomey.photo.ContentHash;
+import com.example.househomey.photo.PhotoUploadManager;
 import com.example.househomey.scanner.BarcodeImageScanner;
 import com.example.househomey.scanner.SNImageScanner;
 import com.example.househomey.scanner.ScannerPickerDialog;
+import com.example.househomey.scanner.ScannerService;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
 import com.google.android.material.datepicker.MaterialDatePicker;
+import com.google.android.material.progressindicator.LinearProgressIndicator;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.android.material.textfield.TextInputLayout;
 import com.google.firebase.Timestamp;
 import com.google.firebase.firestore.CollectionReference;
-import com.google.firebase.storage.StorageReference;
+import com.google.firebase.firestore.DocumentReference;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.UUID;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * This abstract class serves as a base for creating and managing both Add and Edit Item forms.
@@ -48,7 +58,7 @@ import java.util.UUID;
  */
 public abstract class ItemFormFragment extends Fragment implements ImagePickerDialog.OnImagePickedListener,
         PhotoAdapter.OnButtonClickListener, SNImageScanner.OnImageScannedListener,
-        BarcodeImageScanner.OnBarcodeScannedListener {
+        BarcodeImageScanner.OnBarcodeScannedListener, PhotoUploadManager.Listener, ScannerService.Provider {
     protected Date dateAcquired;
     private TextInputEditText dateTextView;
     protected CollectionReference itemRef;
@@ -58,9 +68,9 @@ public abstract class ItemFormFragment extends Fragment implements ImagePickerDi
     private TextInputEditText descriptionTextView;
     private final ArrayList<String> photosToDelete = new ArrayList<>();
     private ImagePickerDialog imagePickerDialog;
-    private int count = 0;
-    private boolean failedToUpload = false;
-    private long expectedCount;
+    private LinearProgressIndicator uploadProgress;
+    private String uploadId;
+    private ScannerService scannerService;
 
     /**
      * Creates the basic view for a validated Item form.
@@ -82,11 +92,49 @@ public abstract class ItemFormFragment extends Fragment implements ImagePickerDi
         itemRef = ((MainActivity) requireActivity()).getItemRef();
         sNTextView = rootView.findViewById(R.id.add_item_serial_number);
         descriptionTextView = rootView.findViewById(R.id.add_item_description);
+        uploadProgress = rootView.findViewById(R.id.add_item_upload_progress);
         View scanButton = rootView.findViewById(R.id.add_item_scan_button);
         scanButton.setOnClickListener(v -> launchScannerPicker());
         return rootView;
     }
 
+    /**
+     * Starts the form's scanner service, which warms up the detectors while the form is open
+     * and closes them when its view is destroyed.
+     *
+     * @param view               The view returned by onCreateView.
+     * @param savedInstanceState If non-null, this fragment is being re-constructed
+     *                           from a previous saved state as given here.
+     */
+    @Override
+    public void onViewCreated(@NonNull View view, Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+        scannerService = new ScannerService(requireContext());
+        getViewLifecycleOwner().getLifecycle().addObserver(scannerService);
+    }
+
+    /**
+     * Getter for the form's scanner service
+     *
+     * @return The scanner service used by the scanners this form opens.
+     */
+    @Override
+    public ScannerService getScannerService() {
+        return scannerService;
+    }
+
+    /**
+     * Stops showing the progress of an ongoing photo upload, which continues without the form
+     */
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        if (uploadId != null) {
+            PhotoUploadManager.getInstance(requireContext()).removeListener(uploadId);
+            uploadId = null;
+        }
+    }
+
     /**
      * Launches the scanner picker dialog
      */
@@ -101,32 +149,115 @@ public abstract class ItemFormFragment extends Fragment implements ImagePickerDi
      */
     public abstract void writeToFirestore();
 
+    /**
+     * Gets the Firestore document the item is written to.
+     * Uploads that outlive the form write the item to this document themselves.
+     *
+     * @return The document of the item being added or edited.
+     */
+    protected abstract DocumentReference getItemDocument();
+
     /**
      * Prepares the item for storage by handling photo-related tasks.
-     * This method calculates the expected count of valid photo URIs, uploads new photos (if any)
-     * to Cloud Storage, sets the photo IDs on the provided item, removes deleted photos (if any)
-     * from Cloud Storage, and writes the item to Firestore if no valid photos are present.
+     * This method hashes new photos in the background to get the IDs they are stored under,
+     * then continues with {@link #storePhotos}, unless the form was closed meanwhile.
      *
      * @param item The item to be prepared, which may include associated photos.
      */
     protected void prepareItem(Item item) {
-        expectedCount = photoUris.stream().filter(uri -> !FragmentUtils.isValidUUID(uri)).count();
-        // Upload new photos (if any) to Cloud Storage
-        photoUris.replaceAll(this::uploadImageToFirebase);
-        item.setPhotoIds(photoUris);
-
-        // Remove deleted photos (if any) from Cloud Storage
-        for (String imageId : photosToDelete) {
-            StorageReference imageRef = ((MainActivity) requireActivity()).getImageRef(imageId);
-            imageRef.delete()
-                    .addOnSuccessListener(taskSnapshot -> Log.d("IMAGE_DELETE", "Successfully removed image from: " + imageRef))
-                    .addOnFailureListener(e -> Log.e("IMAGE_DELETE", "Failed to delete image from Cloud Storage: " + e));
+        ContentResolver resolver = requireContext().getContentResolver();
+        List<String> imageUris = new ArrayList<>(photoUris);
+        List<Task<String>> photoIds = new ArrayList<>();
+        for (String imageUri : imageUris) {
+            photoIds.add(isPhotoId(imageUri)
+                    ? Tasks.forResult(imageUri)
+                    : ContentHash.computeAsync(resolver, Uri.parse(imageUri)));
         }
-        if (expectedCount == 0) {
+        Tasks.<String>whenAllSuccess(photoIds).addOnCompleteListener(task -> {
+            // The form may have been closed while hashing, leaving nothing to store
+            if (getView() == null) return;
+            if (task.isSuccessful()) {
+                storePhotos(item, imageUris, task.getResult());
+            } else {
+                onUploadFailed(task.getException());
+            }
+        });
+    }
+
+    /**
+     * Sets the photo IDs on the provided item, releases deleted photos (if any) and uploads new
+     * photos to Cloud Storage before the item is written to Firestore, so the item never refers
+     * to a missing photo. A new photo that is already in Cloud Storage is not uploaded again.
+     *
+     * @param item      The item to be stored.
+     * @param imageUris The photos in the form, as Cloud Storage IDs or local URIs.
+     * @param photoIds  The Cloud Storage ID of each photo in the form.
+     */
+    private void storePhotos(Item item, List<String> imageUris, List<String> photoIds) {
+        item.setPhotoIds(photoIds);
+
+        // Photos removed and then added again keep their existing reference
+        Map<String, Uri> newPhotos = new LinkedHashMap<>();
+        for (int i = 0; i < imageUris.size(); i++) {
+            String photoId = photoIds.get(i);
+            if (!imageUris.contains(photoId) && !photosToDelete.contains(photoId)) {
+                newPhotos.putIfAbsent(photoId, Uri.parse(imageUris.get(i)));
+            }
+        }
+        // Remove deleted photos (if any) from Cloud Storage, unless another item still uses them
+        List<String> releasedPhotos = new ArrayList<>(photosToDelete);
+        releasedPhotos.removeAll(photoIds);
+        photosToDelete.clear();
+        deletePhotosFromCloud(requireActivity(), releasedPhotos);
+
+        if (newPhotos.isEmpty()) {
             writeToFirestore();
+            return;
+        }
+        uploadProgress.setProgressCompat(0, false);
+        uploadProgress.setVisibility(View.VISIBLE);
+        uploadId = PhotoUploadManager.getInstance(requireContext()).upload(getItemDocument(), item.getData(),
+                newPhotos, ((MainActivity) requireActivity()).getPhotoReferences(), this);
+    }
+
+    /**
+     * Shows the progress of the photo upload.
+     *
+     * @param bytesTransferred The bytes uploaded so far, over every photo.
+     * @param totalBytes       The bytes to upload in total.
+     */
+    @Override
+    public void onUploadProgress(long bytesTransferred, long totalBytes) {
+        if (totalBytes > 0) {
+            uploadProgress.setProgressCompat((int) (100 * bytesTransferred / totalBytes), true);
         }
     }
 
+    /**
+     * Writes the item once all of its photos are uploaded.
+     */
+    @Override
+    public void onPhotosUploaded() {
+        uploadId = null;
+        uploadProgress.setVisibility(View.GONE);
+        writeToFirestore();
+    }
+
+    /**
+     * Tells the user the photos could not be uploaded, leaving the form filled in to retry.
+     *
+     * @param e The error of the last failed upload.
+     */
+    @Override
+    public void onUploadFailed(Exception e) {
+        uploadId = null;
+        uploadProgress.setVisibility(View.GONE);
+        Log.e("IMAGE_UPLOAD", "Failed to upload images: " + e);
+        Toast.makeText(requireActivity().getApplicationContext(),
+                "Failed to upload images.",
+                Toast.LENGTH_SHORT).show();
+    }
+
     /**
      * Validates and creates an Item using form data.
      * Checks that required fields are filled, creates a map with form data, and attempts
@@ -311,51 +442,6 @@ public abstract class ItemFormFragment extends Fragment implements ImagePickerDi
     @Override
     public void onSerialNumberOKPressed(String serialNumber) {sNTextView.setText(serialNumber);}
 
-    /**
-     * Uploads an image to Firebase Cloud Storage.
-     * If the image URI is not a valid UUID, it creates a unique storage reference,
-     * uploads the image to Cloud Storage, and returns the generated image ID.
-     * If the image URI is a valid UUID, it is assumed that the image is already uploaded,
-     * and the original image URI is returned.
-     * @param imageUri The URI of the image to be uploaded.
-     * @return The image ID if the image is uploaded, or the original image URI if already uploaded.
-     */
-    private String uploadImageToFirebase(String imageUri) {
-        if (!isValidUUID(imageUri)) {
-            // New image to upload, create a unique storage reference
-            String imageId = UUID.randomUUID().toString();
-            StorageReference imageRef = ((MainActivity) requireActivity()).getImageRef(imageId);
-
-            // Upload the image to Cloud Storage
-            imageRef.putFile(Uri.parse(imageUri))
-                    .addOnSuccessListener(taskSnapshot -> {
-                        count++;
-                        if (count == expectedCount) {
-                            if (failedToUpload) {
-                                Toast.makeText(requireActivity().getApplicationContext(),
-                                        "Failed to upload images.",
-                                        Toast.LENGTH_SHORT).show();
-                            } else {
-                                writeToFirestore();
-                            }
-                        }
-                        Log.d("IMAGE_UPLOAD", "Successfully uploaded image to: " + taskSnapshot.getStorage());
-                    })
-                    .addOnFailureListener(e -> {
-                        failedToUpload = true;
-                        count++;
-                        if (count == expectedCount) {
-                            Toast.makeText(requireActivity().getApplicationContext(),
-                                    "Failed to upload images.",
-                                    Toast.LENGTH_SHORT).show();
-                        }
-                    });
-            return imageId;
-        }
-        // Already uploaded to Firebase
-        return imageUri;
-    }
-
     /**
      * Callback method for when the Delete button on a photo is clicked.
      * @param position The integer index of the clicked position in the adapter.
@@ -364,7 +450,7 @@ public abstract class ItemFormFragment extends Fragment implements ImagePickerDi
     public void onDeleteButtonClicked(int position) {
         // Keep track of Cloud Storage IDs to delete when confirm button clicked
         String imageId = photoUris.get(position);
-        if (isValidUUID(imageId)) {
+        if (isPhotoId(imageId)) {
             photosToDelete.add(imageId);
         }
         // Remove photo from adapter
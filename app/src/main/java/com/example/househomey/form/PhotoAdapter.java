@@ -1,9 +1,6 @@
 package com.example.househomey.form;
 
-import static com.example.househomey.utils.FragmentUtils.isValidUUID;
-
 import android.content.Context;
-import android.graphics.drawable.Drawable;
 import android.util.DisplayMetrics;
 import android.util.TypedValue;
 import android.view.LayoutInflater;
@@ -15,11 +12,8 @@ import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.bumptech.glide.Glide;
-import com.bumptech.glide.RequestBuilder;
-import com.bumptech.glide.load.engine.DiskCacheStrategy;
-import com.example.househomey.MainActivity;
 import com.example.househomey.R;
+import com.example.househomey.photo.PhotoLoader;
 
 import java.util.List;
 import java.util.Objects;
@@ -124,21 +118,13 @@ public class PhotoAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder>
     }
 
     /**
-     * Loads the image defined by a URI into an ImageView using Glide.
+     * Loads the thumbnail of the image defined by a URI into an ImageView using Glide.
      *
      * @param imageView The ImageView to load the image into.
      * @param imagePath The string URI of the image.
      */
     private void loadIntoImageView(ImageView imageView, String imagePath) {
-        RequestBuilder<Drawable> requestBuilder = Glide.with(context).asDrawable();
-        if (isValidUUID(imagePath)) {
-            // Cloud Storage UUID, fetch from Firebase
-            requestBuilder.load(((MainActivity) context).getImageRef(imagePath));
-        } else {
-            // Local file URI, load directly
-            requestBuilder.load(imagePath);
-        }
-        requestBuilder.diskCacheStrategy(DiskCacheStrategy.DATA).into(imageView);
+        PhotoLoader.loadThumbnail(context, imageView, imagePath);
     }
 
     /**
@@ -1,8 +1,6 @@
 package com.example.househomey.form;
 
 import android.content.Context;
-import android.graphics.drawable.Drawable;
-import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -11,11 +9,8 @@ import android.widget.ImageView;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.bumptech.glide.Glide;
-import com.bumptech.glide.RequestBuilder;
-import com.bumptech.glide.load.engine.DiskCacheStrategy;
-import com.example.househomey.MainActivity;
 import com.example.househomey.R;
+import com.example.househomey.photo.PhotoLoader;
 
 import java.util.List;
 
@@ -76,27 +71,20 @@ public class ViewPhotoAdapter extends RecyclerView.Adapter<RecyclerView.ViewHold
     @Override
     public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
         if (holder instanceof ViewPhotoAdapter.ViewImageViewHolder) {
-            loadIntoImageView(((ViewImageViewHolder) holder).imageView, imageUris.get(position));
+            PhotoLoader.loadThumbnail(context, ((ViewImageViewHolder) holder).imageView, imageUris.get(position));
             holder.itemView.setOnClickListener(v -> listener.onItemClick(imageUris.get(position)));
         }
     }
 
     /**
-     * Loads the image defined by a URI into an ImageView using Glide.
+     * Loads the full-resolution image defined by a URI into an ImageView using Glide,
+     * showing its thumbnail until it arrives. Used for the large photo of the detail view.
      *
      * @param imageView The ImageView to load the image into.
      * @param imagePath The string URI of the image.
      */
     public void loadIntoImageView(ImageView imageView, String imagePath) {
-        RequestBuilder<Drawable> requestBuilder = Glide.with(context).asDrawable();
-        if (imagePath.contains("content://") || imagePath.contains("file://")) {
-            // Local file URI, load directly
-            requestBuilder.load(imagePath);
-        } else {
-            // Cloud Storage URI, fetch from Firebase
-            requestBuilder.load(((MainActivity) context).getImageRef(imagePath));
-        }
-        requestBuilder.into(imageView);
+        PhotoLoader.loadFullSize(context, imageView, imagePath);
     }
 
     /**
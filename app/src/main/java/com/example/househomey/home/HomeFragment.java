@@ -3,13 +3,11 @@ package com.example.househomey.home;
 import static com.example.househomey.utils.FragmentUtils.navigateToFragmentPage;
 
 import android.os.Bundle;
-import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.MenuInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.Button;
-import android.widget.ListView;
 import android.widget.PopupMenu;
 import android.widget.TextView;
 import android.widget.ToggleButton;
@@ -17,6 +15,8 @@ import android.widget.ToggleButton;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.househomey.MainActivity;
 import com.example.househomey.R;
@@ -30,30 +30,11 @@ import com.example.househomey.filter.model.FilterCallback;
 import com.example.househomey.filter.ui.KeywordFilterFragment;
 import com.example.househomey.filter.ui.MakeFilterFragment;
 import com.example.househomey.filter.ui.TagFilterFragment;
-import com.example.househomey.item.Item;
+import com.example.househomey.inventory.InventoryRepository;
+import com.example.househomey.inventory.InventoryView;
+import com.example.househomey.inventory.LoadMoreScrollListener;
 import com.example.househomey.item.ItemAdapter;
-import com.example.househomey.sort.CostComparator;
-import com.example.househomey.sort.DateComparator;
-import com.example.househomey.sort.DescriptionComparator;
-import com.example.househomey.sort.MakeComparator;
-import com.example.househomey.sort.TagComparator;
-import com.example.househomey.tags.Tag;
-import com.google.firebase.firestore.CollectionReference;
-import com.google.firebase.firestore.FirebaseFirestoreException;
-import com.google.firebase.firestore.QueryDocumentSnapshot;
-import com.google.firebase.firestore.QuerySnapshot;
-
-import java.io.Serializable;
-import java.util.ArrayList;
-
-import java.math.BigDecimal;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
+import com.example.househomey.metrics.FirestoreMetrics;
 
 /**
  * This fragment is a child of the home fragment containing the list of the user's inventory
@@ -61,27 +42,20 @@ import java.util.concurrent.atomic.AtomicInteger;
  * @see HomeFragment
  * @author Owen Cooke, Jared Drueco, Lukas Bonkowski, Sami Jagirdar
  */
-public class HomeFragment extends Fragment implements FilterCallback {
-    private CollectionReference itemRef;
-    private ListView itemListView;
-    private ArrayList<Item> itemList = new ArrayList<>();
-    private ArrayList<Item> filteredItemList = new ArrayList<>();
+public class HomeFragment extends Fragment implements FilterCallback, InventoryView.OnViewChangedListener {
+    /**
+     * Name of the shared inventory view displayed on the home page
+     */
+    public static final String VIEW_NAME = "home";
+    private InventoryRepository inventory;
+    private InventoryView inventoryView;
+    private RecyclerView itemListView;
     private ItemAdapter itemAdapter;
-    private Set<Filter> appliedFilters = new HashSet<>();
     private TextView listCountView;
     private TextView listSumView;
-    private BigDecimal listSum = new BigDecimal("0.00");
-    private int listCount = 0;
-    private Map<String, Comparator<Item>> sortProperties;
-    private Comparator<Item> currentSort = new DescriptionComparator();
-    private String currentSortName = "description";
     private final boolean DESC = true;
     private final boolean ASC = false;
     private ToggleButton toggleOrder;
-    private boolean sortOrder = ASC;
-    private CollectionReference tagRef;
-    private ArrayList<Tag> tagList = new ArrayList<>();
-    private Map<String, Item> itemIdMap = new HashMap<>();
 
     /**
      * @param inflater           The LayoutInflater object that can be used to inflate
@@ -96,7 +70,8 @@ public class HomeFragment extends Fragment implements FilterCallback {
      */
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
-        this.itemRef = ((MainActivity) requireActivity()).getItemRef();
+        this.inventory = ((MainActivity) requireActivity()).getInventory();
+        this.inventoryView = inventory.getView(VIEW_NAME);
 
         // Inflate the fragment's layout
         View rootView = inflater.inflate(R.layout.fragment_home, container, false);
@@ -106,40 +81,18 @@ public class HomeFragment extends Fragment implements FilterCallback {
         listCountView = rootView.findViewById(R.id.total_count_text);
         listSumView = rootView.findViewById(R.id.total_value_text);
 
-        //initalize sorting properties
-        sortProperties = new HashMap<>();
-        sortProperties.put("description", new DescriptionComparator());
-        sortProperties.put("date",new DateComparator());
-        sortProperties.put("make", new MakeComparator());
-        sortProperties.put("cost", new CostComparator());
-        sortProperties.put("tag", new TagComparator());
-
-        Bundle received_args = getArguments();
-        if (received_args!=null){
-            currentSortName = received_args.getString("currentSortName");
-            currentSort = sortProperties.get(currentSortName);
-            sortOrder = received_args.getBoolean("sortOrder");
-        }
-
-        itemRef.addSnapshotListener(this::setupItemListener);
         itemListView = rootView.findViewById(R.id.item_list);
-        itemAdapter = new ItemAdapter(getContext(), filteredItemList);
+        itemListView.setLayoutManager(new LinearLayoutManager(getContext()));
+        itemAdapter = new ItemAdapter(getContext());
         itemListView.setAdapter(itemAdapter);
+        itemListView.addOnScrollListener(new LoadMoreScrollListener(inventory));
         itemAdapter.setSelectState(false);
 
-        tagRef = ((MainActivity) requireActivity()).getTagRef();
-        tagRef.addSnapshotListener(this::setupTagListener);
-
         final Button selectButton = rootView.findViewById(R.id.select_items_button);
         selectButton.setOnClickListener(v -> {
             SelectFragment selectStateFragment = new SelectFragment();
             Bundle args = new Bundle();
-            args.putParcelableArrayList("itemList", filteredItemList);
-            args.putInt("listCount", listCount);
-            args.putString("listSum", listSum.toString());
-            args.putBoolean("sortOrder",sortOrder);
-            args.putString("currentSortName",currentSortName);
-            args.putSerializable("idMap", (Serializable) itemIdMap);
+            args.putString("viewName", VIEW_NAME);
             selectStateFragment.setArguments(args);
             navigateToFragmentPage(getContext(), selectStateFragment, R.id.fragmentContainer);
         });
@@ -153,70 +106,37 @@ public class HomeFragment extends Fragment implements FilterCallback {
 
         //Toggle sorting order functionality
         toggleOrder = rootView.findViewById(R.id.sort_order_toggle);
-        toggleOrder.setChecked(sortOrder);
-        toggleOrder.setOnCheckedChangeListener((buttonView, isChecked) -> {
-            sortOrder = isChecked? DESC : ASC;
-            sortItems();
-        });
+        toggleOrder.setChecked(inventoryView.isDescending());
+        toggleOrder.setOnCheckedChangeListener((buttonView, isChecked) ->
+                sortBy(inventoryView.getSortName(), isChecked ? DESC : ASC));
 
+        inventoryView.addListener(this);
+        onViewChanged(inventoryView);
         return rootView;
 
     }
 
     /**
-     * This method updates the tags with changes in the firestore database and creates new
-     * tag objects
-     * @param querySnapshots The updated information on the inventory from the database
-     * @param error Non-null if an error occurred in Firestore
+     * Stop listening to the inventory view when the fragment's view is destroyed
      */
-    private void setupTagListener(QuerySnapshot querySnapshots, FirebaseFirestoreException error) {
-        if (error != null) {
-            Log.e("Firestore", error.toString());
-            return;
-        }
-        if (querySnapshots != null) {
-            tagList.clear();
-            itemList.forEach(Item::clearTags);
-            for (QueryDocumentSnapshot doc: querySnapshots) {
-                Tag tag = new Tag(doc.getId(), doc.getData());
-                tagList.add(tag);
-                for (String id : tag.getItemIds()) {
-                    Item item = itemIdMap.get(id);
-                    if (item != null) item.addTag(tag);
-                }
-            }
-
-            applyFilters();
-        }
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        inventoryView.removeListener(this);
     }
 
     /**
-     * This method updates the itemAdapter with changes in the firestore database and creates new
-     * item objects
-     * @param querySnapshots The updated information on the inventory from the database
-     * @param error Non-null if an error occurred in Firestore
+     * Updates the displays above list containing information on Total Value and No. of Items
+     * in the List, and submits the view's items to the list whenever the inventory view
+     * changes. The view publishes a new immutable list with every change, so the adapter can
+     * diff against it directly.
+     * @param view The inventory view that changed
      */
-    private void setupItemListener(QuerySnapshot querySnapshots, FirebaseFirestoreException error) {
-        if (error != null) {
-            Log.e("Firestore", error.toString());
-            return;
-        }
-        if (querySnapshots != null) {
-            itemList.clear();
-            itemIdMap.clear();
-            int totalItems = querySnapshots.size();
-            AtomicInteger initializedItems = new AtomicInteger(0);
-            for (QueryDocumentSnapshot doc: querySnapshots) {
-                Map<String, Object> data = new HashMap<>(doc.getData());
-                Item item = new Item(doc.getId(), data, tagRef, item1 -> {
-                    if (initializedItems.incrementAndGet() == totalItems) {
-                        applyFilters();
-                    }
-                });
-                itemList.add(item);
-                itemIdMap.put(doc.getId(), item);
-            }
-        }
+    @Override
+    public void onViewChanged(InventoryView view) {
+        this.listSumView.setText(view.getDisplayTotalText());
+        this.listCountView.setText(Long.toString(view.getDisplayCount()));
+        itemAdapter.submitList(view.getItems(), FirestoreMetrics::snapshotRendered);
     }
 
     /**
@@ -235,7 +155,7 @@ public class HomeFragment extends Fragment implements FilterCallback {
 
             if (itemId == R.id.filter_by_dates) {
                 DateFilterFragment dateFilterFragment = new DateFilterFragment();
-                for (Filter filter : appliedFilters) {
+                for (Filter filter : inventoryView.getAppliedFilters()) {
                     if (filter instanceof DateFilter) {
                         DateFilter dateFilter = (DateFilter) filter;
                         filterArgs.putSerializable("filter", dateFilter);
@@ -245,7 +165,7 @@ public class HomeFragment extends Fragment implements FilterCallback {
                 dateFilterFragment.show(requireActivity().getSupportFragmentManager(), "dates_filter_dialog");
             } else if (itemId == R.id.filter_by_make) {
                 MakeFilterFragment makeFilterFragment = new MakeFilterFragment();
-                for (Filter filter : appliedFilters) {
+                for (Filter filter : inventoryView.getAppliedFilters()) {
                     if (filter instanceof MakeFilter) {
                         MakeFilter makeFilter = (MakeFilter) filter;
                         filterArgs.putSerializable("filter", makeFilter);
@@ -255,7 +175,7 @@ public class HomeFragment extends Fragment implements FilterCallback {
                 makeFilterFragment.show(requireActivity().getSupportFragmentManager(), "make_filter_dialog");
             } else if (itemId == R.id.filter_by_keywords) {
                 KeywordFilterFragment keywordFilterFragment = new KeywordFilterFragment();
-                for (Filter filter : appliedFilters) {
+                for (Filter filter : inventoryView.getAppliedFilters()) {
                     if (filter instanceof KeywordFilter) {
                         KeywordFilter myFilter = (KeywordFilter) filter;
                         filterArgs.putSerializable("filter", myFilter);
@@ -265,8 +185,8 @@ public class HomeFragment extends Fragment implements FilterCallback {
                 keywordFilterFragment.show(requireActivity().getSupportFragmentManager(), "keywords_filter_dialog");
             } else if (itemId == R.id.filter_by_tags) {
                 TagFilterFragment tagFilterFragment = new TagFilterFragment();
-                filterArgs.putSerializable("tags", tagList);
-                for (Filter filter : appliedFilters) {
+                filterArgs.putSerializable("tags", inventory.getTags());
+                for (Filter filter : inventoryView.getAppliedFilters()) {
                     if (filter instanceof TagFilter) {
                         TagFilter tagFilter = (TagFilter) filter;
                         filterArgs.putSerializable("filter", tagFilter);
@@ -292,11 +212,8 @@ public class HomeFragment extends Fragment implements FilterCallback {
      */
     @Override
     public void onFilterApplied(Filter filter) {
-        if (!appliedFilters.add(filter)) {
-            appliedFilters.remove(filter);
-            appliedFilters.add(filter);
-        }
-        applyFilters();
+        inventoryView.applyFilter(filter);
+        inventory.setServerFilters(inventoryView.getAppliedFilters());
     }
 
     /**
@@ -306,40 +223,8 @@ public class HomeFragment extends Fragment implements FilterCallback {
      * @param filter The filter to reset.
      */
     public void onFilterReset(Filter filter) {
-        appliedFilters.remove(filter);
-        applyFilters();
-    }
-
-    /**
-     * Applies the list of filters to the item list, resulting in a filtered list of items.
-     * This method iterates through the applied filters, applying each filter in sequence,
-     * and then updates the item adapter with the filtered list of items.
-     */
-    private void applyFilters() {
-        ArrayList<Item> tempList = itemList;
-        for (Filter filter : appliedFilters) {
-            tempList = filter.filterList(tempList);
-        }
-        filteredItemList.clear();
-        filteredItemList.addAll(tempList);
-        itemAdapter.notifyDataSetChanged();
-        updateListData();
-        sortItems();
-    }
-
-    /**
-     * Updates the displays above list containing information on Total Value and No. of Items
-     * in the List. It works using the itemList array so it should be called whenever the
-     * list is modified.
-     */
-    private void updateListData() {
-        listSum = new BigDecimal("0.00");
-        listCount = filteredItemList.size();
-        for (int i = 0; i < listCount; i++) {
-            listSum = listSum.add(filteredItemList.get(i).getCost());
-        }
-        this.listSumView.setText("$" + listSum.toString());
-        this.listCountView.setText(Integer.toString(listCount));
+        inventoryView.resetFilter(filter);
+        inventory.setServerFilters(inventoryView.getAppliedFilters());
     }
 
     /**
@@ -351,24 +236,23 @@ public class HomeFragment extends Fragment implements FilterCallback {
         MenuInflater inflater = popupMenu.getMenuInflater();
         inflater.inflate(R.menu.sort, popupMenu.getMenu());
 
-        sortOrder = toggleOrder.isChecked();
         popupMenu.setOnMenuItemClickListener(item -> {
             int itemId = item.getItemId();
+            String sortName;
             if (itemId == R.id.sort_by_description) {
-                currentSortName = "description";
+                sortName = "description";
             } else if (itemId == R.id.sort_by_date) {
-                currentSortName = "date";
+                sortName = "date";
             } else if (itemId == R.id.sort_by_make) {
-                currentSortName = "make";
+                sortName = "make";
             } else if (itemId == R.id.sort_by_estimatedValue) {
-                currentSortName = "cost";
+                sortName = "cost";
             } else if (itemId == R.id.sort_by_tag) {
-                currentSortName = "tag";
+                sortName = "tag";
             } else {
                 return false;
             }
-            currentSort = sortProperties.get(currentSortName);
-            sortItems();
+            sortBy(sortName, toggleOrder.isChecked());
             return true;
         });
 
@@ -376,16 +260,12 @@ public class HomeFragment extends Fragment implements FilterCallback {
     }
 
     /**
-     * Sorts the item list on the homepage based the provided Comparator in either descending
-     * or ascending order and displays the list
+     * Sorts the inventory view and loads items from Firestore in the same order
+     * @param sortName   The property to sort by
+     * @param descending true to sort in descending order
      */
-    private void sortItems() {
-        if (!sortOrder){
-            filteredItemList.sort(currentSort);
-        }
-        else {
-            filteredItemList.sort(Collections.reverseOrder(currentSort));
-        }
-        itemAdapter.notifyDataSetChanged();
+    private void sortBy(String sortName, boolean descending) {
+        inventoryView.setSort(sortName, descending);
+        inventory.setServerOrder(sortName, descending);
     }
-}
\ No newline at end of file
+}
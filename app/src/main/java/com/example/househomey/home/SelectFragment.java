@@ -10,34 +10,30 @@ import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.Button;
-import android.widget.CheckBox;
-import android.widget.ListView;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
-import androidx.core.os.BundleCompat;
 import androidx.fragment.app.Fragment;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.househomey.MainActivity;
 import com.example.househomey.R;
+import com.example.househomey.inventory.InventoryRepository;
+import com.example.househomey.inventory.InventoryView;
+import com.example.househomey.inventory.LoadMoreScrollListener;
 import com.example.househomey.item.Item;
 import com.example.househomey.item.ItemAdapter;
-import com.example.househomey.tags.Tag;
+import com.example.househomey.metrics.FirestoreMetrics;
 import com.example.househomey.tags.ApplyTagFragment;
 import com.google.firebase.firestore.CollectionReference;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.FirebaseFirestoreException;
-import com.google.firebase.firestore.ListenerRegistration;
-import com.google.firebase.firestore.QueryDocumentSnapshot;
-import com.google.firebase.firestore.QuerySnapshot;
 import com.google.firebase.firestore.WriteBatch;
 
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * This fragment is a child of the home fragment containing the list of the user's inventory
@@ -45,17 +41,14 @@ import java.util.Map;
  * @see HomeFragment
  * @author Sami Jagirdar
  */
-public class SelectFragment extends Fragment implements DeleteItemsFragment.DeleteCallBack{
+public class SelectFragment extends Fragment implements DeleteItemsFragment.DeleteCallBack,
+        InventoryView.OnViewChangedListener {
     private CollectionReference itemRef;
-    private ListView itemListView;
-    private Comparator<Item> currentSort;
-    private String currentSortName;
-    private boolean sortOrder;
-    private ArrayList<Item> itemList;
+    private RecyclerView itemListView;
+    private InventoryView inventoryView;
     private ItemAdapter itemAdapter;
-    private CollectionReference tagRef;
-    private Map<String, Item> itemIdMap = new HashMap<>();
-    private ListenerRegistration tagListener;
+    private TextView listCountView;
+    private TextView listSumView;
 
     /**
      *
@@ -77,24 +70,25 @@ public class SelectFragment extends Fragment implements DeleteItemsFragment.Dele
         View rootView = inflater.inflate(R.layout.fragment_home, container, false);
         rootView.findViewById(R.id.base_toolbar).setVisibility(View.GONE);
         rootView.findViewById(R.id.select_toolbar).setVisibility(View.VISIBLE);
+        listCountView = rootView.findViewById(R.id.total_count_text);
+        listSumView = rootView.findViewById(R.id.total_value_text);
 
-        //Populate the item list from bundle
+        // Display the same inventory view as the home page
+        String viewName = HomeFragment.VIEW_NAME;
         Bundle args = getArguments();
-        if (args!=null){
-            itemList = BundleCompat.getParcelableArrayList(args, "itemList", Item.class);
-            createItemIdMap();
-            sortOrder = args.getBoolean("sortOrder");
-            currentSortName = args.getString("currentSortName");
-            ((TextView) rootView.findViewById(R.id.total_value_text)).setText("$" + args.getString("listSum"));
-            ((TextView) rootView.findViewById(R.id.total_count_text)).setText(Integer.toString(args.getInt("listCount")));
+        if (args != null && args.getString("viewName") != null) {
+            viewName = args.getString("viewName");
         }
+        InventoryRepository inventory = ((MainActivity) requireActivity()).getInventory();
+        inventoryView = inventory.getView(viewName);
         itemListView = rootView.findViewById(R.id.item_list);
-        itemAdapter = new ItemAdapter(getContext(), itemList);
+        itemListView.setLayoutManager(new LinearLayoutManager(getContext()));
+        itemAdapter = new ItemAdapter(getContext());
         itemListView.setAdapter(itemAdapter);
+        itemListView.addOnScrollListener(new LoadMoreScrollListener(inventory));
         itemAdapter.setSelectState(true);
-
-        tagRef = ((MainActivity) requireActivity()).getTagRef();
-        tagListener = tagRef.addSnapshotListener(this::setupTagListener);
+        inventoryView.addListener(this);
+        onViewChanged(inventoryView);
 
         final Button cancelButton = rootView.findViewById(R.id.cancel_select_button);
         cancelButton.setOnClickListener(v -> {
@@ -120,9 +114,11 @@ public class SelectFragment extends Fragment implements DeleteItemsFragment.Dele
         actionTagsButton.setOnClickListener(v -> {
             ApplyTagFragment applyTagFragment = new ApplyTagFragment();
 
-            ArrayList<Item> selectedItems = getSelectedItems();
+            ArrayList<String> selectedItemIds = getSelectedItems().stream()
+                    .map(Item::getId)
+                    .collect(Collectors.toCollection(ArrayList::new));
             Bundle tagArgs = new Bundle();
-            tagArgs.putParcelableArrayList("itemList", selectedItems);
+            tagArgs.putStringArrayList("itemIds", selectedItemIds);
             applyTagFragment.setArguments(tagArgs);
             applyTagFragment.show(requireActivity().getSupportFragmentManager(),"tagDialog");
         });
@@ -131,37 +127,15 @@ public class SelectFragment extends Fragment implements DeleteItemsFragment.Dele
     }
 
     /**
-     * Setter for itemIdMap where it populates the Hashmap, by mapping
-     * each of the items' ID to the actual item obects from our itemList
-     */
-    private void createItemIdMap() {
-        for (Item item : itemList) {
-            itemIdMap.put(item.getId(), item);
-        }
-    }
-
-    /**
-     * This method updates the tags with changes in the firestore database and creates new
-     * tag objects
-     * @param querySnapshots The updated information on the inventory from the database
-     * @param error Non-null if an error occurred in Firestore
+     * Updates the total value and count displays and submits the view's items to the list
+     * whenever the inventory view changes
+     * @param view The inventory view that changed
      */
-    private void setupTagListener(QuerySnapshot querySnapshots, FirebaseFirestoreException error) {
-        if (error != null) {
-            Log.e("Firestore", error.toString());
-            return;
-        }
-        if (querySnapshots != null) {
-            itemList.forEach(Item::clearTags);
-            for (QueryDocumentSnapshot doc: querySnapshots) {
-                Tag tag = new Tag(doc.getId(), doc.getData());
-                for (String id : tag.getItemIds()) {
-                    Item item = itemIdMap.get(id);
-                    if (item != null) item.addTag(tag);
-                }
-            }
-            itemAdapter.notifyDataSetChanged();
-        }
+    @Override
+    public void onViewChanged(InventoryView view) {
+        listSumView.setText(view.getDisplayTotalText());
+        listCountView.setText(Long.toString(view.getDisplayCount()));
+        itemAdapter.submitList(view.getItems(), FirestoreMetrics::snapshotRendered);
     }
 
     /**
@@ -177,6 +151,7 @@ public class SelectFragment extends Fragment implements DeleteItemsFragment.Dele
             deletePhotosFromCloud(requireActivity(), item.getPhotoIds());
             batch.delete(itemRef.document(item.getId()));
         }
+        FirestoreMetrics.count("Select", FirestoreMetrics.Operation.DELETE, selectedItems.size());
         batch.commit()
                 .addOnSuccessListener((result) -> {
                     Log.i("Firestore", "Items successfully deleted");
@@ -206,7 +181,7 @@ public class SelectFragment extends Fragment implements DeleteItemsFragment.Dele
      * @return List of selected items
      */
     public ArrayList<Item> getSelectedItems() {
-        return itemList.stream()
+        return inventoryView.getItems().stream()
                 .filter(Item::getChecked)
                 .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
     }
@@ -218,25 +193,21 @@ public class SelectFragment extends Fragment implements DeleteItemsFragment.Dele
      * @see ItemAdapter
      */
     private void unselectAllItems() {
-
-        for (int i=0;i<itemList.size();i++) {
-            // uncheck selected checkboxes
-            View itemView = itemListView.getChildAt(i);
-            if (itemView!=null) {
-                CheckBox itemCheckBox = itemView.findViewById(R.id.item_checkBox);
-                itemCheckBox.setChecked(false);
-                itemList.get(i).setChecked(false);
-            }
+        // Items are shared with the home page, so clear every selection, not just the visible ones
+        for (Item item : inventoryView.getItems()) {
+            item.setChecked(false);
         }
-        itemAdapter.notifyDataSetChanged();
+        itemAdapter.notifyItemRangeChanged(0, itemAdapter.getItemCount());
     }
 
     /**
-     * Remove the tag listener when the fragment is stopped
+     * Stop listening to the inventory view and clear the selection when the fragment's
+     * view is destroyed
      */
     @Override
-    public void onStop() {
-        super.onStop();
-        tagListener.remove();
+    public void onDestroyView() {
+        super.onDestroyView();
+        inventoryView.removeListener(this);
+        unselectAllItems();
     }
 }
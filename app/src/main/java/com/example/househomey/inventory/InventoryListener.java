@@ -0,0 +1,31 @@
+package com.example.househomey.inventory;
+
+import com.example.househomey.item.Item;
+
+import java.util.List;
+
+/**
+ * Callback interface for observing changes to the items held by an {@link InventoryRepository}.
+ * @see InventoryView
+ */
+public interface InventoryListener {
+    /**
+     * Called when the whole inventory has been (re)loaded, e.g. on the first snapshot or
+     * after most items changed at once, so every item should be re-evaluated.
+     */
+    void onInventoryLoaded();
+
+    /**
+     * Called when only some items changed. A modified item, including an item whose tags
+     * changed, is reported as its previous instance in removed and its new instance in added.
+     * @param added   items that were added or replaced
+     * @param removed items that were removed or replaced
+     */
+    void onItemsChanged(List<Item> added, List<Item> removed);
+
+    /**
+     * Called when the server-side count and total of the inventory were loaded
+     * @see InventoryRepository#hasServerTotals(java.util.Collection)
+     */
+    default void onTotalsChanged() {}
+}
@@ -0,0 +1,769 @@
+package com.example.househomey.inventory;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.example.househomey.filter.model.Filter;
+import com.example.househomey.filter.model.FilterIndex;
+import com.example.househomey.filter.model.QueryPlan;
+import com.example.househomey.filter.model.TagFilter;
+import com.example.househomey.inventory.store.InventoryStore;
+import com.example.househomey.inventory.store.SQLiteInventoryStore;
+import com.example.househomey.item.Item;
+import com.example.househomey.metrics.FirestoreMetrics;
+import com.example.househomey.tags.Tag;
+import com.example.househomey.tags.TagMembership;
+import com.example.househomey.user.User;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.AggregateField;
+import com.google.firebase.firestore.AggregateSource;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide, in-memory copy of a user's items and tags. It holds the only Firestore snapshot
+ * listeners on the item and tag collections, so fragments share one copy of the inventory and
+ * only pass item ids or a view name between each other instead of the items themselves.
+ * The inventory is also kept in an {@link InventoryStore} on the device, which is displayed on
+ * launch and then reconciled with Firestore in the background.
+ * <p>
+ * Snapshots are parsed and indexed on the repository's {@link InventoryWorker}, which owns the
+ * inventory's mutable state and notifies the views there. Listeners registered with
+ * {@link #addListener(InventoryListener)} are notified on the main thread. Items and tags can
+ * be read from any thread; filter and order changes are handed to the worker.
+ * @see InventoryView
+ */
+public class InventoryRepository {
+    private static final String METRICS_SCREEN = "Inventory listeners";
+    private static final AggregateField.SumAggregateField COST_SUM = AggregateField.sum("costCents");
+    private static final AggregateField.AverageAggregateField COST_AVERAGE = AggregateField.average("costCents");
+    private static InventoryRepository instance;
+    private final String username;
+    private final InventoryStore store;
+    private final InventoryWorker worker = new InventoryWorker();
+    private final ArrayList<Item> itemList = new ArrayList<>();
+    private final Map<String, Item> itemIdMap = new ConcurrentHashMap<>();
+    private final TagMembership tagMembership = new TagMembership();
+    // Shares the membership's item ordinals, so tag filters use the tags' bitsets directly
+    private final FilterIndex filterIndex = new FilterIndex(tagMembership);
+    private final ArrayList<Tag> tagList = new ArrayList<>();
+    private volatile ArrayList<Tag> publishedTags = new ArrayList<>();
+    private final Map<String, InventoryView> views = new HashMap<>();
+    private final List<InventoryListener> listeners = new ArrayList<>();
+    private final List<InventoryView> attachedViews = new ArrayList<>();
+    private final CollectionReference itemRef;
+    private List<Filter> serverFilters = Collections.emptyList();
+    private Filter pushedFilter;
+    private boolean sortedByDate = false;
+    private boolean sortDescending = false;
+    private Query itemQuery;
+    private Query.Direction itemDirection;
+    private ItemPager itemPager;
+    private Query totalsQuery;
+    private long serverCount = -1;
+    private long serverTotalCents = 0;
+    private int totalsRequest = 0;
+    private boolean totalsRefreshQueued = false;
+    private ListenerRegistration tagListener;
+    private volatile boolean itemsLoaded = false;
+    private volatile boolean tagsLoaded = false;
+    private Set<String> unreconciledItemIds;
+    private boolean tagsReconciled = false;
+
+    /**
+     * Gets the repository for the given user, creating it (and closing the repository of any
+     * previously signed in user) if needed
+     * @param context Any context of the app, used to open the user's store on the device
+     * @param user    The signed in user
+     * @return The shared inventory repository of the user
+     */
+    public static InventoryRepository getInstance(Context context, User user) {
+        if (instance == null || !instance.username.equals(user.getUsername())) {
+            closeInstance();
+            instance = new InventoryRepository(user, new SQLiteInventoryStore(context, user.getUsername()));
+        }
+        return instance;
+    }
+
+    /**
+     * Closes the current repository, if any, and clears the metrics gathered for its user.
+     * Should be called when the user signs out.
+     */
+    public static void closeInstance() {
+        if (instance != null) {
+            instance.close();
+            instance = null;
+            FirestoreMetrics.reset();
+        }
+    }
+
+    /**
+     * Constructs a repository, loads the stored inventory and starts listening to the user's
+     * item and tag collections
+     * @param user  The user whose inventory is loaded
+     * @param store The user's inventory stored on the device
+     */
+    InventoryRepository(User user, InventoryStore store) {
+        this.username = user.getUsername();
+        this.itemRef = user.getItemRef();
+        this.store = store;
+        CollectionReference tagRef = user.getTagRef();
+        worker.execute(() -> {
+            loadFromStore();
+            listenToItems();
+            tagListener = tagRef.addSnapshotListener(worker, this::onTagSnapshot);
+        });
+    }
+
+    /**
+     * Drops all observers, then stops listening to Firestore, closes the store and stops the
+     * worker thread once the queued snapshots are processed
+     */
+    private void close() {
+        listeners.clear();
+        views.clear();
+        worker.execute(() -> {
+            itemPager.close();
+            tagListener.remove();
+            attachedViews.clear();
+            store.close();
+        });
+        worker.shutdown();
+    }
+
+    /**
+     * Loads the inventory from the store, so it can be displayed before the first snapshot.
+     * The stored items stay until the pages of the item collection covering them are
+     * delivered, which reconciles them with Firestore; see {@link #reconcileStoredItems()}.
+     */
+    private void loadFromStore() {
+        List<Tag> storedTags = store.loadTags();
+        List<Item> storedItems = store.loadItems();
+        if (storedTags.isEmpty() && storedItems.isEmpty()) return;
+        tagList.addAll(storedTags);
+        publishedTags = new ArrayList<>(tagList);
+        tagMembership.setTags(storedTags);
+        for (Item item : storedItems) {
+            tagMembership.applyTo(item);
+            itemList.add(item);
+            itemIdMap.put(item.getId(), item);
+            filterIndex.add(item);
+        }
+        unreconciledItemIds = new HashSet<>(itemIdMap.keySet());
+        itemsLoaded = true;
+        tagsLoaded = true;
+    }
+
+    /**
+     * Registers a listener for inventory changes, notified on the main thread. If the inventory
+     * has already been loaded, the listener is notified immediately.
+     * @param listener The listener to add
+     */
+    public void addListener(InventoryListener listener) {
+        listeners.add(listener);
+        if (isLoaded()) listener.onInventoryLoaded();
+    }
+
+    /**
+     * Unregisters a listener for inventory changes
+     * @param listener The listener to remove
+     */
+    public void removeListener(InventoryListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Gets a named filtered and sorted view of the inventory, creating it if needed.
+     * Views live as long as the repository, so they can be shared between fragments by name.
+     * @param name The name of the view
+     * @return The view with the given name
+     */
+    public InventoryView getView(String name) {
+        InventoryView view = views.get(name);
+        if (view == null) {
+            InventoryView newView = new InventoryView(this, worker);
+            worker.execute(() -> {
+                attachedViews.add(newView);
+                if (isLoaded()) newView.onInventoryLoaded();
+            });
+            views.put(name, newView);
+            view = newView;
+        }
+        return view;
+    }
+
+    /**
+     * Whether both the item and tag collections have been loaded
+     * @return true once the first item and tag snapshots have been received
+     */
+    public boolean isLoaded() {
+        return itemsLoaded && tagsLoaded;
+    }
+
+    /**
+     * Gets a single item by its Firestore id
+     * @param id The id of the item
+     * @return The item, or null if it is not in the inventory
+     */
+    public Item getItem(String id) {
+        return itemIdMap.get(id);
+    }
+
+    /**
+     * Gets the items with the given Firestore ids, skipping ids that are not in the inventory
+     * @param ids The ids of the items
+     * @return The items that were found
+     */
+    public ArrayList<Item> getItems(List<String> ids) {
+        ArrayList<Item> items = new ArrayList<>();
+        for (String id : ids) {
+            Item item = itemIdMap.get(id);
+            if (item != null) items.add(item);
+        }
+        return items;
+    }
+
+    /**
+     * Getter for the secondary indexes over the user's items, kept up to date with every
+     * snapshot. Only to be used on the worker thread.
+     * @return The filter index of the inventory
+     */
+    FilterIndex getFilterIndex() {
+        return filterIndex;
+    }
+
+    /**
+     * Narrows the item listener to the items that can pass the given filters, so Firestore only
+     * sends the items the views can display. At most one filter is evaluated by Firestore; see
+     * {@link QueryPlan}. Views still evaluate every filter themselves, which keeps them correct
+     * while the narrowed listener loads. A tag filter is pushed down with the current items of
+     * its tags, and planned again whenever those tags change. When the query changes, the items
+     * are reloaded and listeners are notified through {@link InventoryListener#onInventoryLoaded()}.
+     * @param filters The filters applied to every view of the inventory
+     */
+    public void setServerFilters(Collection<Filter> filters) {
+        List<Filter> newFilters = new ArrayList<>(filters);
+        worker.execute(() -> {
+            serverFilters = newFilters;
+            listenToItems();
+        });
+    }
+
+    /**
+     * Orders the item query by the given sort, so that pages are loaded in display order. Only
+     * the acquisition date is stored in a form Firestore orders the same way as the
+     * comparators, so for any other sort every page is loaded right after the first one.
+     * @param sortName   The name of the sort of the displayed view, e.g. "date"
+     * @param descending true if the view is sorted in descending order
+     */
+    public void setServerOrder(String sortName, boolean descending) {
+        worker.execute(() -> {
+            sortedByDate = "date".equals(sortName);
+            sortDescending = descending;
+            listenToItems();
+        });
+    }
+
+    /**
+     * Starts loading the next page of items, if the items are loaded one page at a time and
+     * the previous page has finished loading. Called as the user scrolls towards the end of
+     * the list.
+     */
+    public void loadMoreItems() {
+        worker.execute(() -> itemPager.loadNextPage());
+    }
+
+    /**
+     * Whether every item of the current item query has been loaded. Only to be used on the
+     * worker thread.
+     * @return false while there are pages left to load
+     */
+    boolean isComplete() {
+        return itemPager.isComplete();
+    }
+
+    /**
+     * Checks whether the server-side count and total can stand in for the totals of a view
+     * with the given filters, i.e. some items are not loaded yet and the server query applies
+     * exactly those filters. Only to be used on the worker thread.
+     * @param filters The filters applied to the view
+     * @return true if {@link #getServerCount()} and {@link #getServerTotalCents()} describe the view
+     */
+    boolean hasServerTotals(Collection<Filter> filters) {
+        if (serverCount < 0 || isComplete()) return false;
+        for (Filter filter : filters) {
+            if (filter != pushedFilter) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Getter for the number of items matching the item query, from an aggregate query
+     * @return The number of items, or -1 if it is not known
+     */
+    long getServerCount() {
+        return serverCount;
+    }
+
+    /**
+     * Getter for the total cost of the items matching the item query, from an aggregate query
+     * @return The total cost in cents
+     */
+    long getServerTotalCents() {
+        return serverTotalCents;
+    }
+
+    /**
+     * Builds the item query from the server filters and order and, if it changed, replaces the
+     * item pager and requests the query's count and total. Pages are only loaded on demand when
+     * a prefix of the query is a prefix of the displayed list; otherwise every page is loaded.
+     */
+    private void listenToItems() {
+        // Tag filters hold the tags as they were when the filter was applied
+        List<Filter> plannedFilters = new ArrayList<>();
+        for (Filter filter : serverFilters) {
+            plannedFilters.add(filter instanceof TagFilter
+                    ? ((TagFilter) filter).withCurrentTags(tagMembership) : filter);
+        }
+        QueryPlan plan = QueryPlan.of(plannedFilters);
+        Query query = plan.apply(itemRef);
+        // A pushed down tag filter selects at most 30 items, which are loaded in a single page
+        Query.Direction direction = null;
+        if (!(plan.getPushedFilter() instanceof TagFilter)) {
+            direction = sortedByDate && !sortDescending ? Query.Direction.ASCENDING : Query.Direction.DESCENDING;
+            query = query.orderBy("acquisitionDate", direction);
+        }
+        // Views compare their own filters with the pushed one
+        pushedFilter = null;
+        for (int i = 0; i < plannedFilters.size(); i++) {
+            if (plannedFilters.get(i) == plan.getPushedFilter()) pushedFilter = serverFilters.get(i);
+        }
+        if (!query.equals(itemQuery)) {
+            if (itemPager != null) {
+                itemPager.close();
+                // Items of the previous query are replaced, so there is nothing to reconcile
+                itemsLoaded = false;
+                unreconciledItemIds = null;
+            }
+            itemQuery = query;
+            itemDirection = direction;
+            serverCount = -1;
+            totalsRefreshQueued = false;
+            itemPager = new ItemPager(query, worker, this::onItemDocuments);
+            totalsQuery = plan.apply(itemRef);
+            requestServerTotals();
+        }
+        if (!sortedByDate || !plan.getResidualFilters().isEmpty()) {
+            itemPager.loadAll();
+        }
+    }
+
+    /**
+     * Requests the count and total cost of the items matching the item query from Firestore,
+     * which is billed as one read per thousand items instead of a read per item. Documents
+     * saved before their cost was stored as a number are left out of the sum and the average,
+     * so if sum / average does not match the count, the totals are incomplete and every page
+     * is loaded so the views can total the items themselves. Such documents are not rewritten
+     * here; they gain the number the next time they are saved.
+     */
+    private void requestServerTotals() {
+        ItemPager pager = itemPager;
+        Query query = totalsQuery;
+        int request = ++totalsRequest;
+        query.aggregate(AggregateField.count(), COST_SUM, COST_AVERAGE).get(AggregateSource.SERVER)
+                .addOnSuccessListener(worker, snapshot -> {
+                    if (pager != itemPager || request != totalsRequest) return;
+                    long count = snapshot.getCount();
+                    FirestoreMetrics.count(METRICS_SCREEN, FirestoreMetrics.Operation.READ, (int) (count / 1000 + 1));
+                    Long sum = snapshot.getLong(COST_SUM);
+                    Double average = snapshot.get(COST_AVERAGE);
+                    if (count > 0 && sum != null && sum == 0) {
+                        // Every stored cost is zero, so there is no average to compare with
+                        requestZeroCostCount(query, pager, request, count);
+                        return;
+                    }
+                    boolean includesAll = count == 0 || (sum != null && average != null && average > 0
+                            && Math.round(sum / average) == count);
+                    if (includesAll) {
+                        setServerTotals(count, sum == null ? 0 : sum);
+                    } else {
+                        dropServerTotals();
+                    }
+                })
+                .addOnFailureListener(worker, e -> {
+                    Log.e("Firestore", e.toString());
+                    if (pager == itemPager && request == totalsRequest) dropServerTotals();
+                });
+    }
+
+    /**
+     * Checks whether every item of the query has its cost stored as a number when the stored
+     * costs add up to zero, by counting the items whose stored cost is zero
+     * @param query   The item query, without ordering
+     * @param pager   The pager the totals are requested for
+     * @param request The number of the request for the totals
+     * @param count   The number of items matching the query
+     */
+    private void requestZeroCostCount(Query query, ItemPager pager, int request, long count) {
+        query.whereEqualTo("costCents", 0).count().get(AggregateSource.SERVER)
+                .addOnSuccessListener(worker, snapshot -> {
+                    if (pager != itemPager || request != totalsRequest) return;
+                    FirestoreMetrics.count(METRICS_SCREEN, FirestoreMetrics.Operation.READ,
+                            (int) (snapshot.getCount() / 1000 + 1));
+                    if (snapshot.getCount() == count) {
+                        setServerTotals(count, 0);
+                    } else {
+                        dropServerTotals();
+                    }
+                })
+                .addOnFailureListener(worker, e -> {
+                    Log.e("Firestore", e.toString());
+                    if (pager == itemPager && request == totalsRequest) dropServerTotals();
+                });
+    }
+
+    /**
+     * Requests the server-side count and total again after items were added, deleted or
+     * edited, while they stand in for the totals of the loaded items. The request waits for the
+     * device's pending writes to reach Firestore, so the totals include the user's own changes,
+     * and a burst of changes is only requested once.
+     */
+    private void refreshServerTotals() {
+        if (totalsRefreshQueued || serverCount < 0 || itemPager.isComplete()) return;
+        totalsRefreshQueued = true;
+        ItemPager pager = itemPager;
+        itemRef.getFirestore().waitForPendingWrites().addOnCompleteListener(worker, task -> {
+            totalsRefreshQueued = false;
+            if (pager == itemPager && serverCount >= 0) requestServerTotals();
+        });
+    }
+
+    /**
+     * Makes the server-side count and total available to the views and notifies them
+     * @param count      The number of items matching the item query
+     * @param totalCents The total cost of those items in cents
+     */
+    private void setServerTotals(long count, long totalCents) {
+        serverCount = count;
+        serverTotalCents = totalCents;
+        notifyTotalsChanged();
+    }
+
+    /**
+     * Stops using the server-side count and total, e.g. when they cannot be trusted, and loads
+     * every page so the views total the items themselves
+     */
+    private void dropServerTotals() {
+        boolean hadTotals = serverCount >= 0;
+        serverCount = -1;
+        itemPager.loadAll();
+        if (hadTotals) notifyTotalsChanged();
+    }
+
+    /**
+     * Notifies the views and listeners that the server-side count and total changed
+     */
+    private void notifyTotalsChanged() {
+        for (InventoryView view : attachedViews) {
+            view.onTotalsChanged();
+        }
+        worker.publish(() -> {
+            for (InventoryListener listener : new ArrayList<>(listeners)) {
+                listener.onTotalsChanged();
+            }
+        });
+    }
+
+    /**
+     * Getter for the user's tags
+     * @return A copy of the tags from the last tag snapshot
+     */
+    public ArrayList<Tag> getTags() {
+        return publishedTags;
+    }
+
+    /**
+     * This method updates the tags with changes in the firestore database. Only the tags that
+     * changed since the last snapshot are re-indexed, and only the items that were added to or
+     * removed from those tags are updated. Once the inventory is loaded, those items are replaced
+     * by new instances and reported as changed items, so views and adapters only update them.
+     * @param querySnapshots The updated information on the tags from the database
+     * @param error Non-null if an error occurred in Firestore
+     */
+    private void onTagSnapshot(QuerySnapshot querySnapshots, FirebaseFirestoreException error) {
+        if (error != null) {
+            Log.e("Firestore", error.toString());
+            return;
+        }
+        if (querySnapshots == null) return;
+        long start = FirestoreMetrics.snapshotReceived();
+        countReads(querySnapshots);
+
+        Set<String> changedItemIds = new HashSet<>();
+        List<Tag> putTags = new ArrayList<>();
+        List<String> removedLabels = new ArrayList<>();
+        if (!tagsReconciled) {
+            // The first snapshot holds every tag, so stored tags missing from it were deleted
+            Set<String> labels = new HashSet<>();
+            for (DocumentSnapshot doc : querySnapshots.getDocuments()) {
+                labels.add(doc.getId());
+            }
+            for (Tag tag : tagList) {
+                if (!labels.contains(tag.getTagLabel())) removedLabels.add(tag.getTagLabel());
+            }
+            tagsReconciled = true;
+        }
+        for (String label : removedLabels) {
+            changedItemIds.addAll(tagMembership.removeTag(label));
+        }
+        for (DocumentChange change : querySnapshots.getDocumentChanges()) {
+            QueryDocumentSnapshot doc = change.getDocument();
+            if (change.getType() == DocumentChange.Type.REMOVED) {
+                changedItemIds.addAll(tagMembership.removeTag(doc.getId()));
+                removedLabels.add(doc.getId());
+            } else {
+                Tag tag = new Tag(doc.getId(), doc.getData());
+                changedItemIds.addAll(tagMembership.putTag(tag));
+                putTags.add(tag);
+            }
+        }
+        if (selectsAnyTag(serverFilters, putTags, removedLabels)) {
+            // The items of a tag filtered by Firestore changed, so the query is planned again
+            listenToItems();
+        }
+        store.putTags(putTags);
+        store.removeTags(removedLabels);
+        tagList.clear();
+        for (QueryDocumentSnapshot doc : querySnapshots) {
+            tagList.add(tagMembership.getTag(doc.getId()));
+        }
+        publishedTags = new ArrayList<>(tagList);
+        if (!isLoaded()) {
+            // Items can be read from other threads, so they are replaced rather than modified
+            boolean replaced = false;
+            for (String itemId : changedItemIds) {
+                Item item = itemIdMap.get(itemId);
+                if (item == null || tagMembership.isCurrent(item)) continue;
+                Item updatedItem = item.withTags(tagMembership.getTags(itemId));
+                itemIdMap.put(itemId, updatedItem);
+                filterIndex.add(updatedItem);
+                replaced = true;
+            }
+            if (replaced) {
+                for (int i = 0; i < itemList.size(); i++) {
+                    itemList.set(i, itemIdMap.get(itemList.get(i).getId()));
+                }
+            }
+            tagsLoaded = true;
+            FirestoreMetrics.recordStage(FirestoreMetrics.STAGE_LISTENER, start);
+            notifyLoaded();
+            return;
+        }
+
+        List<Item> added = new ArrayList<>();
+        List<Item> removed = new ArrayList<>();
+        for (String itemId : changedItemIds) {
+            Item item = itemIdMap.get(itemId);
+            if (item == null || tagMembership.isCurrent(item)) continue;
+            Item updatedItem = item.withTags(tagMembership.getTags(itemId));
+            itemList.set(itemList.indexOf(item), updatedItem);
+            itemIdMap.put(itemId, updatedItem);
+            filterIndex.add(updatedItem);
+            removed.add(item);
+            added.add(updatedItem);
+        }
+        FirestoreMetrics.recordStage(FirestoreMetrics.STAGE_LISTENER, start);
+        if (!added.isEmpty()) notifyItemsChanged(added, removed);
+    }
+
+    /**
+     * Checks whether any of the tag filters selects one of the changed tags
+     * @param filters       The filters to check
+     * @param putTags       The tags that were added or modified
+     * @param removedLabels The labels of the tags that were removed
+     * @return true if a tag filter selects one of the tags
+     */
+    private static boolean selectsAnyTag(List<Filter> filters, List<Tag> putTags, List<String> removedLabels) {
+        for (Filter filter : filters) {
+            if (!(filter instanceof TagFilter)) continue;
+            Set<String> labels = ((TagFilter) filter).getSelectedLabels();
+            for (Tag tag : putTags) {
+                if (labels.contains(tag.getTagLabel())) return true;
+            }
+            for (String label : removedLabels) {
+                if (labels.contains(label)) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * This method updates the items with changes in the firestore database. Only the documents
+     * of a page that changed since its last snapshot are applied, unless most of the inventory
+     * changed at once, in which case listeners are told the whole inventory was reloaded. The
+     * first snapshot of the first page replaces every item loaded before.
+     * @param pager          The pager the changes come from
+     * @param changed        Documents that were added or modified
+     * @param removedIds     Ids of documents that are no longer loaded
+     * @param querySnapshots The page's snapshot
+     * @param reload         true if the documents replace every loaded item
+     * @param firstSnapshot  true if the documents were loaded rather than changed
+     */
+    private void onItemDocuments(ItemPager pager, List<DocumentSnapshot> changed, List<String> removedIds,
+                                 QuerySnapshot querySnapshots, boolean reload, boolean firstSnapshot) {
+        if (pager != itemPager) return;
+        long start = FirestoreMetrics.snapshotReceived();
+        countReads(querySnapshots);
+
+        if (reload && unreconciledItemIds == null) {
+            itemList.clear();
+            itemIdMap.clear();
+            filterIndex.clear();
+        }
+        List<Item> added = new ArrayList<>();
+        List<Item> removed = new ArrayList<>();
+        List<String> deletedIds = new ArrayList<>(removedIds);
+        for (DocumentSnapshot doc : changed) {
+            if (unreconciledItemIds != null) unreconciledItemIds.remove(doc.getId());
+        }
+        // A page served from the cache may be missing documents the server has
+        List<String> reconciledIds = querySnapshots.getMetadata().isFromCache()
+                ? Collections.emptyList() : reconcileStoredItems();
+        deletedIds.addAll(reconciledIds);
+        for (String id : deletedIds) {
+            Item previousItem = itemIdMap.remove(id);
+            if (previousItem != null) {
+                itemList.remove(previousItem);
+                filterIndex.remove(id);
+                removed.add(previousItem);
+            }
+        }
+        for (DocumentSnapshot doc : changed) {
+            Item item = new Item(doc.getId(), new HashMap<>(doc.getData()));
+            Item previousItem = itemIdMap.get(item.getId());
+            if (previousItem != null) {
+                // A document moving between pages is delivered again without changes
+                if (previousItem.getData().equals(item.getData())) continue;
+                itemList.remove(previousItem);
+                removed.add(previousItem);
+            }
+            tagMembership.applyTo(item);
+            itemList.add(item);
+            itemIdMap.put(item.getId(), item);
+            filterIndex.add(item);
+            added.add(item);
+        }
+        FirestoreMetrics.recordStage(FirestoreMetrics.STAGE_LISTENER, start);
+        if (!firstSnapshot && (!added.isEmpty() || !removed.isEmpty())) refreshServerTotals();
+        store.putItems(added);
+        // Documents can leave a limited page or a filtered query without being deleted
+        if (pushedFilter == null && itemPager.isLoadingAll()) {
+            store.removeItems(deletedIds);
+        } else {
+            store.removeItems(reconciledIds);
+        }
+
+        if (reload || !itemsLoaded || added.size() + removed.size() > itemList.size() / 2) {
+            itemsLoaded = true;
+            notifyLoaded();
+        } else if (isLoaded() && (!added.isEmpty() || !removed.isEmpty())) {
+            notifyItemsChanged(added, removed);
+        }
+    }
+
+    /**
+     * Finds the stored items that were deleted elsewhere while the app was not running, without
+     * loading the whole collection. Pages are delivered in query order, so a stored item that
+     * sorts before the end of the delivered pages but was not in them is no longer in the
+     * collection. Items with the same date as the end are left for a later page, since their
+     * order among each other is up to Firestore. Once every page is delivered, the remaining
+     * stored items were deleted.
+     * @return The ids of the stored items that were deleted
+     */
+    private List<String> reconcileStoredItems() {
+        if (unreconciledItemIds == null) return Collections.emptyList();
+        List<String> deletedIds = new ArrayList<>();
+        if (itemPager.isComplete()) {
+            deletedIds.addAll(unreconciledItemIds);
+            unreconciledItemIds = null;
+            return deletedIds;
+        }
+        DocumentSnapshot end = itemPager.getLoadedEnd();
+        Timestamp endDate = end == null ? null : end.getTimestamp("acquisitionDate");
+        if (endDate == null || itemDirection == null) return deletedIds;
+        long endTime = endDate.toDate().getTime();
+        boolean descending = itemDirection == Query.Direction.DESCENDING;
+        for (Iterator<String> ids = unreconciledItemIds.iterator(); ids.hasNext(); ) {
+            String id = ids.next();
+            Item item = itemIdMap.get(id);
+            if (item == null || (descending ? item.getAcquisitionTime() > endTime
+                    : item.getAcquisitionTime() < endTime)) {
+                deletedIds.add(id);
+                ids.remove();
+            }
+        }
+        return deletedIds;
+    }
+
+    /**
+     * Counts the documents of a snapshot that were read from the server. Documents served from
+     * the local cache are not billed, so they are not counted.
+     * @param querySnapshots A snapshot from one of the listeners
+     */
+    private static void countReads(QuerySnapshot querySnapshots) {
+        if (!querySnapshots.getMetadata().isFromCache()) {
+            FirestoreMetrics.count(METRICS_SCREEN, FirestoreMetrics.Operation.READ,
+                    querySnapshots.getDocumentChanges().size());
+        }
+    }
+
+    /**
+     * Notifies every listener that the whole inventory was reloaded, once both items and tags
+     * are available
+     */
+    private void notifyLoaded() {
+        if (!isLoaded()) return;
+        for (InventoryView view : attachedViews) {
+            view.onInventoryLoaded();
+        }
+        worker.publish(() -> {
+            for (InventoryListener listener : new ArrayList<>(listeners)) {
+                listener.onInventoryLoaded();
+            }
+        });
+    }
+
+    /**
+     * Notifies the views on the worker thread, and every other listener on the main thread,
+     * that some items changed
+     * @param added   items that were added or replaced
+     * @param removed items that were removed or replaced
+     */
+    private void notifyItemsChanged(List<Item> added, List<Item> removed) {
+        for (InventoryView view : attachedViews) {
+            view.onItemsChanged(added, removed);
+        }
+        worker.publish(() -> {
+            for (InventoryListener listener : new ArrayList<>(listeners)) {
+                listener.onItemsChanged(added, removed);
+            }
+        });
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.househomey.inventory;
+
+import com.example.househomey.item.Item;
+
+import java.math.BigDecimal;
+import java.util.TreeMap;
+
+/**
+ * Running count and cost statistics of a set of items, kept exactly in cents. Adding or removing
+ * an item updates every statistic without rescanning the other items.
+ * @see InventoryView#getTotals()
+ */
+public class InventoryTotals {
+    private int count = 0;
+    private long totalCents = 0;
+    private final TreeMap<Long, Integer> costCounts;
+
+    /**
+     * Constructs the totals of an empty set of items
+     */
+    public InventoryTotals() {
+        costCounts = new TreeMap<>();
+    }
+
+    /**
+     * Constructs a copy of other totals, which is not affected by later changes to them
+     * @param totals The totals to copy
+     */
+    public InventoryTotals(InventoryTotals totals) {
+        count = totals.count;
+        totalCents = totals.totalCents;
+        costCounts = new TreeMap<>(totals.costCounts);
+    }
+
+    /**
+     * Adds an item's cost to the totals
+     * @param item The item being added
+     */
+    public void add(Item item) {
+        long cents = item.getCostCents();
+        count++;
+        totalCents += cents;
+        Integer costCount = costCounts.get(cents);
+        costCounts.put(cents, costCount == null ? 1 : costCount + 1);
+    }
+
+    /**
+     * Removes an item's cost from the totals. The item must have been added before.
+     * @param item The item being removed
+     */
+    public void remove(Item item) {
+        long cents = item.getCostCents();
+        Integer costCount = costCounts.get(cents);
+        if (costCount == null) return;
+        count--;
+        totalCents -= cents;
+        if (costCount == 1) {
+            costCounts.remove(cents);
+        } else {
+            costCounts.put(cents, costCount - 1);
+        }
+    }
+
+    /**
+     * Resets the totals to an empty set of items
+     */
+    public void clear() {
+        count = 0;
+        totalCents = 0;
+        costCounts.clear();
+    }
+
+    /**
+     * Getter for the number of items
+     * @return The number of items added
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Getter for the total cost
+     * @return The sum of the items' costs in cents
+     */
+    public long getTotalCents() {
+        return totalCents;
+    }
+
+    /**
+     * Getter for the lowest cost
+     * @return The lowest item cost in cents, or 0 if there are no items
+     */
+    public long getMinCents() {
+        return costCounts.isEmpty() ? 0 : costCounts.firstKey();
+    }
+
+    /**
+     * Getter for the highest cost
+     * @return The highest item cost in cents, or 0 if there are no items
+     */
+    public long getMaxCents() {
+        return costCounts.isEmpty() ? 0 : costCounts.lastKey();
+    }
+
+    /**
+     * Getter for the mean cost, rounded down to the cent
+     * @return The average item cost in cents, or 0 if there are no items
+     */
+    public long getMeanCents() {
+        return count == 0 ? 0 : totalCents / count;
+    }
+
+    /**
+     * Getter for the total cost in the format displayed on the home screen
+     * @return The total cost as "$x.xx"
+     */
+    public String getTotalText() {
+        return formatCents(totalCents);
+    }
+
+    /**
+     * Formats an amount of cents as dollars
+     * @param cents The amount to format
+     * @return The amount as "$x.xx"
+     */
+    public static String formatCents(long cents) {
+        return "$" + BigDecimal.valueOf(cents, 2).toString();
+    }
+}
@@ -0,0 +1,374 @@
+package com.example.househomey.inventory;
+
+import com.example.househomey.filter.model.Filter;
+import com.example.househomey.filter.model.FilterIndex;
+import com.example.househomey.item.Item;
+import com.example.househomey.metrics.FirestoreMetrics;
+import com.example.househomey.sort.CostComparator;
+import com.example.househomey.sort.DateComparator;
+import com.example.househomey.sort.DescriptionComparator;
+import com.example.househomey.sort.MakeComparator;
+import com.example.househomey.sort.TagComparator;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A filtered and sorted view of the items in an {@link InventoryRepository}, along with the total
+ * value and count of the items in the view. The view is kept up to date with the repository
+ * and is shared by name between the fragments that display it.
+ * <p>
+ * Filtering, totalling and sorting run on the repository's {@link InventoryWorker}. Each result
+ * is published to the main thread as immutable contents, and listeners are notified there.
+ * Filter and sort changes are numbered; a change that is superseded before the worker reaches
+ * it is skipped, and results computed for an older change are never published.
+ * @see InventoryRepository#getView(String)
+ */
+public class InventoryView implements InventoryListener {
+    private static final Map<String, Comparator<Item>> sortProperties = new HashMap<>();
+
+    static {
+        sortProperties.put("description", new DescriptionComparator());
+        sortProperties.put("date", new DateComparator());
+        sortProperties.put("make", new MakeComparator());
+        sortProperties.put("cost", new CostComparator());
+        sortProperties.put("tag", new TagComparator());
+    }
+
+    private final InventoryRepository repository;
+    private final InventoryWorker worker;
+    private final AtomicInteger latestChange = new AtomicInteger();
+
+    // Owned by the worker thread
+    private final ArrayList<Item> filteredItemList = new ArrayList<>();
+    private final InventoryTotals totals = new InventoryTotals();
+    private Set<Filter> workerFilters = Collections.emptySet();
+    private Comparator<Item> workerSort = sortProperties.get("description");
+    private int workerChange = 0;
+    private boolean refilterSkipped = false;
+    private boolean publishQueued = false;
+
+    // Owned by the main thread
+    private final Set<Filter> appliedFilters = new HashSet<>();
+    private final List<OnViewChangedListener> listeners = new ArrayList<>();
+    private String currentSortName = "description";
+    private boolean descending = false;
+    private Contents contents = new Contents(0, Collections.emptyList(), new InventoryTotals(), 0, "$0.00");
+
+    /**
+     * Constructs a view over the given repository. The repository starts sending it changes
+     * on the worker thread.
+     * @param repository The repository containing the items to display
+     * @param worker     The repository's worker thread
+     */
+    InventoryView(InventoryRepository repository, InventoryWorker worker) {
+        this.repository = repository;
+        this.worker = worker;
+    }
+
+    /**
+     * Registers a listener that is notified on the main thread whenever the contents of this
+     * view change
+     * @param listener The listener to add
+     */
+    public void addListener(OnViewChangedListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener of this view
+     * @param listener The listener to remove
+     */
+    public void removeListener(OnViewChangedListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Getter for the filtered and sorted items. Every update publishes a new list, so the list
+     * can be handed to an adapter as is.
+     * @return An unmodifiable list of the items in this view
+     */
+    public List<Item> getItems() {
+        return contents.items;
+    }
+
+    /**
+     * Getter for the count and cost statistics of the items in this view
+     * @return A copy of the view's totals as of the last update
+     */
+    public InventoryTotals getTotals() {
+        return contents.totals;
+    }
+
+    /**
+     * Getter for the number of items to display as the size of this view. While some pages of
+     * the inventory are not loaded yet, this is the server-side count if it describes this view.
+     * @return The number of items in this view
+     */
+    public long getDisplayCount() {
+        return contents.displayCount;
+    }
+
+    /**
+     * Getter for the total cost to display for this view, from the server-side total while
+     * it describes this view
+     * @return The total cost of the items in this view as "$x.xx"
+     * @see #getDisplayCount()
+     */
+    public String getDisplayTotalText() {
+        return contents.displayTotalText;
+    }
+
+    /**
+     * Getter for the filters currently applied to this view
+     * @return The applied filters
+     */
+    public Set<Filter> getAppliedFilters() {
+        return Collections.unmodifiableSet(appliedFilters);
+    }
+
+    /**
+     * Adds a filter to the view, replacing any filter of the same type, and re-filters the view
+     * @param filter The filter to be applied to the item list.
+     */
+    public void applyFilter(Filter filter) {
+        if (!appliedFilters.add(filter)) {
+            appliedFilters.remove(filter);
+            appliedFilters.add(filter);
+        }
+        requestUpdate(true);
+    }
+
+    /**
+     * Removes the filters of the same type as the given filter and re-filters the view
+     * @param filter The filter to reset.
+     */
+    public void resetFilter(Filter filter) {
+        appliedFilters.remove(filter);
+        requestUpdate(true);
+    }
+
+    /**
+     * Getter for the name of the property the view is sorted by
+     * @return One of "description", "date", "make", "cost" or "tag"
+     */
+    public String getSortName() {
+        return currentSortName;
+    }
+
+    /**
+     * Getter for the sort order
+     * @return true if the view is sorted in descending order
+     */
+    public boolean isDescending() {
+        return descending;
+    }
+
+    /**
+     * Sorts the view by the given property and order
+     * @param sortName   One of "description", "date", "make", "cost" or "tag"
+     * @param descending true to sort in descending order
+     */
+    public void setSort(String sortName, boolean descending) {
+        if (!sortProperties.containsKey(sortName)) return;
+        this.currentSortName = sortName;
+        this.descending = descending;
+        requestUpdate(false);
+    }
+
+    /**
+     * Hands the current filters and sort to the worker thread. The update is skipped if
+     * another change is requested before the worker gets to it.
+     * @param refilter true if the filters changed, false if only the sort changed
+     */
+    private void requestUpdate(boolean refilter) {
+        int change = latestChange.incrementAndGet();
+        Set<Filter> filters = new HashSet<>(appliedFilters);
+        Comparator<Item> sort = sortProperties.get(currentSortName);
+        Comparator<Item> comparator = descending ? Collections.reverseOrder(sort) : sort;
+        worker.execute(() -> {
+            if (isStale(change)) {
+                refilterSkipped |= refilter;
+                return;
+            }
+            workerChange = change;
+            workerFilters = filters;
+            workerSort = comparator;
+            if (refilter || refilterSkipped) {
+                refresh();
+            } else {
+                long sortStart = System.nanoTime();
+                filteredItemList.sort(workerSort);
+                FirestoreMetrics.recordStage(FirestoreMetrics.STAGE_SORT, sortStart);
+                schedulePublish();
+            }
+        });
+    }
+
+    /**
+     * Re-filters and re-sorts every item in the inventory and recomputes the totals. The filters
+     * are evaluated against the repository's indexes rather than by scanning every item.
+     * Called on the worker thread.
+     */
+    private void refresh() {
+        refilterSkipped = false;
+        long filterStart = System.nanoTime();
+        FilterIndex index = repository.getFilterIndex();
+        BitSet selected = index.evaluate(workerFilters);
+        filteredItemList.clear();
+        filteredItemList.addAll(index.getItems(selected));
+        FirestoreMetrics.recordStage(FirestoreMetrics.STAGE_FILTER, filterStart);
+        if (isStale(workerChange)) {
+            // The newer change re-filters anyway, so the sort would be wasted
+            refilterSkipped = true;
+            return;
+        }
+        long sortStart = System.nanoTime();
+        filteredItemList.sort(workerSort);
+        FirestoreMetrics.recordStage(FirestoreMetrics.STAGE_SORT, sortStart);
+        totals.clear();
+        for (Item item : filteredItemList) {
+            totals.add(item);
+        }
+        schedulePublish();
+    }
+
+    /**
+     * Re-filters the whole view when the inventory is (re)loaded
+     */
+    @Override
+    public void onInventoryLoaded() {
+        refresh();
+    }
+
+    /**
+     * Updates only the changed items' places in the view and the totals
+     * @param added   items that were added or replaced
+     * @param removed items that were removed or replaced
+     */
+    @Override
+    public void onItemsChanged(List<Item> added, List<Item> removed) {
+        for (Item item : removed) {
+            if (filteredItemList.remove(item)) {
+                totals.remove(item);
+            }
+        }
+        List<Item> matchingItems = new ArrayList<>();
+        long filterStart = System.nanoTime();
+        for (Item item : added) {
+            if (matchesFilters(item)) matchingItems.add(item);
+        }
+        FirestoreMetrics.recordStage(FirestoreMetrics.STAGE_FILTER, filterStart);
+        long sortStart = System.nanoTime();
+        for (Item item : matchingItems) {
+            int index = Collections.binarySearch(filteredItemList, item, workerSort);
+            filteredItemList.add(index < 0 ? -index - 1 : index, item);
+            totals.add(item);
+        }
+        FirestoreMetrics.recordStage(FirestoreMetrics.STAGE_SORT, sortStart);
+        schedulePublish();
+    }
+
+    /**
+     * Redisplays the view's count and total when the server-side totals arrive
+     */
+    @Override
+    public void onTotalsChanged() {
+        schedulePublish();
+    }
+
+    /**
+     * Checks whether a change was superseded by a newer filter or sort change
+     * @param change The number of the change
+     * @return true if a newer change was requested
+     */
+    private boolean isStale(int change) {
+        return change != latestChange.get();
+    }
+
+    /**
+     * Checks whether an item passes every applied filter
+     * @param item The item to check
+     * @return true if the item should be displayed in the view
+     */
+    private boolean matchesFilters(Item item) {
+        FilterIndex index = repository.getFilterIndex();
+        for (Filter filter : workerFilters) {
+            if (!filter.matches(item, index)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Queues a publish behind the tasks already waiting on the worker thread, so that a burst
+     * of snapshots is published to the main thread once
+     */
+    private void schedulePublish() {
+        if (publishQueued) return;
+        publishQueued = true;
+        worker.execute(this::publish);
+    }
+
+    /**
+     * Copies the worker's result into immutable contents and replaces the displayed contents
+     * with it on the main thread, unless a newer filter or sort change was requested meanwhile
+     */
+    private void publish() {
+        publishQueued = false;
+        if (isStale(workerChange)) return;
+        boolean serverTotals = repository.hasServerTotals(workerFilters);
+        Contents newContents = new Contents(workerChange,
+                Collections.unmodifiableList(new ArrayList<>(filteredItemList)),
+                new InventoryTotals(totals),
+                serverTotals ? repository.getServerCount() : totals.getCount(),
+                serverTotals ? InventoryTotals.formatCents(repository.getServerTotalCents()) : totals.getTotalText());
+        worker.publish(() -> {
+            if (isStale(newContents.change)) return;
+            contents = newContents;
+            notifyChanged();
+        });
+    }
+
+    /**
+     * Notifies every listener that the contents of the view changed
+     */
+    private void notifyChanged() {
+        for (OnViewChangedListener listener : new ArrayList<>(listeners)) {
+            listener.onViewChanged(this);
+        }
+    }
+
+    /**
+     * An immutable result of filtering, totalling and sorting the inventory
+     */
+    private static class Contents {
+        final int change;
+        final List<Item> items;
+        final InventoryTotals totals;
+        final long displayCount;
+        final String displayTotalText;
+
+        Contents(int change, List<Item> items, InventoryTotals totals, long displayCount, String displayTotalText) {
+            this.change = change;
+            this.items = items;
+            this.totals = totals;
+            this.displayCount = displayCount;
+            this.displayTotalText = displayTotalText;
+        }
+    }
+
+    /**
+     * Listens for changes to the contents of an inventory view
+     */
+    public interface OnViewChangedListener {
+        void onViewChanged(InventoryView view);
+    }
+}
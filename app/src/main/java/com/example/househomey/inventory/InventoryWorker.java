@@ -0,0 +1,53 @@
+package com.example.househomey.inventory;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * The single background thread that owns an inventory's mutable state. Firestore snapshots
+ * are delivered to it directly, and it parses, indexes, filters, totals and sorts the items,
+ * so none of that work runs in the main thread's frames. Results are handed to the main
+ * thread with {@link #publish(Runnable)}.
+ * @see InventoryRepository
+ * @see InventoryView
+ */
+public class InventoryWorker implements Executor {
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+            task -> new Thread(task, "inventory-worker"));
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * Runs a task on the worker thread after every task queued before it
+     * @param task The task to run
+     */
+    @Override
+    public void execute(Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Snapshots can still arrive while the repository is closing
+            Log.d("InventoryWorker", "Dropped a task after shutdown");
+        }
+    }
+
+    /**
+     * Runs a task on the main thread, e.g. to display a result computed on the worker thread
+     * @param task The task to run
+     */
+    public void publish(Runnable task) {
+        mainHandler.post(task);
+    }
+
+    /**
+     * Runs the tasks already queued, then stops the worker thread
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
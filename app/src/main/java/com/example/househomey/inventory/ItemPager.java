@@ -0,0 +1,255 @@
+package com.example.househomey.inventory;
+
+import android.util.Log;
+
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Loads the documents of an ordered item query one page at a time, with a snapshot listener per
+ * page so every loaded page stays up to date. Each page starts after the last document of the
+ * page before it. When a page's last document changes (an item was added to or removed from it),
+ * the following page is re-anchored so that no document falls between two pages. Snapshots
+ * are delivered on the given executor, which must run them one at a time.
+ * @see InventoryRepository
+ */
+class ItemPager {
+    /**
+     * Number of documents in the first page, about one screenful
+     */
+    static final int FIRST_PAGE_SIZE = 30;
+    /**
+     * Number of documents in each further page loaded while scrolling
+     */
+    static final int PAGE_SIZE = 100;
+
+    private final Query query;
+    private final Executor executor;
+    private final Callback callback;
+    private final List<Page> pages = new ArrayList<>();
+    private boolean loadingAll = false;
+    private boolean closed = false;
+
+    /**
+     * Constructs a pager and starts loading its first page
+     * @param query    The ordered query to load
+     * @param executor Runs the snapshot listeners and the callback
+     * @param callback Receives the changes of every page
+     */
+    ItemPager(Query query, Executor executor, Callback callback) {
+        this.query = query;
+        this.executor = executor;
+        this.callback = callback;
+        pages.add(new Page(null, FIRST_PAGE_SIZE));
+    }
+
+    /**
+     * Starts loading the next page, unless a page is still loading or every page is loaded
+     */
+    void loadNextPage() {
+        Page lastPage = pages.get(pages.size() - 1);
+        if (closed || !lastPage.loaded || isComplete()) return;
+        pages.add(new Page(getCursor(pages.size()), loadingAll ? 0 : PAGE_SIZE));
+    }
+
+    /**
+     * Loads every remaining document with a single listener, e.g. when the list cannot be
+     * displayed correctly from a prefix of the query
+     */
+    void loadAll() {
+        if (loadingAll) return;
+        loadingAll = true;
+        Page lastPage = pages.get(pages.size() - 1);
+        if (lastPage.loaded) {
+            loadNextPage();
+        } else {
+            // The last page is replaced by an unlimited page starting at the same cursor
+            reanchor(pages.size() - 1);
+        }
+    }
+
+    /**
+     * Whether the remaining documents are loaded without waiting for the user to scroll
+     * @return true once {@link #loadAll()} was called
+     */
+    boolean isLoadingAll() {
+        return loadingAll;
+    }
+
+    /**
+     * Whether every document of the query has been loaded
+     * @return true if the last page is not full
+     */
+    boolean isComplete() {
+        Page lastPage = pages.get(pages.size() - 1);
+        return lastPage.loaded && (lastPage.limit == 0 || lastPage.documents.size() < lastPage.limit);
+    }
+
+    /**
+     * Gets the end of the window of the query that has been delivered so far
+     * @return The last document of the loaded pages before the first page still loading, or
+     * null if no document has been delivered
+     */
+    DocumentSnapshot getLoadedEnd() {
+        DocumentSnapshot end = null;
+        for (Page page : pages) {
+            if (!page.loaded) break;
+            DocumentSnapshot last = page.getLastDocument();
+            if (last != null) end = last;
+        }
+        return end;
+    }
+
+    /**
+     * Stops listening to every page
+     */
+    void close() {
+        closed = true;
+        for (Page page : pages) {
+            page.registration.remove();
+        }
+    }
+
+    /**
+     * Gets the cursor a page starts after
+     * @param index The index of the page
+     * @return The last document of the closest non-empty page before it, or null for the start
+     */
+    private DocumentSnapshot getCursor(int index) {
+        for (int i = index - 1; i >= 0; i--) {
+            DocumentSnapshot last = pages.get(i).getLastDocument();
+            if (last != null) return last;
+        }
+        return null;
+    }
+
+    /**
+     * Replaces a page's listener with one starting after the current end of the pages before it.
+     * The page keeps its documents until the new listener delivers its first snapshot.
+     * @param index The index of the page
+     */
+    private void reanchor(int index) {
+        Page oldPage = pages.get(index);
+        oldPage.registration.remove();
+        boolean isLast = index == pages.size() - 1;
+        Page newPage = new Page(getCursor(index), isLast && loadingAll ? 0 : oldPage.limit, oldPage.documents);
+        pages.set(index, newPage);
+    }
+
+    /**
+     * Applies a page's snapshot, reports the changed and removed documents and re-anchors the
+     * next page if this page's end moved
+     * @param page           The page the snapshot belongs to
+     * @param querySnapshots The page's new documents
+     * @param error          Non-null if an error occurred in Firestore
+     */
+    private void onPageSnapshot(Page page, QuerySnapshot querySnapshots, FirebaseFirestoreException error) {
+        if (error != null) {
+            Log.e("Firestore", error.toString());
+            return;
+        }
+        if (closed || querySnapshots == null || !pages.contains(page)) return;
+
+        DocumentSnapshot oldLast = page.getLastDocument();
+        Map<String, DocumentSnapshot> oldDocuments = page.documents;
+        page.documents = new LinkedHashMap<>();
+        for (DocumentSnapshot doc : querySnapshots.getDocuments()) {
+            page.documents.put(doc.getId(), doc);
+        }
+        boolean firstSnapshot = !page.loaded;
+        page.loaded = true;
+
+        List<DocumentSnapshot> changed = new ArrayList<>();
+        for (DocumentChange change : querySnapshots.getDocumentChanges()) {
+            if (change.getType() != DocumentChange.Type.REMOVED) changed.add(change.getDocument());
+        }
+        List<String> removedIds = new ArrayList<>();
+        for (String id : oldDocuments.keySet()) {
+            if (!page.documents.containsKey(id) && !isInAnyPage(id)) removedIds.add(id);
+        }
+
+        int index = pages.indexOf(page);
+        DocumentSnapshot newLast = page.getLastDocument();
+        boolean endMoved = oldLast == null ? newLast != null : newLast == null || !oldLast.getId().equals(newLast.getId());
+        if (index < pages.size() - 1 && endMoved) {
+            reanchor(index + 1);
+        }
+        callback.onDocumentsChanged(this, changed, removedIds, querySnapshots, index == 0 && firstSnapshot, firstSnapshot);
+        if (loadingAll && !isComplete()) loadNextPage();
+    }
+
+    /**
+     * Checks whether any page currently contains a document
+     * @param id The id of the document
+     * @return true if some page contains the document
+     */
+    private boolean isInAnyPage(String id) {
+        for (Page page : pages) {
+            if (page.documents.containsKey(id)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * A listened window of the query, starting after a cursor document
+     */
+    private class Page {
+        final int limit;
+        final ListenerRegistration registration;
+        Map<String, DocumentSnapshot> documents;
+        boolean loaded = false;
+
+        Page(DocumentSnapshot cursor, int limit) {
+            this(cursor, limit, new LinkedHashMap<>());
+        }
+
+        Page(DocumentSnapshot cursor, int limit, Map<String, DocumentSnapshot> documents) {
+            this.limit = limit;
+            this.documents = documents;
+            Query pageQuery = cursor == null ? query : query.startAfter(cursor);
+            if (limit > 0) pageQuery = pageQuery.limit(limit);
+            registration = pageQuery.addSnapshotListener(executor, (snapshot, error) -> onPageSnapshot(this, snapshot, error));
+        }
+
+        /**
+         * Getter for the last document of the page in query order
+         * @return The last document, or null if the page is empty
+         */
+        DocumentSnapshot getLastDocument() {
+            DocumentSnapshot last = null;
+            for (DocumentSnapshot doc : documents.values()) {
+                last = doc;
+            }
+            return last;
+        }
+    }
+
+    /**
+     * Receives the document changes of a pager's pages
+     */
+    interface Callback {
+        /**
+         * Called when a page's documents change
+         * @param pager          The pager the page belongs to
+         * @param changed        Documents that were added or modified
+         * @param removedIds     Ids of documents that are no longer in any page
+         * @param querySnapshots The snapshot of the page, for its metadata
+         * @param reload         true for the first snapshot of the first page, which replaces
+         *                       every document loaded before
+         * @param firstSnapshot  true for the first snapshot of a page, which loads its documents
+         *                       rather than reporting changes to them
+         */
+        void onDocumentsChanged(ItemPager pager, List<DocumentSnapshot> changed, List<String> removedIds,
+                                QuerySnapshot querySnapshots, boolean reload, boolean firstSnapshot);
+    }
+}
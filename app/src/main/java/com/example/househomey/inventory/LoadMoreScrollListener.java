@@ -0,0 +1,38 @@
+package com.example.househomey.inventory;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Asks an {@link InventoryRepository} for the next page of items when a list is scrolled close
+ * to its last loaded item, so pages stream in before the user reaches the end.
+ */
+public class LoadMoreScrollListener extends RecyclerView.OnScrollListener {
+    private static final int PREFETCH_DISTANCE = 20;
+    private final InventoryRepository repository;
+
+    /**
+     * Constructs a listener that loads pages of the given repository
+     * @param repository The repository whose items are listed
+     */
+    public LoadMoreScrollListener(InventoryRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Loads the next page once the last visible item is near the end of the list
+     * @param recyclerView The list that was scrolled
+     * @param dx           The horizontal scroll distance
+     * @param dy           The vertical scroll distance
+     */
+    @Override
+    public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+        if (dy <= 0 || recyclerView.getAdapter() == null) return;
+        LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+        int lastVisible = layoutManager.findLastVisibleItemPosition();
+        if (lastVisible >= recyclerView.getAdapter().getItemCount() - PREFETCH_DISTANCE) {
+            repository.loadMoreItems();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.househomey.inventory.store;
+
+import com.example.househomey.item.Item;
+import com.example.househomey.tags.Tag;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A local copy of one user's items and tags that outlives the app process, so the inventory can
+ * be displayed on launch before Firestore has delivered a snapshot, or without a network at all.
+ * Writes may be applied asynchronously, but in the order they were made.
+ * @see SQLiteInventoryStore
+ */
+public interface InventoryStore {
+    /**
+     * Reads every stored item. Items are returned without tags.
+     * @return The stored items
+     */
+    List<Item> loadItems();
+
+    /**
+     * Reads every stored tag
+     * @return The stored tags
+     */
+    List<Tag> loadTags();
+
+    /**
+     * Adds or replaces items
+     * @param items The items to store
+     */
+    void putItems(Collection<Item> items);
+
+    /**
+     * Removes items
+     * @param itemIds The ids of the items to remove
+     */
+    void removeItems(Collection<String> itemIds);
+
+    /**
+     * Adds or replaces tags
+     * @param tags The tags to store
+     */
+    void putTags(Collection<Tag> tags);
+
+    /**
+     * Removes tags
+     * @param tagLabels The labels of the tags to remove
+     */
+    void removeTags(Collection<String> tagLabels);
+
+    /**
+     * Finishes pending writes and releases the store
+     */
+    void close();
+}
@@ -0,0 +1,249 @@
+package com.example.househomey.inventory.store;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.util.Log;
+
+import com.example.househomey.item.Item;
+import com.example.househomey.tags.Tag;
+import com.google.firebase.Timestamp;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An inventory store in an SQLite database on the device. Every user's rows are kept in the
+ * same database, keyed by username. Reads are synchronous so the inventory can be shown in the
+ * first frame; writes are queued on a single background thread so snapshots are never held up
+ * by disk writes.
+ */
+public class SQLiteInventoryStore implements InventoryStore {
+    private static final String TAG = "InventoryStore";
+    private static final String DATABASE_NAME = "inventory.db";
+    private static final int DATABASE_VERSION = 1;
+
+    private final OpenHelper openHelper;
+    private final String username;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor();
+
+    /**
+     * Opens the store of a user
+     * @param context  Any context of the app
+     * @param username The user whose items and tags are stored
+     */
+    public SQLiteInventoryStore(Context context, String username) {
+        this.openHelper = new OpenHelper(context.getApplicationContext());
+        this.username = username;
+    }
+
+    @Override
+    public List<Item> loadItems() {
+        List<Item> items = new ArrayList<>();
+        try (Cursor cursor = openHelper.getReadableDatabase().query("item", null, "username = ?",
+                new String[]{username}, null, null, null)) {
+            while (cursor.moveToNext()) {
+                Map<String, Object> data = new HashMap<>();
+                data.put("description", getString(cursor, "description"));
+                data.put("acquisitionDate", new Timestamp(new Date(cursor.getLong(cursor.getColumnIndexOrThrow("acquisition_time")))));
+                data.put("cost", getString(cursor, "cost"));
+                data.put("make", getString(cursor, "make"));
+                data.put("model", getString(cursor, "model"));
+                data.put("serialNumber", getString(cursor, "serial_number"));
+                data.put("comment", getString(cursor, "comment"));
+                data.put("photoIds", fromJson(getString(cursor, "photo_ids")));
+                items.add(new Item(getString(cursor, "id"), data));
+            }
+        } catch (RuntimeException e) {
+            // A corrupt row only costs the head start, Firestore still delivers every item
+            Log.e(TAG, "Could not read stored items", e);
+            items.clear();
+        }
+        return items;
+    }
+
+    @Override
+    public List<Tag> loadTags() {
+        List<Tag> tags = new ArrayList<>();
+        try (Cursor cursor = openHelper.getReadableDatabase().query("tag", null, "username = ?",
+                new String[]{username}, null, null, null)) {
+            while (cursor.moveToNext()) {
+                Map<String, Object> data = new HashMap<>();
+                data.put("items", fromJson(getString(cursor, "item_ids")));
+                tags.add(new Tag(getString(cursor, "label"), data));
+            }
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Could not read stored tags", e);
+            tags.clear();
+        }
+        return tags;
+    }
+
+    @Override
+    public void putItems(Collection<Item> items) {
+        if (items.isEmpty()) return;
+        List<ContentValues> rows = new ArrayList<>();
+        for (Item item : items) {
+            ContentValues row = new ContentValues();
+            row.put("username", username);
+            row.put("id", item.getId());
+            row.put("description", item.getDescription());
+            row.put("acquisition_time", item.getAcquisitionTime());
+            row.put("cost", item.getCost().toString());
+            row.put("make", item.getMake());
+            row.put("model", item.getModel());
+            row.put("serial_number", item.getSerialNumber());
+            row.put("comment", item.getComment());
+            row.put("photo_ids", new JSONArray(item.getPhotoIds()).toString());
+            rows.add(row);
+        }
+        write(db -> {
+            for (ContentValues row : rows) {
+                db.insertWithOnConflict("item", null, row, SQLiteDatabase.CONFLICT_REPLACE);
+            }
+        });
+    }
+
+    @Override
+    public void removeItems(Collection<String> itemIds) {
+        if (itemIds.isEmpty()) return;
+        List<String> ids = new ArrayList<>(itemIds);
+        write(db -> {
+            for (String id : ids) {
+                db.delete("item", "username = ? AND id = ?", new String[]{username, id});
+            }
+        });
+    }
+
+    @Override
+    public void putTags(Collection<Tag> tags) {
+        if (tags.isEmpty()) return;
+        List<ContentValues> rows = new ArrayList<>();
+        for (Tag tag : tags) {
+            ContentValues row = new ContentValues();
+            row.put("username", username);
+            row.put("label", tag.getTagLabel());
+            row.put("item_ids", new JSONArray(tag.getItemIds()).toString());
+            rows.add(row);
+        }
+        write(db -> {
+            for (ContentValues row : rows) {
+                db.insertWithOnConflict("tag", null, row, SQLiteDatabase.CONFLICT_REPLACE);
+            }
+        });
+    }
+
+    @Override
+    public void removeTags(Collection<String> tagLabels) {
+        if (tagLabels.isEmpty()) return;
+        List<String> labels = new ArrayList<>(tagLabels);
+        write(db -> {
+            for (String label : labels) {
+                db.delete("tag", "username = ? AND label = ?", new String[]{username, label});
+            }
+        });
+    }
+
+    /**
+     * Waits for the queued writes, then closes the database
+     */
+    @Override
+    public void close() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(2, TimeUnit.SECONDS)) {
+                Log.e(TAG, "Timed out writing the inventory");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        openHelper.close();
+    }
+
+    /**
+     * Queues a write to run in a single transaction on the writer thread
+     * @param operation The write to run
+     */
+    private void write(Operation operation) {
+        writer.execute(() -> {
+            SQLiteDatabase db = openHelper.getWritableDatabase();
+            db.beginTransaction();
+            try {
+                operation.run(db);
+                db.setTransactionSuccessful();
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Could not write the inventory", e);
+            } finally {
+                db.endTransaction();
+            }
+        });
+    }
+
+    private static String getString(Cursor cursor, String column) {
+        return cursor.getString(cursor.getColumnIndexOrThrow(column));
+    }
+
+    /**
+     * Parses a JSON array of strings, as stored for photo and item ids
+     * @param json The stored array
+     * @return The strings of the array
+     */
+    private static List<String> fromJson(String json) {
+        List<String> values = new ArrayList<>();
+        try {
+            JSONArray array = new JSONArray(json);
+            for (int i = 0; i < array.length(); i++) {
+                values.add(array.getString(i));
+            }
+        } catch (JSONException e) {
+            throw new IllegalStateException(e);
+        }
+        return values;
+    }
+
+    /**
+     * A write to the database
+     */
+    private interface Operation {
+        void run(SQLiteDatabase db);
+    }
+
+    /**
+     * Creates the item and tag tables
+     */
+    private static class OpenHelper extends SQLiteOpenHelper {
+        OpenHelper(Context context) {
+            super(context, DATABASE_NAME, null, DATABASE_VERSION);
+        }
+
+        @Override
+        public void onCreate(SQLiteDatabase db) {
+            db.execSQL("CREATE TABLE item (username TEXT NOT NULL, id TEXT NOT NULL, "
+                    + "description TEXT NOT NULL, acquisition_time INTEGER NOT NULL, cost TEXT NOT NULL, "
+                    + "make TEXT, model TEXT, serial_number TEXT, comment TEXT, photo_ids TEXT, "
+                    + "PRIMARY KEY (username, id))");
+            db.execSQL("CREATE TABLE tag (username TEXT NOT NULL, label TEXT NOT NULL, item_ids TEXT, "
+                    + "PRIMARY KEY (username, label))");
+        }
+
+        @Override
+        public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+            // The store is only a cache of Firestore, so it is rebuilt rather than migrated
+            db.execSQL("DROP TABLE IF EXISTS item");
+            db.execSQL("DROP TABLE IF EXISTS tag");
+            onCreate(db);
+        }
+    }
+}
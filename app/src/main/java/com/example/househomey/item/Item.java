@@ -2,25 +2,25 @@ package com.example.househomey.item;
 
 import android.os.Parcel;
 import android.os.Parcelable;
-import android.util.Log;
 
 import androidx.annotation.NonNull;
 
+import com.example.househomey.sort.SortKeys;
 import com.example.househomey.tags.Tag;
 import com.google.firebase.Timestamp;
-import com.google.firebase.firestore.CollectionReference;
-import com.google.firebase.firestore.QueryDocumentSnapshot;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
 import java.util.TreeSet;
 
 /**
@@ -29,17 +29,20 @@ import java.util.TreeSet;
  * @see ItemAdapter
  */
 public class Item implements Serializable, Parcelable {
+    private static final Tag[] NO_TAGS = new Tag[0];
+
     private String id;
     private String description;
-    private Date acquisitionDate;
+    private long acquisitionTime;
     private String make = "";
     private String model = "";
     private String serialNumber = "";
     private String comment = "";
-    private BigDecimal cost;
-    private List<String> photoIds = new ArrayList<>();
-    private Set<Tag> tags = new TreeSet<>();
+    private long costCents;
+    private List<String> photoIds = Collections.emptyList();
+    private Tag[] tags = NO_TAGS;
     private boolean checked = false;
+    private transient SortKeys sortKeys;
 
     /**
      * This constructs a new item from a Map of data with a reference to its Firestore document
@@ -52,15 +55,15 @@ public class Item implements Serializable, Parcelable {
         // Required fields, will throw exceptions
         this.id = Objects.requireNonNull(id);
         this.description = (String) Objects.requireNonNull(data.get("description"));
-        this.acquisitionDate = ((Timestamp) Objects.requireNonNull(data.get("acquisitionDate"))).toDate();
-        this.cost = new BigDecimal((String) Objects.requireNonNull(data.get("cost"))).setScale(2, RoundingMode.HALF_UP);
+        this.acquisitionTime = ((Timestamp) Objects.requireNonNull(data.get("acquisitionDate"))).toDate().getTime();
+        this.costCents = toCents(new BigDecimal((String) Objects.requireNonNull(data.get("cost"))));
 
-        // Optional fields
+        // Optional fields. Makes and models repeat across items, so share one copy of each.
         if (data.containsKey("make")) {
-            this.make = (String) data.get("make");
+            this.make = intern((String) data.get("make"));
         }
         if (data.containsKey("model")) {
-            this.model = (String) data.get("model");
+            this.model = intern((String) data.get("model"));
         }
         if (data.containsKey("serialNumber")) {
             this.serialNumber = (String) data.get("serialNumber");
@@ -69,51 +72,60 @@ public class Item implements Serializable, Parcelable {
             this.comment = (String) data.get("comment");
         }
         if (data.containsKey("photoIds")) {
-            this.photoIds = new ArrayList<>((List<String>) data.get("photoIds"));
+            List<String> ids = (List<String>) data.get("photoIds");
+            if (ids != null && !ids.isEmpty()) {
+                this.photoIds = new ArrayList<>(ids);
+            }
         }
     }
 
     /**
-     * This constructs a new item from a Map of data with a reference to its Firestore document
+     * Constructs a copy of an item with different tags
      *
-     * @param id   The id of this object's document in the firestore database
-     * @param data The data from that document to initialize the instance
-     * @param tagRef The tag collection
-     * @param listener The listener for completion of tag intialization
-     * @throws NullPointerException if a null required field is given
+     * @param item The item to copy
+     * @param tags The tags of the copy
      */
-    public Item(String id, @NonNull Map<String, Object> data, CollectionReference tagRef, OnItemInitializedListener listener) {
-        this(id, data);
-        initTags(tagRef, listener);
+    private Item(Item item, Collection<Tag> tags) {
+        this.id = item.id;
+        this.description = item.description;
+        this.acquisitionTime = item.acquisitionTime;
+        this.make = item.make;
+        this.model = item.model;
+        this.serialNumber = item.serialNumber;
+        this.comment = item.comment;
+        this.costCents = item.costCents;
+        this.photoIds = item.photoIds;
+        this.checked = item.checked;
+        setTags(tags);
     }
 
     /**
-     * Listens for completion of the item's tag initialization
+     * Creates a copy of this item with different tags. Used to replace items whose tags
+     * changed instead of modifying items that may already be displayed.
+     *
+     * @param tags The tags of the new item
+     * @return A new item with the same data as this one and the given tags
      */
-    public interface OnItemInitializedListener {
-        void onItemInitialized(Item item);
+    public Item withTags(Collection<Tag> tags) {
+        return new Item(this, tags);
     }
 
+    /**
+     * Converts a cost to a whole number of cents, rounding half up
+     * @param cost The cost in dollars
+     * @return The cost in cents
+     */
+    private static long toCents(BigDecimal cost) {
+        return cost.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
 
     /**
-     * @param tagRef the collection of tags
-     * @param listener The listener to notify when tag intialization is complete
+     * Gets the shared copy of a string, keeping null as null
+     * @param value The string to share
+     * @return The canonical copy of the string
      */
-    private void initTags(CollectionReference tagRef, OnItemInitializedListener listener) {
-        tagRef.whereArrayContains("items", id)
-                .get()
-                .addOnCompleteListener(task -> {
-                    if (task.isSuccessful()) {
-                        for (QueryDocumentSnapshot document : task.getResult()) {
-                            Tag tag = new Tag(document.getId(), document.getData());
-                            tags.add(tag);
-                        }
-                        Log.i("Item Tag", tags.toString());
-                    } else {
-                        Log.e("Item Tag", "Couldn't set item tag");
-                    }
-                    listener.onItemInitialized(this);
-                });
+    private static String intern(String value) {
+        return value == null ? null : value.intern();
     }
 
     /**
@@ -121,30 +133,51 @@ public class Item implements Serializable, Parcelable {
      * @param tag new tag to add
      */
     public void addTag(Tag tag) {
-        tags.add(tag);
+        int index = Arrays.binarySearch(tags, tag);
+        if (index >= 0) return;
+        index = -index - 1;
+        Tag[] newTags = new Tag[tags.length + 1];
+        System.arraycopy(tags, 0, newTags, 0, index);
+        newTags[index] = tag;
+        System.arraycopy(tags, index, newTags, index + 1, tags.length - index);
+        tags = newTags;
+        sortKeys = null;
     }
 
     /**
      * Clears the tags in the set
      */
     public void clearTags() {
-        tags.clear();
+        tags = NO_TAGS;
+        sortKeys = null;
     }
 
     /**
      * Getter for tags
-     * @return set of tags
+     * @return unmodifiable list of tags, sorted by label
      */
-    public Set<Tag> getTags() {
-        return tags;
+    public List<Tag> getTags() {
+        return Collections.unmodifiableList(Arrays.asList(tags));
     }
 
     /**
      * Setter for tags
-     * @param tags new set of tags
+     * @param tags new tags, duplicate labels are ignored
      */
-    public void setTags(Set<Tag> tags) {
-        this.tags = tags;
+    public void setTags(Collection<Tag> tags) {
+        this.tags = tags.isEmpty() ? NO_TAGS : new TreeSet<>(tags).toArray(NO_TAGS);
+        sortKeys = null;
+    }
+
+    /**
+     * Getter for the keys used to sort this item, computed the first time they are needed
+     * @return The sort keys of this item
+     */
+    public SortKeys getSortKeys() {
+        if (sortKeys == null) {
+            sortKeys = new SortKeys(this);
+        }
+        return sortKeys;
     }
 
     /**
@@ -157,8 +190,10 @@ public class Item implements Serializable, Parcelable {
 
         // Add required properties
         itemData.put("description", description);
-        itemData.put("acquisitionDate", new Timestamp(acquisitionDate));
-        itemData.put("cost", cost.toString());
+        itemData.put("acquisitionDate", new Timestamp(getAcquisitionDate()));
+        itemData.put("cost", getCost().toString());
+        // Numeric copy of the cost, so Firestore can sum costs in aggregate queries
+        itemData.put("costCents", costCents);
 
         // Only add optional properties if they have non-empty values
         if (!make.isEmpty()) {
@@ -211,7 +246,16 @@ public class Item implements Serializable, Parcelable {
      * @return The acquisition date of this item
      */
     public Date getAcquisitionDate() {
-        return acquisitionDate;
+        return new Date(acquisitionTime);
+    }
+
+    /**
+     * Getter for acquisitionDate as a primitive, without allocating a Date
+     *
+     * @return The acquisition date of this item in milliseconds since the epoch
+     */
+    public long getAcquisitionTime() {
+        return acquisitionTime;
     }
 
     /**
@@ -230,7 +274,16 @@ public class Item implements Serializable, Parcelable {
      * @return The cost of this item
      */
     public BigDecimal getCost() {
-        return cost;
+        return BigDecimal.valueOf(costCents, 2);
+    }
+
+    /**
+     * Getter for cost as a primitive, without allocating a BigDecimal
+     *
+     * @return The cost of this item in cents
+     */
+    public long getCostCents() {
+        return costCents;
     }
 
     /**
@@ -308,14 +361,14 @@ public class Item implements Serializable, Parcelable {
     public void writeToParcel(Parcel out, int flags) {
         out.writeString(id);
         out.writeString(description);
-        out.writeLong(acquisitionDate.getTime());
+        out.writeLong(acquisitionTime);
         out.writeString(make); //Note: You can pass null values to Parcel
         out.writeString(model);
         out.writeString(serialNumber);
         out.writeString(comment);
-        out.writeSerializable(cost.toString());
-        out.writeList(photoIds);
-        out.writeList(new ArrayList<>(tags));
+        out.writeLong(costCents);
+        out.writeStringList(photoIds);
+        out.writeList(Arrays.asList(tags));
     }
 
     /**
@@ -325,17 +378,19 @@ public class Item implements Serializable, Parcelable {
     protected Item(Parcel in) {
         this.id = in.readString();
         this.description = in.readString();
-        this.acquisitionDate = new Date(in.readLong());
-        this.make = in.readString();
-        this.model = in.readString();
+        this.acquisitionTime = in.readLong();
+        this.make = intern(in.readString());
+        this.model = intern(in.readString());
         this.serialNumber = in.readString();
         this.comment = in.readString();
-        this.cost = new BigDecimal(in.readString()).setScale(2, RoundingMode.HALF_UP);
-        in.readStringList(this.photoIds);
-        this.tags = new TreeSet<>();
+        this.costCents = in.readLong();
+        List<String> ids = in.createStringArrayList();
+        if (ids != null && !ids.isEmpty()) {
+            this.photoIds = ids;
+        }
         List<Tag> tagList = new ArrayList<>();
         in.readList(tagList, Tag.class.getClassLoader(), Tag.class);
-        this.tags.addAll(tagList);
+        setTags(tagList);
     }
 
     /**
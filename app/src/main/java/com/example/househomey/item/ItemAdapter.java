@@ -9,44 +9,52 @@ import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.ArrayAdapter;
 import android.widget.CheckBox;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
-import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.househomey.R;
 import com.example.househomey.tags.Tag;
-import com.example.househomey.utils.FragmentUtils;
-import com.google.android.material.chip.Chip;
-import com.google.android.material.chip.ChipGroup;
 
-import java.util.ArrayList;
-import java.util.Set;
+import java.util.List;
 
 /**
- * A child of ArrayAdapter this adapter specifically displays a list of class Item objects
+ * A RecyclerView adapter that displays a list of class Item objects. Lists are submitted whole
+ * and diffed against the previous list on a background thread, so only the rows of items that
+ * were added, removed, moved or replaced are rebound.
  * @author Lukas Bonkowski, Matthew Neufeld, Sami Jagirdar
  * @see Item
  */
-public class ItemAdapter extends ArrayAdapter<Item> {
-    private ArrayList<Item> items;
-    private Context context;
+public class ItemAdapter extends ListAdapter<Item, ItemAdapter.ViewHolder> {
+    private static final DiffUtil.ItemCallback<Item> DIFF_CALLBACK = new DiffUtil.ItemCallback<Item>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Item oldItem, @NonNull Item newItem) {
+            return oldItem.getId().equals(newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Item oldItem, @NonNull Item newItem) {
+            // The inventory replaces an item with a new instance whenever its data or tags change
+            return oldItem == newItem;
+        }
+    };
+
+    private final Context context;
     private boolean selectState;
 
     /**
-     * Constructs a new ItemAdapter with an ArrayList of items
+     * Constructs a new, empty ItemAdapter
      * @param context The context containing this adapter
-     * @param items ArrayList of items to display
      */
-    public ItemAdapter(Context context, ArrayList<Item> items){
-        super(context, 0, items);
-        this.items = items;
+    public ItemAdapter(Context context) {
+        super(DIFF_CALLBACK);
         this.context = context;
     }
 
-
     /**
      * Getter for whether items are in select state or not
      * @return true or false indicating if itemAdapter is in select state or not
@@ -60,77 +68,106 @@ public class ItemAdapter extends ArrayAdapter<Item> {
      * @param selectState boolean value indicating if the items are in select state or not
      */
     public void setSelectState(boolean selectState) {
+        if (this.selectState == selectState) return;
         this.selectState = selectState;
-        notifyDataSetChanged();
+        notifyItemRangeChanged(0, getItemCount());
     }
 
     /**
-     * Gets a view to display an items from this adapters ArrayList.
-     * @param position    The position of the item within the adapter's data set of the item whose view
-     *                    we want.
-     * @param convertView The old view to reuse, if possible. Note: You should check that this view
-     *                    is non-null and of an appropriate type before using. If it is not possible to convert
-     *                    this view to display the correct data, this method can create a new view.
-     *                    Heterogeneous lists can specify their number of view types, so that this View is
-     *                    always of the right type (see {@link #getViewTypeCount()} and
-     *                    {@link #getItemViewType(int)}).
-     * @param parent      The parent that this view will eventually be attached to
-     * @return The view with all data from the items displayed
+     * Inflates a new row for the list
+     * @param parent   The ViewGroup into which the new View will be added
+     * @param viewType The view type of the new View
+     * @return A ViewHolder for the new row
      */
-    @SuppressLint("SetTextI18n")
     @NonNull
     @Override
-    public View getView(int position, @Nullable View convertView, @NonNull ViewGroup parent) {
-        View view = convertView;
-
-        // Inflate new view if there is nothing to recycle
-        if (view == null) {
-            view = LayoutInflater.from(context).inflate(R.layout.list_item, parent, false);
-        }
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(context).inflate(R.layout.list_item, parent, false);
+        return new ViewHolder(view);
+    }
 
-        // Get the correct item
-        Item item = items.get(position);
-
-        // Set all the text views to their appropriate values
-        ((TextView) view.findViewById(R.id.item_description_text)).setText(item.getDescription());
-        ((TextView) view.findViewById(R.id.item_date_text)).setText(formatDate(item.getAcquisitionDate()));
-        ((TextView) view.findViewById(R.id.item_cost_text)).setText("$" + item.getCost());
-
-        ((TextView) view.findViewById(R.id.item_tag)).setVisibility(View.GONE);
-        ((View) view.findViewById(R.id.make_tag_divider)).setVisibility(View.GONE);
-
-        String makeString = item.getMake();
-        Set<Tag> itemTags = item.getTags();
-        ((TextView) view.findViewById(R.id.item_extra_tags_text)).setText("");
-        if (itemTags.size() > 0) {
-            if (makeString != "") ((View) view.findViewById(R.id.make_tag_divider)).setVisibility(View.VISIBLE);;
-            ((TextView) view.findViewById(R.id.item_tag)).setVisibility(View.VISIBLE);
-            ((TextView) view.findViewById(R.id.item_tag)).setText(itemTags.iterator().next().getTagLabel());
-            if (itemTags.size() > 1)
-                ((TextView) view.findViewById(R.id.item_extra_tags_text)).setText(" +" + (itemTags.size()-1));
-        }
-        ((TextView) view.findViewById(R.id.item_make_text)).setText(makeString);
-
-        // Make checkboxes visible based on whether or not we are in select state
-        CheckBox itemCheckBox = view.findViewById(R.id.item_checkBox);
-        if (this.isSelectState()) {
-            itemCheckBox.setChecked(items.get(position).getChecked());
-            itemCheckBox.setOnClickListener((buttonView) ->
-                    items.get(position).setChecked(!items.get(position).getChecked()));
-        }
-        itemCheckBox.setVisibility(this.isSelectState() ? View.VISIBLE : View.GONE);
+    /**
+     * Displays an item in a row of the list
+     * @param holder   The ViewHolder of the row
+     * @param position The position of the item within the adapter's current list
+     */
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        holder.bind(getItem(position));
+    }
 
-        // When view item button clicked, pass Item to ViewItemFragment via bundle
-        view.setOnClickListener(v -> {
-            if (v != itemCheckBox) {
+    /**
+     * Holds the views of a single row of the list, so they are only looked up once per row
+     */
+    public class ViewHolder extends RecyclerView.ViewHolder {
+        private final TextView descriptionText;
+        private final TextView dateText;
+        private final TextView costText;
+        private final TextView makeText;
+        private final TextView tagText;
+        private final TextView extraTagsText;
+        private final View makeTagDivider;
+        private final CheckBox itemCheckBox;
+        private Item item;
+
+        /**
+         * Looks up the views of a row
+         * @param view The row's view
+         */
+        ViewHolder(@NonNull View view) {
+            super(view);
+            descriptionText = view.findViewById(R.id.item_description_text);
+            dateText = view.findViewById(R.id.item_date_text);
+            costText = view.findViewById(R.id.item_cost_text);
+            makeText = view.findViewById(R.id.item_make_text);
+            tagText = view.findViewById(R.id.item_tag);
+            extraTagsText = view.findViewById(R.id.item_extra_tags_text);
+            makeTagDivider = view.findViewById(R.id.make_tag_divider);
+            itemCheckBox = view.findViewById(R.id.item_checkBox);
+
+            itemCheckBox.setOnClickListener(v -> item.setChecked(!item.getChecked()));
+
+            // When view item button clicked, pass Item to ViewItemFragment via bundle
+            view.setOnClickListener(v -> {
                 ViewItemFragment viewItemFragment = new ViewItemFragment();
                 Bundle args = new Bundle();
-                args.putSerializable("item", item);
+                args.putString("itemId", item.getId());
                 viewItemFragment.setArguments(args);
                 navigateToFragmentPage(context, viewItemFragment);
+            });
+        }
+
+        /**
+         * Sets all the views of the row to an item's values
+         * @param item The item to display
+         */
+        @SuppressLint("SetTextI18n")
+        void bind(Item item) {
+            this.item = item;
+            descriptionText.setText(item.getDescription());
+            dateText.setText(formatDate(item.getAcquisitionDate()));
+            costText.setText("$" + item.getCost());
+
+            tagText.setVisibility(View.GONE);
+            makeTagDivider.setVisibility(View.GONE);
+
+            String makeString = item.getMake();
+            List<Tag> itemTags = item.getTags();
+            extraTagsText.setText("");
+            if (itemTags.size() > 0) {
+                if (!makeString.isEmpty()) makeTagDivider.setVisibility(View.VISIBLE);
+                tagText.setVisibility(View.VISIBLE);
+                tagText.setText(itemTags.get(0).getTagLabel());
+                if (itemTags.size() > 1)
+                    extraTagsText.setText(" +" + (itemTags.size()-1));
             }
-        });
+            makeText.setText(makeString);
 
-        return view;
+            // Make checkboxes visible based on whether or not we are in select state
+            if (isSelectState()) {
+                itemCheckBox.setChecked(item.getChecked());
+            }
+            itemCheckBox.setVisibility(isSelectState() ? View.VISIBLE : View.GONE);
+        }
     }
-}
\ No newline at end of file
+}
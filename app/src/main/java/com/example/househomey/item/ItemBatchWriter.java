@@ -0,0 +1,62 @@
+package com.example.househomey.item;
+
+import com.example.househomey.metrics.FirestoreMetrics;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes many items to Firestore in as few batched writes as possible, instead of one request
+ * per item. A Firestore batch holds at most {@link #MAX_BATCH_WRITES} writes, so larger sets
+ * of items are split over several batches.
+ */
+public final class ItemBatchWriter {
+    /**
+     * The most writes Firestore accepts in one batch
+     */
+    public static final int MAX_BATCH_WRITES = 500;
+
+    private ItemBatchWriter() {}
+
+    /**
+     * Writes items in batches
+     * @param items  The data of each item, by the document it is written to
+     * @param screen The name of the screen the writes are counted for
+     * @return A task that completes once every batch is committed
+     */
+    public static Task<Void> write(Map<DocumentReference, Map<String, Object>> items, String screen) {
+        List<Task<Void>> commits = new ArrayList<>();
+        for (List<Map.Entry<DocumentReference, Map<String, Object>>> chunk
+                : chunk(new ArrayList<>(items.entrySet()), MAX_BATCH_WRITES)) {
+            WriteBatch batch = FirebaseFirestore.getInstance().batch();
+            for (Map.Entry<DocumentReference, Map<String, Object>> item : chunk) {
+                batch.set(item.getKey(), item.getValue());
+            }
+            FirestoreMetrics.count(screen, FirestoreMetrics.Operation.WRITE, chunk.size());
+            commits.add(batch.commit());
+        }
+        return Tasks.whenAll(commits);
+    }
+
+    /**
+     * Splits a list into consecutive chunks
+     * @param list      The list to split
+     * @param chunkSize The most elements in a chunk
+     * @return The chunks in order, each a view of the list, or no chunks if the list is empty
+     */
+    public static <T> List<List<T>> chunk(List<T> list, int chunkSize) {
+        if (list.isEmpty()) return Collections.emptyList();
+        List<List<T>> chunks = new ArrayList<>();
+        for (int start = 0; start < list.size(); start += chunkSize) {
+            chunks.add(list.subList(start, Math.min(start + chunkSize, list.size())));
+        }
+        return chunks;
+    }
+}
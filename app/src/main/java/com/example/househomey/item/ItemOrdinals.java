@@ -0,0 +1,50 @@
+package com.example.househomey.item;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Numbers item ids with small integer ordinals, so that sets of items can be kept as bitsets.
+ * Indexes that share one instance number every item the same way, so their bitsets can be
+ * intersected directly. An ordinal is never given to another item, since one index may still
+ * hold an item that another index has already dropped.
+ */
+public class ItemOrdinals {
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final ArrayList<String> ids = new ArrayList<>();
+
+    /**
+     * Gets the ordinal of an item, numbering the item if it has no ordinal yet
+     * @param id The id of the item
+     * @return The item's ordinal
+     */
+    public int ordinalOf(String id) {
+        Integer ordinal = ordinals.get(id);
+        if (ordinal == null) {
+            ordinal = ids.size();
+            ids.add(id);
+            ordinals.put(id, ordinal);
+        }
+        return ordinal;
+    }
+
+    /**
+     * Looks up the ordinal of an item without numbering it
+     * @param id The id of the item
+     * @return The item's ordinal, or -1 if the item was never numbered
+     */
+    public int find(String id) {
+        Integer ordinal = ordinals.get(id);
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    /**
+     * Gets the item with an ordinal
+     * @param ordinal An ordinal given by {@link #ordinalOf(String)}
+     * @return The id of the item
+     */
+    public String getId(int ordinal) {
+        return ids.get(ordinal);
+    }
+}
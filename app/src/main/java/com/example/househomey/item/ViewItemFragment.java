@@ -22,16 +22,15 @@ import com.example.househomey.MainActivity;
 import com.example.househomey.R;
 import com.example.househomey.form.EditItemFragment;
 import com.example.househomey.form.ViewPhotoAdapter;
+import com.example.househomey.inventory.InventoryListener;
+import com.example.househomey.inventory.InventoryRepository;
+import com.example.househomey.metrics.FirestoreMetrics;
 import com.example.househomey.tags.ApplyTagFragment;
 import com.example.househomey.tags.Tag;
 import com.example.househomey.utils.FragmentUtils;
 import com.google.android.material.chip.Chip;
 import com.google.android.material.chip.ChipGroup;
 import com.google.firebase.firestore.CollectionReference;
-import com.google.firebase.firestore.FirebaseFirestoreException;
-import com.google.firebase.firestore.ListenerRegistration;
-import com.google.firebase.firestore.QueryDocumentSnapshot;
-import com.google.firebase.firestore.QuerySnapshot;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -44,11 +43,12 @@ import java.util.Objects;
  *
  * @author Matthew Neufeld
  */
-public class ViewItemFragment extends Fragment implements EditItemFragment.OnItemUpdateListener {
+public class ViewItemFragment extends Fragment implements EditItemFragment.OnItemUpdateListener,
+        InventoryListener {
     protected ViewPhotoAdapter viewPhotoAdapter;
+    private InventoryRepository inventory;
     private Item item;
     private ChipGroup chipGroup;
-    private ListenerRegistration tagListener;
 
     /**
      * @param inflater           The LayoutInflater object that can be used to inflate
@@ -63,8 +63,7 @@ public class ViewItemFragment extends Fragment implements EditItemFragment.OnIte
     @SuppressLint("SetTextI18n")
     public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
         View rootView = inflater.inflate(R.layout.fragment_view_item, container, false);
-        CollectionReference tagRef = ((MainActivity) requireActivity()).getTagRef();
-        tagListener = tagRef.addSnapshotListener(this::setupTagListener);
+        inventory = ((MainActivity) requireActivity()).getInventory();
 
         // Initialize TextViews
         TextView title = rootView.findViewById(R.id.view_item_title);
@@ -79,8 +78,11 @@ public class ViewItemFragment extends Fragment implements EditItemFragment.OnIte
         chipGroup = rootView.findViewById(R.id.tag_chip_group_labels);
 
         // Set TextViews to Item details sent over from ItemAdapter
+        // Look up the item sent over from ItemAdapter in the shared inventory
         ofNullable(getArguments())
-                .map(args -> args.getSerializable("item", Item.class))
+                .map(args -> inventory.getItem(args.getString("itemId")))
+                .ifPresent(item -> this.item = item);
+        ofNullable(item)
                 .ifPresent(item -> {
                     this.item = item;
                     title.setText(item.getDescription());
@@ -89,7 +91,6 @@ public class ViewItemFragment extends Fragment implements EditItemFragment.OnIte
                     model.setText(item.getModel());
                     serialNumber.setText(item.getSerialNumber());
                     cost.setText(item.getCost().toString());
-                    addTagsToChipGroup();
                     comment.setText(item.getComment());
                     if (item.getComment() != null && !item.getComment().isEmpty()) {
                         comment.setText(item.getComment());
@@ -102,7 +103,7 @@ public class ViewItemFragment extends Fragment implements EditItemFragment.OnIte
         rootView.findViewById(R.id.edit_button).setOnClickListener(v -> {
             EditItemFragment editItemFragment = new EditItemFragment();
             Bundle args = new Bundle();
-            args.putParcelable("item", item);
+            args.putString("itemId", item.getId());
             editItemFragment.setArguments(args);
             editItemFragment.setListener(this);
             navigateToFragmentPage(getContext(), editItemFragment);
@@ -110,6 +111,7 @@ public class ViewItemFragment extends Fragment implements EditItemFragment.OnIte
 
         rootView.findViewById(R.id.delete_button).setOnClickListener(v -> {
                     deletePhotosFromCloud(requireActivity(), item.getPhotoIds());
+                    FirestoreMetrics.count("View Item", FirestoreMetrics.Operation.DELETE, 1);
                     ((MainActivity) requireActivity()).getItemRef().document(item.getId()).delete();
                     goBack(getContext());
                 }
@@ -131,64 +133,71 @@ public class ViewItemFragment extends Fragment implements EditItemFragment.OnIte
         addTagsButton.setOnClickListener(v -> {
             ApplyTagFragment applyTagFragment = new ApplyTagFragment();
 
-            ArrayList<Item> selectedItem = new ArrayList<>();
-            selectedItem.add(item);
+            ArrayList<String> selectedItemIds = new ArrayList<>();
+            selectedItemIds.add(item.getId());
             Bundle tagArgs = new Bundle();
-            tagArgs.putParcelableArrayList("itemList", selectedItem);
+            tagArgs.putStringArrayList("itemIds", selectedItemIds);
             applyTagFragment.setArguments(tagArgs);
             applyTagFragment.show(requireActivity().getSupportFragmentManager(), "tagDialog");
         });
 
+        // Listening also adds the item's current tags to the chip group
+        inventory.addListener(this);
         return rootView;
     }
 
     /**
-     * Remove the tag listener when the fragment is stopped
+     * Stop listening to the inventory when the fragment's view is destroyed
      */
     @Override
-    public void onStop() {
-        super.onStop();
-        tagListener.remove();
+    public void onDestroyView() {
+        super.onDestroyView();
+        inventory.removeListener(this);
     }
 
     /**
-     * Whenever an item is updated (in Edit Item), this listener method adds the updated item
-     * to View Item's bundle arguments and displays the updated item information upon view creation
+     * Whenever an item is updated (in Edit Item), this listener method keeps the updated item
+     * so it is displayed upon view creation if the inventory does not have it yet
      *
      * @param updatedItem the Item with updated fields
      */
     @Override
     public void onItemUpdated(Item updatedItem) {
-        Bundle args = new Bundle();
-        args.putSerializable("item", updatedItem);
-        this.setArguments(args);
+        this.item = updatedItem;
     }
 
     /**
-     * This method updates the tags with changes in the firestore database and creates new
-     * tag objects
+     * Refreshes the displayed tags when the inventory is reloaded
+     */
+    @Override
+    public void onInventoryLoaded() {
+        refreshTags();
+    }
+
+    /**
+     * Refreshes the displayed tags if this item was modified
      *
-     * @param querySnapshots The updated information on the inventory from the database
-     * @param error          Non-null if an error occurred in Firestore
+     * @param added   items that were added or replaced
+     * @param removed items that were removed or replaced
      */
-    private void setupTagListener(QuerySnapshot querySnapshots, FirebaseFirestoreException error) {
-        if (error != null) {
-            Log.e("Firestore", error.toString());
-            return;
-        }
-        if (querySnapshots != null) {
-            item.clearTags();
-            chipGroup.removeAllViews();
-            for (QueryDocumentSnapshot doc : querySnapshots) {
-                Tag tag = new Tag(doc.getId(), doc.getData());
-                for (String id : tag.getItemIds()) {
-                    if (Objects.equals(item.getId(), id)) item.addTag(tag);
-                }
-            }
-            addTagsToChipGroup();
+    @Override
+    public void onItemsChanged(List<Item> added, List<Item> removed) {
+        for (Item addedItem : added) {
+            if (Objects.equals(item.getId(), addedItem.getId())) refreshTags();
         }
     }
 
+    /**
+     * Replaces the displayed item with its latest version from the inventory and
+     * re-creates its tag chips
+     */
+    private void refreshTags() {
+        Item latestItem = inventory.getItem(item.getId());
+        if (latestItem != null) item = latestItem;
+        chipGroup.removeAllViews();
+        addTagsToChipGroup();
+    }
+
     /**
      * Adds tags such that they can be viewed on the view item page. Also enables tags to be deleted when clicking the close icon.
      */
@@ -198,8 +207,10 @@ public class ViewItemFragment extends Fragment implements EditItemFragment.OnIte
             final Chip chip = FragmentUtils.makeChip(tag.getTagLabel(), true, chipGroup, getContext(), R.color.creme, R.color.black, R.color.black);
             final Tag finalTag = tag;
             chip.setOnCloseIconClickListener(v -> tagRef.document(finalTag.getTagLabel()).get().addOnSuccessListener(task -> {
+                FirestoreMetrics.count("View Item", FirestoreMetrics.Operation.READ, 1);
                 ArrayList<String> itemIds = new ArrayList<>((List<String>) task.getData().get("items"));
                 itemIds.removeIf(item -> item.equals(this.item.getId()));
+                FirestoreMetrics.count("View Item", FirestoreMetrics.Operation.WRITE, 1);
                 tagRef.document(finalTag.getTagLabel()).update("items", itemIds);
             }));
         }
@@ -0,0 +1,143 @@
+package com.example.househomey.metrics;
+
+import android.util.Log;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counts the Firestore document reads, writes and deletes caused by each screen, and times the
+ * stages between a snapshot listener firing and the updated list being rendered. The results are
+ * shown by {@link MetricsOverlay} and can be written to the log with {@link #logDump()}.
+ */
+public final class FirestoreMetrics {
+    private static final String TAG = "FirestoreMetrics";
+    private static final int SAMPLES_PER_STAGE = 512;
+
+    // Stages of handling a snapshot, in the order they happen
+    public static final String STAGE_LISTENER = "listener";
+    public static final String STAGE_FILTER = "filter";
+    public static final String STAGE_SORT = "sort";
+    public static final String STAGE_RENDER = "render";
+
+    /**
+     * Kinds of billed Firestore document operations
+     */
+    public enum Operation { READ, WRITE, DELETE }
+
+    private static final Map<String, long[]> operationCounts = new LinkedHashMap<>();
+    private static final Map<String, LatencyRecorder> stages = new LinkedHashMap<>();
+    private static long pendingSnapshotStart = -1;
+
+    static {
+        for (String stage : new String[]{STAGE_LISTENER, STAGE_FILTER, STAGE_SORT, STAGE_RENDER}) {
+            stages.put(stage, new LatencyRecorder(SAMPLES_PER_STAGE));
+        }
+    }
+
+    private FirestoreMetrics() {}
+
+    /**
+     * Counts document operations caused by a screen
+     * @param screen    The name of the screen, e.g. "Home"
+     * @param operation The kind of operation
+     * @param documents The number of documents read, written or deleted
+     */
+    public static synchronized void count(String screen, Operation operation, int documents) {
+        long[] counts = operationCounts.get(screen);
+        if (counts == null) {
+            counts = new long[Operation.values().length];
+            operationCounts.put(screen, counts);
+        }
+        counts[operation.ordinal()] += documents;
+    }
+
+    /**
+     * Gets the number of document operations of a kind caused by a screen
+     * @param screen    The name of the screen
+     * @param operation The kind of operation
+     * @return The number of documents counted so far
+     */
+    public static synchronized long getCount(String screen, Operation operation) {
+        long[] counts = operationCounts.get(screen);
+        return counts == null ? 0 : counts[operation.ordinal()];
+    }
+
+    /**
+     * Records how long a stage took
+     * @param stage      One of the STAGE constants
+     * @param startNanos The {@link System#nanoTime()} when the stage started
+     */
+    public static void recordStage(String stage, long startNanos) {
+        LatencyRecorder recorder;
+        synchronized (FirestoreMetrics.class) {
+            recorder = stages.get(stage);
+        }
+        if (recorder != null) recorder.record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Marks that a snapshot listener just fired, so the time until the list is rendered can
+     * be recorded by {@link #snapshotRendered()}
+     * @return The current {@link System#nanoTime()}, for timing the listener stage
+     */
+    public static synchronized long snapshotReceived() {
+        long now = System.nanoTime();
+        if (pendingSnapshotStart < 0) pendingSnapshotStart = now;
+        return now;
+    }
+
+    /**
+     * Records the time from the earliest unrendered snapshot to now, when a list displaying it
+     * was committed. Does nothing if no snapshot is waiting to be rendered.
+     */
+    public static void snapshotRendered() {
+        long start;
+        synchronized (FirestoreMetrics.class) {
+            start = pendingSnapshotStart;
+            pendingSnapshotStart = -1;
+        }
+        if (start >= 0) recordStage(STAGE_RENDER, start);
+    }
+
+    /**
+     * Builds a readable summary of every counter and stage
+     * @return One line per screen and per stage
+     */
+    public static synchronized String dump() {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, long[]> entry : operationCounts.entrySet()) {
+            long[] counts = entry.getValue();
+            builder.append(entry.getKey())
+                    .append(": reads=").append(counts[Operation.READ.ordinal()])
+                    .append(" writes=").append(counts[Operation.WRITE.ordinal()])
+                    .append(" deletes=").append(counts[Operation.DELETE.ordinal()])
+                    .append('\n');
+        }
+        for (Map.Entry<String, LatencyRecorder> entry : stages.entrySet()) {
+            builder.append(entry.getKey()).append(": ").append(entry.getValue().summarize()).append('\n');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Writes the summary from {@link #dump()} to the log
+     */
+    public static void logDump() {
+        for (String line : dump().split("\n")) {
+            Log.i(TAG, line);
+        }
+    }
+
+    /**
+     * Clears every counter and stage. Called when a user's inventory repository is closed, on
+     * sign out or when another user signs in.
+     */
+    public static synchronized void reset() {
+        operationCounts.clear();
+        for (String stage : stages.keySet().toArray(new String[0])) {
+            stages.put(stage, new LatencyRecorder(SAMPLES_PER_STAGE));
+        }
+        pendingSnapshotStart = -1;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.househomey.metrics;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Keeps the most recent durations of one stage of work and reports their percentiles.
+ * Older samples are overwritten once the buffer is full, so memory use stays fixed.
+ * @see FirestoreMetrics
+ */
+public class LatencyRecorder {
+    private final long[] samples;
+    private int next = 0;
+    private int size = 0;
+    private long total = 0;
+
+    /**
+     * Constructs a recorder that keeps a fixed number of samples
+     * @param capacity The number of most recent samples to keep
+     */
+    public LatencyRecorder(int capacity) {
+        samples = new long[capacity];
+    }
+
+    /**
+     * Records one duration
+     * @param nanos The duration in nanoseconds
+     */
+    public synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        if (size < samples.length) size++;
+        total++;
+    }
+
+    /**
+     * Getter for the number of durations recorded since the recorder was created
+     * @return The total number of samples, including overwritten ones
+     */
+    public synchronized long getCount() {
+        return total;
+    }
+
+    /**
+     * Computes a percentile of the kept samples using the nearest rank
+     * @param percentile The percentile, between 0 and 100
+     * @return The duration in nanoseconds, or 0 if nothing was recorded
+     */
+    public synchronized long getPercentile(double percentile) {
+        if (size == 0) return 0;
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100 * size);
+        return sorted[Math.max(0, Math.min(size - 1, rank - 1))];
+    }
+
+    /**
+     * Summarizes the kept samples in milliseconds
+     * @return The count, median, 90th and 99th percentile and maximum, e.g. "n=12 p50=1.2ms ..."
+     */
+    public String summarize() {
+        return String.format(Locale.ROOT, "n=%d p50=%.1fms p90=%.1fms p99=%.1fms max=%.1fms",
+                getCount(), toMillis(getPercentile(50)), toMillis(getPercentile(90)),
+                toMillis(getPercentile(99)), toMillis(getPercentile(100)));
+    }
+
+    /**
+     * Converts nanoseconds to fractional milliseconds
+     */
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
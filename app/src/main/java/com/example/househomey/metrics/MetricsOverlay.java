@@ -0,0 +1,64 @@
+package com.example.househomey.metrics;
+
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.View;
+import android.widget.TextView;
+
+/**
+ * A debug overlay that shows the summary from {@link FirestoreMetrics} and refreshes it
+ * every second while visible. Hiding the overlay also writes the summary to the log.
+ */
+public class MetricsOverlay {
+    private static final long REFRESH_MILLIS = 1000;
+    private final TextView overlayText;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable refresh = new Runnable() {
+        @Override
+        public void run() {
+            overlayText.setText(FirestoreMetrics.dump());
+            handler.postDelayed(this, REFRESH_MILLIS);
+        }
+    };
+
+    /**
+     * Constructs an overlay that displays the metrics in the given text view
+     * @param overlayText The initially hidden text view to display the metrics in
+     */
+    public MetricsOverlay(TextView overlayText) {
+        this.overlayText = overlayText;
+    }
+
+    /**
+     * Checks whether the overlay should be offered, which is only in debuggable builds
+     * @param context Any context of the app
+     * @return true if the app is debuggable
+     */
+    public static boolean isAvailable(Context context) {
+        return (context.getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+    }
+
+    /**
+     * Shows the overlay if it is hidden, otherwise hides it
+     */
+    public void toggle() {
+        if (overlayText.getVisibility() == View.VISIBLE) {
+            hide();
+        } else {
+            overlayText.setVisibility(View.VISIBLE);
+            handler.post(refresh);
+        }
+    }
+
+    /**
+     * Hides the overlay, stops refreshing it and writes the metrics to the log
+     */
+    public void hide() {
+        if (overlayText.getVisibility() != View.VISIBLE) return;
+        handler.removeCallbacks(refresh);
+        overlayText.setVisibility(View.GONE);
+        FirestoreMetrics.logDump();
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.househomey.photo;
+
+import android.content.ContentResolver;
+import android.net.Uri;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Computes the ids photos are uploaded under: the SHA-256 of the picked file, in hex. The same
+ * photo picked for several items gets the same id, so it is only uploaded once.
+ * @see PhotoReferences
+ */
+public final class ContentHash {
+    private static final int HASH_LENGTH = 64;
+    private static final Executor EXECUTOR = Executors.newSingleThreadExecutor();
+
+    private ContentHash() {}
+
+    /**
+     * Hashes a photo on a background thread
+     * @param resolver Resolves the photo's URI
+     * @param uri      The URI of the photo, e.g. from the camera or the gallery
+     * @return A task resulting in the photo's hash
+     */
+    public static Task<String> computeAsync(ContentResolver resolver, Uri uri) {
+        return Tasks.call(EXECUTOR, () -> {
+            try (InputStream input = resolver.openInputStream(uri)) {
+                if (input == null) throw new FileNotFoundException(uri.toString());
+                return compute(input);
+            }
+        });
+    }
+
+    /**
+     * Hashes a stream as it is read, without holding it in memory
+     * @param input The stream to hash, read to its end
+     * @return The SHA-256 of the stream in lowercase hex
+     * @throws IOException if the stream cannot be read
+     */
+    public static String compute(InputStream input) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to provide SHA-256
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        StringBuilder hex = new StringBuilder(HASH_LENGTH);
+        for (byte b : digest.digest()) {
+            hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Determines whether a string is a hash computed by {@link #compute(InputStream)}
+     * @param str a string
+     * @return true if the string is 64 lowercase hex digits
+     */
+    public static boolean isHash(String str) {
+        if (str == null || str.length() != HASH_LENGTH) return false;
+        for (int i = 0; i < HASH_LENGTH; i++) {
+            char c = str.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) return false;
+        }
+        return true;
+    }
+}
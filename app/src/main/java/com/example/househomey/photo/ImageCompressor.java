@@ -0,0 +1,343 @@
+package com.example.househomey.photo;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.content.res.AssetFileDescriptor;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+import android.media.ExifInterface;
+import android.net.Uri;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Shrinks a photo before it is uploaded to Cloud Storage. The photo is decoded with the
+ * largest power-of-two subsampling that keeps it above the maximum dimension, scaled down to
+ * the maximum dimension, turned upright according to its EXIF orientation and re-encoded.
+ * Re-encoding drops every EXIF tag, including the location the photo was taken at.
+ * A small thumbnail for photo grids is encoded from the same decoded pixels.
+ */
+public class ImageCompressor {
+    /**
+     * Default length in pixels of the longer side of a compressed photo
+     */
+    public static final int DEFAULT_MAX_DIMENSION = 1600;
+    /**
+     * Default encoder quality, from 0 to 100
+     */
+    public static final int DEFAULT_QUALITY = 80;
+    /**
+     * Unmodified photos kept alongside the compressed ones are uploaded under their photo id
+     * followed by this suffix
+     */
+    public static final String ORIGINAL_SUFFIX = "_original";
+    /**
+     * Length in pixels of the longer side of a thumbnail, about a grid cell on a dense screen
+     */
+    public static final int THUMBNAIL_DIMENSION = 320;
+    public static final int THUMBNAIL_QUALITY = 70;
+    /**
+     * Thumbnails are uploaded under their photo id followed by this suffix
+     */
+    public static final String THUMBNAIL_SUFFIX = "_thumb";
+    /**
+     * Name of the preferences holding the photo settings
+     */
+    public static final String PREFERENCES_NAME = "photo_settings";
+    public static final String KEY_MAX_DIMENSION = "max_dimension";
+    public static final String KEY_QUALITY = "quality";
+    public static final String KEY_KEEP_ORIGINALS = "keep_originals";
+
+    // Decoding a full-size photo takes tens of megabytes, so photos are compressed one at a time
+    private static final Executor EXECUTOR = Executors.newSingleThreadExecutor();
+
+    private final int maxDimension;
+    private final int quality;
+    private final Bitmap.CompressFormat format;
+    private final boolean keepOriginals;
+
+    /**
+     * Constructs a compressor producing WebP photos of the default size and quality
+     */
+    public ImageCompressor() {
+        this(DEFAULT_MAX_DIMENSION, DEFAULT_QUALITY, Bitmap.CompressFormat.WEBP_LOSSY);
+    }
+
+    /**
+     * Constructs a compressor
+     * @param maxDimension The length in pixels of the longer side of a compressed photo
+     * @param quality      The encoder quality, from 0 to 100
+     * @param format       The format to encode compressed photos in, e.g. WebP or JPEG
+     */
+    public ImageCompressor(int maxDimension, int quality, Bitmap.CompressFormat format) {
+        this(maxDimension, quality, format, false);
+    }
+
+    /**
+     * Constructs a compressor
+     * @param maxDimension  The length in pixels of the longer side of a compressed photo
+     * @param quality       The encoder quality, from 0 to 100
+     * @param format        The format to encode compressed photos in, e.g. WebP or JPEG
+     * @param keepOriginals Whether the unmodified photos are also uploaded
+     */
+    public ImageCompressor(int maxDimension, int quality, Bitmap.CompressFormat format, boolean keepOriginals) {
+        this.maxDimension = maxDimension;
+        this.quality = quality;
+        this.format = format;
+        this.keepOriginals = keepOriginals;
+    }
+
+    /**
+     * Constructs a WebP compressor from the photo settings, using the defaults for settings
+     * that were never changed
+     * @param context Any context of the app
+     * @return The compressor for the current settings
+     */
+    public static ImageCompressor fromPreferences(Context context) {
+        SharedPreferences preferences = context.getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+        return new ImageCompressor(
+                preferences.getInt(KEY_MAX_DIMENSION, DEFAULT_MAX_DIMENSION),
+                preferences.getInt(KEY_QUALITY, DEFAULT_QUALITY),
+                Bitmap.CompressFormat.WEBP_LOSSY,
+                preferences.getBoolean(KEY_KEEP_ORIGINALS, false));
+    }
+
+    /**
+     * Checks whether the unmodified photos are uploaded alongside the compressed ones, under
+     * their photo id followed by {@link #ORIGINAL_SUFFIX}
+     * @return True if the originals are kept
+     */
+    public boolean keepsOriginals() {
+        return keepOriginals;
+    }
+
+    /**
+     * Getter for the MIME type of the compressed photos
+     * @return The content type to upload the photos with
+     */
+    public String getContentType() {
+        switch (format) {
+            case JPEG:
+                return "image/jpeg";
+            case PNG:
+                return "image/png";
+            default:
+                return "image/webp";
+        }
+    }
+
+    /**
+     * Compresses a photo on a background thread
+     * @param resolver Resolves the photo's URI
+     * @param uri      The URI of the photo, e.g. from the camera or the gallery
+     * @return A task resulting in the compressed photo
+     */
+    public Task<Result> compressAsync(ContentResolver resolver, Uri uri) {
+        return Tasks.call(EXECUTOR, () -> compress(resolver, uri));
+    }
+
+    /**
+     * Compresses a photo on the calling thread
+     * @param resolver Resolves the photo's URI
+     * @param uri      The URI of the photo, e.g. from the camera or the gallery
+     * @return The compressed photo
+     * @throws IOException if the photo cannot be read or decoded
+     */
+    public Result compress(ContentResolver resolver, Uri uri) throws IOException {
+        long start = System.nanoTime();
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        try (InputStream input = open(resolver, uri)) {
+            BitmapFactory.decodeStream(input, null, options);
+        }
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            throw new IOException("Not an image: " + uri);
+        }
+        int orientation;
+        try (InputStream input = open(resolver, uri)) {
+            orientation = new ExifInterface(input).getAttributeInt(
+                    ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
+        }
+
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = computeSampleSize(options.outWidth, options.outHeight, maxDimension);
+        Bitmap sampled;
+        try (InputStream input = open(resolver, uri)) {
+            sampled = BitmapFactory.decodeStream(input, null, options);
+        }
+        if (sampled == null) throw new IOException("Could not decode " + uri);
+
+        Matrix matrix = getOrientationMatrix(orientation);
+        float scale = computeScale(sampled.getWidth(), sampled.getHeight(), maxDimension);
+        matrix.postScale(scale, scale);
+        Bitmap output = Bitmap.createBitmap(sampled, 0, 0, sampled.getWidth(), sampled.getHeight(), matrix, true);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        output.compress(format, quality, bytes);
+
+        float thumbnailScale = computeScale(output.getWidth(), output.getHeight(), THUMBNAIL_DIMENSION);
+        Bitmap thumbnail = Bitmap.createScaledBitmap(output, Math.max(1, Math.round(output.getWidth() * thumbnailScale)),
+                Math.max(1, Math.round(output.getHeight() * thumbnailScale)), true);
+        ByteArrayOutputStream thumbnailBytes = new ByteArrayOutputStream();
+        thumbnail.compress(format, THUMBNAIL_QUALITY, thumbnailBytes);
+        if (thumbnail != output) thumbnail.recycle();
+        if (output != sampled) output.recycle();
+        sampled.recycle();
+
+        return new Result(bytes.toByteArray(), thumbnailBytes.toByteArray(), getSize(resolver, uri),
+                System.nanoTime() - start);
+    }
+
+    /**
+     * Computes the subsampling to decode a photo with: the largest power of two that keeps
+     * the longer side at least as long as the maximum dimension
+     * @param width        The width of the photo in pixels
+     * @param height       The height of the photo in pixels
+     * @param maxDimension The length in pixels of the longer side after compression
+     * @return The sample size for {@link BitmapFactory.Options#inSampleSize}
+     */
+    public static int computeSampleSize(int width, int height, int maxDimension) {
+        int longerSide = Math.max(width, height);
+        int sampleSize = 1;
+        while (longerSide / (sampleSize * 2) >= maxDimension) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    /**
+     * Computes how much a decoded photo is scaled to fit the maximum dimension
+     * @param width        The width of the decoded photo in pixels
+     * @param height       The height of the decoded photo in pixels
+     * @param maxDimension The length in pixels of the longer side after compression
+     * @return The scale factor, at most 1 since photos are never enlarged
+     */
+    public static float computeScale(int width, int height, int maxDimension) {
+        return Math.min(1f, (float) maxDimension / Math.max(width, height));
+    }
+
+    /**
+     * Builds the transformation that turns a photo upright
+     * @param orientation The photo's EXIF orientation
+     * @return The rotation and mirroring to apply to the decoded pixels
+     */
+    private static Matrix getOrientationMatrix(int orientation) {
+        Matrix matrix = new Matrix();
+        switch (orientation) {
+            case ExifInterface.ORIENTATION_FLIP_HORIZONTAL:
+                matrix.setScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_180:
+                matrix.setRotate(180);
+                break;
+            case ExifInterface.ORIENTATION_FLIP_VERTICAL:
+                matrix.setScale(1, -1);
+                break;
+            case ExifInterface.ORIENTATION_TRANSPOSE:
+                matrix.setRotate(90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_90:
+                matrix.setRotate(90);
+                break;
+            case ExifInterface.ORIENTATION_TRANSVERSE:
+                matrix.setRotate(-90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_270:
+                matrix.setRotate(-90);
+                break;
+            default:
+                break;
+        }
+        return matrix;
+    }
+
+    private static InputStream open(ContentResolver resolver, Uri uri) throws FileNotFoundException {
+        InputStream input = resolver.openInputStream(uri);
+        if (input == null) throw new FileNotFoundException(uri.toString());
+        return input;
+    }
+
+    /**
+     * Gets the size of the original photo, for reporting the bytes saved
+     * @param resolver Resolves the photo's URI
+     * @param uri      The URI of the photo
+     * @return The size in bytes, or -1 if it is not known
+     */
+    private static long getSize(ContentResolver resolver, Uri uri) {
+        try (AssetFileDescriptor descriptor = resolver.openAssetFileDescriptor(uri, "r")) {
+            return descriptor == null ? -1 : descriptor.getLength();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * A compressed photo and its thumbnail, along with how much smaller it is than the original
+     */
+    public static class Result {
+        private final byte[] bytes;
+        private final byte[] thumbnailBytes;
+        private final long originalSize;
+        private final long elapsedNanos;
+
+        Result(byte[] bytes, byte[] thumbnailBytes, long originalSize, long elapsedNanos) {
+            this.bytes = bytes;
+            this.thumbnailBytes = thumbnailBytes;
+            this.originalSize = originalSize;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * Getter for the encoded photo
+         * @return The bytes to upload
+         */
+        public byte[] getBytes() {
+            return bytes;
+        }
+
+        /**
+         * Getter for the encoded thumbnail
+         * @return The thumbnail bytes to upload
+         */
+        public byte[] getThumbnailBytes() {
+            return thumbnailBytes;
+        }
+
+        /**
+         * Getter for the size of the original photo
+         * @return The size in bytes, or -1 if it is not known
+         */
+        public long getOriginalSize() {
+            return originalSize;
+        }
+
+        /**
+         * Getter for the time spent compressing
+         * @return The time in nanoseconds
+         */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Describes the compression for the log
+         * @return The original and compressed sizes and the time taken
+         */
+        @Override
+        public String toString() {
+            return originalSize + " -> " + bytes.length + " bytes (thumbnail " + thumbnailBytes.length
+                    + " bytes) in " + elapsedNanos / 1_000_000 + " ms";
+        }
+    }
+}
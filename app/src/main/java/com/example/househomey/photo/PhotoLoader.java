@@ -0,0 +1,74 @@
+package com.example.househomey.photo;
+
+import android.content.Context;
+import android.graphics.drawable.Drawable;
+import android.widget.ImageView;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.example.househomey.MainActivity;
+
+/**
+ * Loads photos into ImageViews with Glide. Photos in Cloud Storage are shown from their
+ * thumbnails in grids and lists, so scrolling never downloads a full-size photo. The full-size
+ * photo is only loaded for the detail view.
+ */
+public final class PhotoLoader {
+    private PhotoLoader() {}
+
+    /**
+     * Loads a photo's thumbnail, or the full-size photo if it has no thumbnail
+     * @param context   The context, which must be a {@link MainActivity}
+     * @param imageView The ImageView to load the photo into
+     * @param imagePath A Cloud Storage photo id or a local file URI
+     */
+    public static void loadThumbnail(Context context, ImageView imageView, String imagePath) {
+        if (isLocal(imagePath)) {
+            // Glide downsamples local files to the size of the view
+            Glide.with(context).load(imagePath).into(imageView);
+            return;
+        }
+        MainActivity activity = (MainActivity) context;
+        RequestBuilder<Drawable> fullSize = Glide.with(context)
+                .load(activity.getImageRef(imagePath))
+                .diskCacheStrategy(DiskCacheStrategy.DATA);
+        Glide.with(context)
+                .load(activity.getThumbnailRef(imagePath))
+                .diskCacheStrategy(DiskCacheStrategy.DATA)
+                // Photos uploaded before thumbnails were added only exist at full size
+                .error(fullSize)
+                .into(imageView);
+    }
+
+    /**
+     * Loads a full-size photo, showing its thumbnail until the photo arrives
+     * @param context   The context, which must be a {@link MainActivity}
+     * @param imageView The ImageView to load the photo into
+     * @param imagePath A Cloud Storage photo id or a local file URI
+     */
+    public static void loadFullSize(Context context, ImageView imageView, String imagePath) {
+        if (isLocal(imagePath)) {
+            Glide.with(context).load(imagePath).into(imageView);
+            return;
+        }
+        MainActivity activity = (MainActivity) context;
+        RequestBuilder<Drawable> thumbnail = Glide.with(context)
+                .load(activity.getThumbnailRef(imagePath))
+                .diskCacheStrategy(DiskCacheStrategy.DATA);
+        Glide.with(context)
+                .load(activity.getImageRef(imagePath))
+                .diskCacheStrategy(DiskCacheStrategy.DATA)
+                .thumbnail(thumbnail)
+                .into(imageView);
+    }
+
+    /**
+     * Checks whether a photo path is a local file rather than a Cloud Storage photo id
+     * @param imagePath The photo path
+     * @return true for content:// and file:// URIs
+     */
+    private static boolean isLocal(String imagePath) {
+        return imagePath.contains("://");
+    }
+}
@@ -0,0 +1,277 @@
+package com.example.househomey.photo;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.example.househomey.metrics.FirestoreMetrics;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.storage.StorageException;
+import com.google.firebase.storage.StorageReference;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Counts how many items refer to each of a user's photos in Cloud Storage, so a photo shared by
+ * several items is stored once and only deleted when the last of them lets go of it. Each
+ * photo has a document in the user's photo collection holding its reference count. Photos
+ * uploaded before counting began have no document and are deleted by their only item.
+ */
+public class PhotoReferences {
+    private static final String REFERENCES = "references";
+    private static final String DELETING_SINCE = "deletingSince";
+    private static final String ORIGINAL = "original";
+    // How long a photo may stay marked as being deleted before the deletion counts as abandoned
+    private static final long DELETION_TIMEOUT_MILLIS = 10 * 60 * 1000;
+    private static final int MAX_ACQUIRE_ATTEMPTS = 5;
+    private final CollectionReference photoRef;
+    private final StorageReference imageFolder;
+    private final Random random = new Random();
+
+    /**
+     * Constructs the photo references of a user
+     * @param photoRef    The user's Firestore collection of photo reference counts
+     * @param imageFolder The Cloud Storage folder holding the user's photos
+     */
+    public PhotoReferences(CollectionReference photoRef, StorageReference imageFolder) {
+        this.photoRef = photoRef;
+        this.imageFolder = imageFolder;
+    }
+
+    /**
+     * Getter for the photo reference count collection
+     * @return The user's Firestore collection of photo reference counts
+     */
+    public CollectionReference getPhotoRef() {
+        return photoRef;
+    }
+
+    /**
+     * Getter for the photo folder
+     * @return The Cloud Storage folder holding the user's photos
+     */
+    public StorageReference getImageFolder() {
+        return imageFolder;
+    }
+
+    /**
+     * Retrieves a StorageReference to a photo in the user's folder
+     * @param imageId The photo's id
+     * @return A StorageReference pointing to the photo
+     */
+    public StorageReference getImageRef(String imageId) {
+        return imageFolder.child(imageId);
+    }
+
+    /**
+     * Adds references to photos, for items that now show them. A photo that is being deleted
+     * is waited for, so the caller uploads it again instead of relying on a file about to go.
+     * Either every reference is added or, if any fails, none are.
+     * @param photoIds The ids of the photos, once for each item that shows them
+     * @return A task that completes once every reference is counted
+     */
+    public Task<Void> acquire(Collection<String> photoIds) {
+        Map<String, Integer> counts = countIds(photoIds);
+        List<Task<Void>> acquisitions = new ArrayList<>();
+        for (Map.Entry<String, Integer> count : counts.entrySet()) {
+            acquisitions.add(acquire(count.getKey(), count.getValue(), 1));
+        }
+        return Tasks.whenAllComplete(acquisitions).continueWithTask(unused -> {
+            List<String> acquired = new ArrayList<>();
+            Exception error = null;
+            int i = 0;
+            for (Map.Entry<String, Integer> count : counts.entrySet()) {
+                Task<Void> acquisition = acquisitions.get(i++);
+                if (acquisition.isSuccessful()) {
+                    acquired.addAll(Collections.nCopies(count.getValue(), count.getKey()));
+                } else {
+                    error = acquisition.getException();
+                }
+            }
+            if (error == null) return Tasks.<Void>forResult(null);
+            Log.e("Firestore", "Failed to count photo references: " + error);
+            release(acquired);
+            return Tasks.<Void>forException(error);
+        });
+    }
+
+    /**
+     * Adds references to a photo, retrying while the photo is being deleted
+     * @param photoId The photo's id
+     * @param added   The number of references to add
+     * @param attempt The number of this attempt, starting at 1
+     * @return A task that completes once the references are counted
+     */
+    private Task<Void> acquire(String photoId, int added, int attempt) {
+        DocumentReference countRef = photoRef.document(photoId);
+        FirestoreMetrics.count("Photos", FirestoreMetrics.Operation.WRITE, 1);
+        return photoRef.getFirestore().<Void>runTransaction(transaction -> {
+            DocumentSnapshot snapshot = transaction.get(countRef);
+            Timestamp deletingSince = snapshot.getTimestamp(DELETING_SINCE);
+            if (deletingSince != null
+                    && System.currentTimeMillis() - deletingSince.toDate().getTime() < DELETION_TIMEOUT_MILLIS) {
+                throw new FirebaseFirestoreException("Photo " + photoId + " is being deleted",
+                        FirebaseFirestoreException.Code.FAILED_PRECONDITION);
+            }
+            // A deletion that never finished is taken over, and the photo uploaded again
+            Map<String, Object> data = new HashMap<>();
+            data.put(REFERENCES, FieldValue.increment(added));
+            data.put(DELETING_SINCE, FieldValue.delete());
+            transaction.set(countRef, data, SetOptions.merge());
+            return null;
+        }).continueWithTask(task -> {
+            if (!isDeleting(task.getException()) || attempt >= MAX_ACQUIRE_ATTEMPTS) return task;
+            TaskCompletionSource<Void> retry = new TaskCompletionSource<>();
+            new Handler(Looper.getMainLooper()).postDelayed(() -> acquire(photoId, added, attempt + 1)
+                    .addOnCompleteListener(retried -> {
+                        if (retried.isSuccessful()) {
+                            retry.setResult(null);
+                        } else {
+                            retry.setException(retried.getException());
+                        }
+                    }), PhotoUploadManager.computeBackoff(attempt, random));
+            return retry.getTask();
+        });
+    }
+
+    private static boolean isDeleting(Exception e) {
+        return e instanceof FirebaseFirestoreException
+                && ((FirebaseFirestoreException) e).getCode() == FirebaseFirestoreException.Code.FAILED_PRECONDITION;
+    }
+
+    /**
+     * Removes references to photos, for items that no longer show them, deleting the photos
+     * that no other item refers to. A photo is marked as being deleted until its files are
+     * gone, so it is not acquired again meanwhile.
+     * @param photoIds The ids of the photos, once for each item that no longer shows them
+     */
+    public void release(Collection<String> photoIds) {
+        for (Map.Entry<String, Integer> count : countIds(photoIds).entrySet()) {
+            String photoId = count.getKey();
+            int released = count.getValue();
+            DocumentReference countRef = photoRef.document(photoId);
+            // Whether the original was kept, read along with the last reference
+            boolean[] hasOriginal = {false};
+            FirestoreMetrics.count("Photos", FirestoreMetrics.Operation.WRITE, 1);
+            photoRef.getFirestore().runTransaction(transaction -> {
+                        DocumentSnapshot snapshot = transaction.get(countRef);
+                        Long references = snapshot.getLong(REFERENCES);
+                        if (references == null) {
+                            // Only a photo from before counting began belongs to a single item.
+                            // An uncounted hashed photo is already released, or not yet acquired.
+                            return !ContentHash.isHash(photoId);
+                        }
+                        if (snapshot.contains(DELETING_SINCE)) return false;
+                        if (references <= released) {
+                            Map<String, Object> data = new HashMap<>();
+                            data.put(REFERENCES, 0);
+                            data.put(DELETING_SINCE, FieldValue.serverTimestamp());
+                            transaction.update(countRef, data);
+                            hasOriginal[0] = Boolean.TRUE.equals(snapshot.getBoolean(ORIGINAL));
+                            return true;
+                        }
+                        transaction.update(countRef, REFERENCES, FieldValue.increment(-released));
+                        return false;
+                    })
+                    .addOnSuccessListener(lastReference -> {
+                        if (lastReference) deletePhoto(photoId, hasOriginal[0]);
+                    })
+                    .addOnFailureListener(e -> Log.e("Firestore", "Failed to release photo " + photoId + ": " + e));
+        }
+    }
+
+    /**
+     * Checks whether a photo was already uploaded, e.g. for another item
+     * @param photoId The photo's id
+     * @return A task resulting in true if the photo is in Cloud Storage. It results in false
+     * when the photo is missing or cannot be checked, so the photo is uploaded again.
+     */
+    public Task<Boolean> isUploaded(String photoId) {
+        return getImageRef(photoId).getMetadata().continueWith(task -> {
+            if (task.isSuccessful()) return true;
+            Exception e = task.getException();
+            if (!(e instanceof StorageException)
+                    || ((StorageException) e).getErrorCode() != StorageException.ERROR_OBJECT_NOT_FOUND) {
+                Log.w("IMAGE_UPLOAD", "Could not check for photo " + photoId + ": " + e);
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Counts how often each id occurs, keeping the order they first occur in
+     * @param photoIds The ids to count
+     * @return The number of occurrences by id
+     */
+    private static Map<String, Integer> countIds(Collection<String> photoIds) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (String photoId : photoIds) {
+            Integer count = counts.get(photoId);
+            counts.put(photoId, count == null ? 1 : count + 1);
+        }
+        return counts;
+    }
+
+    /**
+     * Records that the unmodified photo is uploaded alongside a photo, so it is deleted along
+     * with the photo
+     * @param photoId The photo's id
+     * @return A task that completes once the original is recorded
+     */
+    public Task<Void> recordOriginal(String photoId) {
+        FirestoreMetrics.count("Photos", FirestoreMetrics.Operation.WRITE, 1);
+        return photoRef.document(photoId).set(Collections.singletonMap(ORIGINAL, true), SetOptions.merge());
+    }
+
+    /**
+     * Deletes a photo and the files uploaded alongside it from Cloud Storage, then its
+     * reference count, unless the photo was acquired again meanwhile
+     * @param photoId     The photo's id
+     * @param hasOriginal Whether the unmodified photo was uploaded alongside it
+     */
+    private void deletePhoto(String photoId, boolean hasOriginal) {
+        List<Task<Void>> deletions = new ArrayList<>();
+        deletions.add(deleteImage(photoId));
+        deletions.add(deleteImage(photoId + ImageCompressor.THUMBNAIL_SUFFIX));
+        if (hasOriginal) {
+            deletions.add(deleteImage(photoId + ImageCompressor.ORIGINAL_SUFFIX));
+        }
+        DocumentReference countRef = photoRef.document(photoId);
+        Tasks.whenAllComplete(deletions).addOnCompleteListener(unused -> {
+            FirestoreMetrics.count("Photos", FirestoreMetrics.Operation.WRITE, 1);
+            photoRef.getFirestore().runTransaction(transaction -> {
+                DocumentSnapshot snapshot = transaction.get(countRef);
+                Long references = snapshot.getLong(REFERENCES);
+                if (references == null || references == 0) {
+                    transaction.delete(countRef);
+                } else if (snapshot.contains(DELETING_SINCE)) {
+                    transaction.update(countRef, DELETING_SINCE, FieldValue.delete());
+                }
+                return null;
+            }).addOnFailureListener(e -> Log.e("Firestore", "Failed to remove photo count " + photoId + ": " + e));
+        });
+    }
+
+    private Task<Void> deleteImage(String imageId) {
+        StorageReference imageRef = getImageRef(imageId);
+        return imageRef.delete()
+                .addOnSuccessListener(taskSnapshot -> Log.d("IMAGE_DELETE", "Successfully removed image from: " + imageRef))
+                .addOnFailureListener(e -> Log.e("IMAGE_DELETE", "Failed to delete image from Cloud Storage: " + e));
+    }
+}
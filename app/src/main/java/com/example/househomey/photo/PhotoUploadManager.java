@@ -0,0 +1,602 @@
+package com.example.househomey.photo;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.example.househomey.item.ItemBatchWriter;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.storage.FirebaseStorage;
+import com.google.firebase.storage.StorageException;
+import com.google.firebase.storage.StorageMetadata;
+import com.google.firebase.storage.StorageReference;
+import com.google.firebase.storage.UploadTask;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Uploads the photos of one or more items to Cloud Storage and then writes the items to
+ * Firestore, so an item never refers to a photo that is not uploaded yet. At most {@link #MAX_PARALLEL_UPLOADS}
+ * files are uploaded at once; a failed upload is retried with exponential backoff, resuming
+ * its upload session where possible. Photos that are already uploaded, e.g. for another item,
+ * are not uploaded again.
+ * <p>
+ * Photos are compressed into files in app storage before uploading. The pending uploads, their
+ * session URIs and the items to write are saved in shared preferences, so an upload that was
+ * interrupted by the process dying is resumed by {@link #resumePending()} on the next launch.
+ * While a screen is showing the upload, it is notified through a {@link Listener} and writes the
+ * items itself; once the screen is gone, the manager writes the saved item data.
+ * All methods must be called on the main thread.
+ */
+public class PhotoUploadManager {
+    private static final String TAG = "PhotoUploadManager";
+    public static final int MAX_PARALLEL_UPLOADS = 3;
+    public static final int MAX_ATTEMPTS = 5;
+    public static final long INITIAL_BACKOFF_MILLIS = 1000;
+    public static final long MAX_BACKOFF_MILLIS = 30000;
+    private static final String PREFERENCES_NAME = "photo_uploads";
+    private static PhotoUploadManager instance;
+
+    // Compressed photos are written to files off the main thread
+    private static final Executor FILE_EXECUTOR = Executors.newSingleThreadExecutor();
+
+    private final Context context;
+    private final SharedPreferences preferences;
+    private final File directory;
+    private ImageCompressor compressor = new ImageCompressor();
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Random random = new Random();
+    private final Map<String, Batch> batches = new HashMap<>();
+    private final ArrayDeque<Upload> queue = new ArrayDeque<>();
+    private int activeUploads = 0;
+
+    /**
+     * Gets the app's upload manager, creating it if needed
+     * @param context Any context of the app
+     * @return The shared upload manager
+     */
+    public static PhotoUploadManager getInstance(Context context) {
+        if (instance == null) {
+            instance = new PhotoUploadManager(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private PhotoUploadManager(Context context) {
+        this.context = context;
+        this.preferences = context.getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+        this.directory = new File(context.getNoBackupFilesDir(), "photo_uploads");
+    }
+
+    /**
+     * Compresses and uploads an item's new photos, along with their thumbnails, then lets the
+     * listener write the item. The item takes a reference to each photo, and photos already
+     * uploaded for another item are not uploaded again.
+     * @param itemDocument The document the item is written to once every photo is uploaded
+     * @param itemData     The item's data, including the ids of the new photos
+     * @param photos       The local URI of each new photo, by the photo id it is uploaded as
+     * @param references   The reference counts of the user's photos
+     * @param listener     Notified of the progress and the result of the upload
+     * @return The id of the upload, for {@link #removeListener(String)}
+     */
+    public String upload(DocumentReference itemDocument, Map<String, Object> itemData, Map<String, Uri> photos,
+                         PhotoReferences references, Listener listener) {
+        return upload(Collections.singletonMap(itemDocument, itemData), photos, references, listener);
+    }
+
+    /**
+     * Compresses and uploads the new photos of several items, e.g. ones created together from
+     * a shelf scan, then lets the listener write the items. Each photo is uploaded once, however
+     * many of the items show it, and each item takes its own reference to it.
+     * @param items      The data of each item, including the ids of its photos, by the
+     *                   document it is written to once every photo is uploaded
+     * @param photos     The local URI of each new photo, by the photo id it is uploaded as
+     * @param references The reference counts of the user's photos
+     * @param listener   Notified of the progress and the result of the upload
+     * @return The id of the upload, for {@link #removeListener(String)}
+     */
+    public String upload(Map<DocumentReference, Map<String, Object>> items, Map<String, Uri> photos,
+                         PhotoReferences references, Listener listener) {
+        Map<String, Map<String, Object>> itemsByPath = new LinkedHashMap<>();
+        List<String> photoIds = new ArrayList<>();
+        for (Map.Entry<DocumentReference, Map<String, Object>> item : items.entrySet()) {
+            itemsByPath.put(item.getKey().getPath(), item.getValue());
+            Object itemPhotoIds = item.getValue().get("photoIds");
+            if (itemPhotoIds instanceof List) {
+                for (Object photoId : new LinkedHashSet<>((List<?>) itemPhotoIds)) {
+                    if (photos.containsKey(photoId)) photoIds.add((String) photoId);
+                }
+            }
+        }
+        // The compressor is read once, so every photo of the batch is treated alike
+        ImageCompressor compressor = this.compressor;
+        Batch batch = new Batch(UUID.randomUUID().toString(), itemsByPath, references, photoIds);
+        batch.keepOriginals = compressor.keepsOriginals();
+        batch.listener = listener;
+        batches.put(batch.id, batch);
+        // Referenced before checking for uploaded photos, so another item cannot delete a
+        // shared photo between the check and the items being written
+        Task<Void> acquired = references.acquire(batch.photoIds).onSuccessTask(unused -> {
+            batch.acquired = true;
+            return Tasks.forResult(null);
+        });
+
+        List<Task<List<Upload>>> stagings = new ArrayList<>();
+        for (Map.Entry<String, Uri> photo : photos.entrySet()) {
+            String photoId = photo.getKey();
+            StorageReference imageRef = references.getImageRef(photoId);
+            stagings.add(acquired.onSuccessTask(unused -> references.isUploaded(photoId)).onSuccessTask(uploaded -> {
+                if (uploaded) {
+                    Log.d(TAG, "Photo " + photoId + " is already uploaded");
+                    return Tasks.forResult(Collections.<Upload>emptyList());
+                }
+                // The original is recorded before it is uploaded, so it is never left behind
+                Task<Void> recorded = batch.keepOriginals
+                        ? references.recordOriginal(photoId) : Tasks.forResult(null);
+                return recorded
+                        .onSuccessTask(unused -> compressor.compressAsync(context.getContentResolver(), photo.getValue()))
+                        .onSuccessTask(FILE_EXECUTOR, result -> {
+                            Log.d(TAG, "Compressed image: " + result);
+                            List<Upload> uploads = new ArrayList<>();
+                            uploads.add(new Upload(batch, imageRef.getPath(),
+                                    writeFile(result.getBytes()), compressor.getContentType()));
+                            uploads.add(new Upload(batch, imageRef.getPath() + ImageCompressor.THUMBNAIL_SUFFIX,
+                                    writeFile(result.getThumbnailBytes()), compressor.getContentType()));
+                            if (batch.keepOriginals) {
+                                uploads.add(new Upload(batch, imageRef.getPath() + ImageCompressor.ORIGINAL_SUFFIX,
+                                        copyFile(photo.getValue()), null));
+                            }
+                            return Tasks.forResult(uploads);
+                        });
+            }));
+        }
+        Tasks.<List<Upload>>whenAllSuccess(stagings)
+                .addOnSuccessListener(stagedUploads -> {
+                    for (List<Upload> uploads : stagedUploads) {
+                        batch.uploads.addAll(uploads);
+                    }
+                    save(batch);
+                    enqueue(batch);
+                    if (batch.uploads.isEmpty()) {
+                        complete(batch);
+                    } else {
+                        startUploads();
+                    }
+                })
+                .addOnFailureListener(e -> {
+                    // Some photos may have been staged already
+                    for (Task<List<Upload>> staging : stagings) {
+                        if (staging.isSuccessful()) batch.uploads.addAll(staging.getResult());
+                    }
+                    fail(batch, e);
+                });
+        return batch.id;
+    }
+
+    /**
+     * Sets the compressor for photos uploaded from now on, e.g. after the photo settings change
+     * @param compressor The compressor to use
+     */
+    public void setCompressor(ImageCompressor compressor) {
+        this.compressor = compressor;
+    }
+
+    /**
+     * Stops notifying the listener of an upload, e.g. when its form is closed. The upload
+     * continues, and the manager writes the items once it completes.
+     * @param batchId The id returned by {@link #upload}
+     */
+    public void removeListener(String batchId) {
+        Batch batch = batches.get(batchId);
+        if (batch != null) batch.listener = null;
+    }
+
+    /**
+     * Restarts the uploads that were saved by a previous process, resuming their sessions
+     */
+    public void resumePending() {
+        for (Map.Entry<String, ?> entry : preferences.getAll().entrySet()) {
+            if (batches.containsKey(entry.getKey())) continue;
+            try {
+                Batch batch = Batch.fromJson(entry.getKey(), new JSONObject((String) entry.getValue()));
+                batches.put(batch.id, batch);
+                enqueue(batch);
+                Log.i(TAG, "Resuming " + batch.uploads.size() + " uploads for " + batch.items.keySet());
+                if (batch.uploads.isEmpty()) complete(batch);
+            } catch (JSONException | ClassCastException e) {
+                Log.e(TAG, "Dropping unreadable upload " + entry.getKey(), e);
+                preferences.edit().remove(entry.getKey()).apply();
+            }
+        }
+        startUploads();
+    }
+
+    /**
+     * Computes how long to wait before retrying an upload: exponential backoff with
+     * jitter over the upper half, so uploads that failed together do not retry together
+     * @param attempt The number of attempts that failed so far, at least 1
+     * @param random  The source of the jitter
+     * @return The delay in milliseconds
+     */
+    public static long computeBackoff(int attempt, Random random) {
+        long ceiling = Math.min(MAX_BACKOFF_MILLIS, INITIAL_BACKOFF_MILLIS << Math.min(attempt - 1, 30));
+        return ceiling / 2 + (long) (random.nextDouble() * (ceiling / 2));
+    }
+
+    /**
+     * Queues every upload of a batch
+     * @param batch The batch to upload
+     */
+    private void enqueue(Batch batch) {
+        for (Upload upload : batch.uploads) {
+            batch.totalBytes += upload.file.length();
+            queue.add(upload);
+        }
+    }
+
+    /**
+     * Starts queued uploads until the parallelism limit is reached
+     */
+    private void startUploads() {
+        while (activeUploads < MAX_PARALLEL_UPLOADS && !queue.isEmpty()) {
+            Upload upload = queue.poll();
+            if (upload.batch.failed) continue;
+            activeUploads++;
+            start(upload);
+        }
+    }
+
+    /**
+     * Starts or resumes one upload
+     * @param upload The upload to start
+     */
+    private void start(Upload upload) {
+        StorageReference ref = FirebaseStorage.getInstance().getReference(upload.path);
+        StorageMetadata.Builder metadata = new StorageMetadata.Builder();
+        if (upload.contentType != null) metadata.setContentType(upload.contentType);
+        Uri file = Uri.fromFile(upload.file);
+        UploadTask task = upload.sessionUri == null
+                ? ref.putFile(file, metadata.build())
+                : ref.putFile(file, metadata.build(), Uri.parse(upload.sessionUri));
+        task.addOnProgressListener(snapshot -> {
+                    Uri sessionUri = snapshot.getUploadSessionUri();
+                    if (sessionUri != null && upload.sessionUri == null) {
+                        upload.sessionUri = sessionUri.toString();
+                        save(upload.batch);
+                    }
+                    upload.bytesTransferred = snapshot.getBytesTransferred();
+                    notifyProgress(upload.batch);
+                })
+                .addOnSuccessListener(snapshot -> {
+                    activeUploads--;
+                    Batch batch = upload.batch;
+                    upload.bytesTransferred = upload.file.length();
+                    batch.uploads.remove(upload);
+                    batch.uploadedBytes += upload.file.length();
+                    if (!upload.file.delete()) Log.w(TAG, "Could not delete " + upload.file);
+                    save(batch);
+                    notifyProgress(batch);
+                    if (batch.uploads.isEmpty()) complete(batch);
+                    startUploads();
+                })
+                .addOnFailureListener(e -> {
+                    activeUploads--;
+                    retry(upload, e);
+                    startUploads();
+                });
+    }
+
+    /**
+     * Retries a failed upload after a backoff, or fails its batch once it ran out of attempts
+     * @param upload The upload that failed
+     * @param e      The reason it failed
+     */
+    private void retry(Upload upload, Exception e) {
+        Log.w(TAG, "Upload to " + upload.path + " failed: " + e);
+        if (upload.sessionUri != null && e instanceof StorageException
+                && ((StorageException) e).getHttpResultCode() / 100 == 4) {
+            // The session expired or was rejected, so the upload restarts from the beginning
+            upload.sessionUri = null;
+            save(upload.batch);
+        }
+        upload.attempts++;
+        if (upload.attempts >= MAX_ATTEMPTS) {
+            fail(upload.batch, e);
+            return;
+        }
+        handler.postDelayed(() -> {
+            if (upload.batch.failed) return;
+            queue.add(upload);
+            startUploads();
+        }, computeBackoff(upload.attempts, random));
+    }
+
+    /**
+     * Writes the items once all of their photos are uploaded. Firestore keeps the writes until
+     * they reach the server, so the saved upload is no longer needed.
+     * @param batch The upload that completed
+     */
+    private void complete(Batch batch) {
+        batches.remove(batch.id);
+        preferences.edit().remove(batch.id).apply();
+        if (batch.listener != null) {
+            batch.listener.onPhotosUploaded();
+            return;
+        }
+        Map<DocumentReference, Map<String, Object>> items = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, Object>> item : batch.items.entrySet()) {
+            items.put(FirebaseFirestore.getInstance().document(item.getKey()), item.getValue());
+        }
+        ItemBatchWriter.write(items, "Photo Uploads")
+                .addOnFailureListener(e -> Log.e("Firestore", "Failed to write items " + batch.items.keySet() + ": " + e));
+    }
+
+    /**
+     * Gives up on an upload, deleting its compressed files
+     * @param batch The upload that failed
+     * @param e     The reason it failed
+     */
+    private void fail(Batch batch, Exception e) {
+        if (batch.failed) return;
+        Log.e(TAG, "Failed to upload photos for " + batch.items.keySet(), e);
+        batch.failed = true;
+        batches.remove(batch.id);
+        preferences.edit().remove(batch.id).apply();
+        for (Upload upload : batch.uploads) {
+            if (!upload.file.delete()) Log.w(TAG, "Could not delete " + upload.file);
+        }
+        // The items are not written, so their references are dropped along with any photo only they used
+        if (batch.acquired) batch.references.release(batch.photoIds);
+        if (batch.listener != null) batch.listener.onUploadFailed(e);
+    }
+
+    private void notifyProgress(Batch batch) {
+        if (batch.listener == null) return;
+        long transferred = batch.uploadedBytes;
+        for (Upload upload : batch.uploads) {
+            transferred += upload.bytesTransferred;
+        }
+        batch.listener.onUploadProgress(transferred, batch.totalBytes);
+    }
+
+    /**
+     * Saves the remaining uploads of a batch, so they can be resumed by a later process
+     * @param batch The batch to save
+     */
+    private void save(Batch batch) {
+        if (batch.failed) return;
+        try {
+            preferences.edit().putString(batch.id, batch.toJson().toString()).apply();
+        } catch (JSONException e) {
+            Log.e(TAG, "Could not save upload " + batch.id, e);
+        }
+    }
+
+    /**
+     * Writes compressed bytes to a new file in app storage
+     * @param bytes The bytes to write
+     * @return The written file
+     */
+    private File writeFile(byte[] bytes) throws IOException {
+        File file = createFile();
+        try (FileOutputStream output = new FileOutputStream(file)) {
+            output.write(bytes);
+        }
+        return file;
+    }
+
+    /**
+     * Copies an unmodified photo to a new file in app storage, since the picked URI may not be
+     * readable by a later process
+     * @param uri The URI of the photo
+     * @return The written file
+     */
+    private File copyFile(Uri uri) throws IOException {
+        File file = createFile();
+        try (InputStream input = context.getContentResolver().openInputStream(uri);
+             FileOutputStream output = new FileOutputStream(file)) {
+            if (input == null) throw new FileNotFoundException(uri.toString());
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+        }
+        return file;
+    }
+
+    private File createFile() throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+        return new File(directory, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Receives the progress and result of an upload on the main thread
+     */
+    public interface Listener {
+        /**
+         * Called as bytes are uploaded
+         * @param bytesTransferred The bytes uploaded so far, over every photo
+         * @param totalBytes       The bytes to upload in total
+         */
+        void onUploadProgress(long bytesTransferred, long totalBytes);
+
+        /**
+         * Called once every photo is uploaded. The items should be written now.
+         */
+        void onPhotosUploaded();
+
+        /**
+         * Called when a photo could not be compressed or uploaded after every retry
+         * @param e The last error
+         */
+        void onUploadFailed(Exception e);
+    }
+
+    /**
+     * The uploads of the new photos of some items and the items to write after them
+     */
+    private static class Batch {
+        final String id;
+        final Map<String, Map<String, Object>> items;
+        final PhotoReferences references;
+        final List<String> photoIds;
+        final List<Upload> uploads = new ArrayList<>();
+        Listener listener;
+        long totalBytes = 0;
+        long uploadedBytes = 0;
+        boolean failed = false;
+        boolean keepOriginals = false;
+        // Whether the items hold their references, which is always so once the batch is saved
+        boolean acquired = false;
+
+        Batch(String id, Map<String, Map<String, Object>> items, PhotoReferences references,
+              List<String> photoIds) {
+            this.id = id;
+            this.items = items;
+            this.references = references;
+            this.photoIds = photoIds;
+        }
+
+        JSONObject toJson() throws JSONException {
+            JSONArray uploadsJson = new JSONArray();
+            for (Upload upload : uploads) {
+                uploadsJson.put(new JSONObject()
+                        .put("path", upload.path)
+                        .put("file", upload.file.getPath())
+                        .put("contentType", upload.contentType)
+                        .put("session", upload.sessionUri));
+            }
+            JSONArray itemsJson = new JSONArray();
+            for (Map.Entry<String, Map<String, Object>> item : items.entrySet()) {
+                itemsJson.put(new JSONObject()
+                        .put("path", item.getKey())
+                        .put("data", encodeData(item.getValue())));
+            }
+            return new JSONObject()
+                    .put("items", itemsJson)
+                    .put("photoRef", references.getPhotoRef().getPath())
+                    .put("imageFolder", references.getImageFolder().getPath())
+                    .put("photoIds", new JSONArray(photoIds))
+                    .put("keepOriginals", keepOriginals)
+                    .put("uploads", uploadsJson);
+        }
+
+        static Batch fromJson(String id, JSONObject json) throws JSONException {
+            PhotoReferences references = new PhotoReferences(
+                    FirebaseFirestore.getInstance().collection(json.getString("photoRef")),
+                    FirebaseStorage.getInstance().getReference(json.getString("imageFolder")));
+            Map<String, Map<String, Object>> items = new LinkedHashMap<>();
+            JSONArray itemsJson = json.getJSONArray("items");
+            for (int i = 0; i < itemsJson.length(); i++) {
+                JSONObject itemJson = itemsJson.getJSONObject(i);
+                items.put(itemJson.getString("path"), decodeData(itemJson.getJSONObject("data")));
+            }
+            Batch batch = new Batch(id, items, references, decodeList(json.getJSONArray("photoIds")));
+            batch.acquired = true;
+            batch.keepOriginals = json.optBoolean("keepOriginals", false);
+            JSONArray uploadsJson = json.getJSONArray("uploads");
+            for (int i = 0; i < uploadsJson.length(); i++) {
+                JSONObject uploadJson = uploadsJson.getJSONObject(i);
+                Upload upload = new Upload(batch, uploadJson.getString("path"),
+                        new File(uploadJson.getString("file")), uploadJson.optString("contentType", null));
+                upload.sessionUri = uploadJson.optString("session", null);
+                batch.uploads.add(upload);
+            }
+            return batch;
+        }
+
+        /**
+         * Encodes item data as JSON. Timestamps are stored as milliseconds in a nested object.
+         */
+        private static JSONObject encodeData(Map<String, Object> data) throws JSONException {
+            JSONObject json = new JSONObject();
+            for (Map.Entry<String, Object> entry : data.entrySet()) {
+                Object value = entry.getValue();
+                if (value instanceof Timestamp) {
+                    value = new JSONObject().put("timestamp", ((Timestamp) value).toDate().getTime());
+                } else if (value instanceof List) {
+                    value = new JSONArray((List<?>) value);
+                }
+                json.put(entry.getKey(), value);
+            }
+            return json;
+        }
+
+        private static List<String> decodeList(JSONArray array) throws JSONException {
+            List<String> list = new ArrayList<>();
+            for (int i = 0; i < array.length(); i++) {
+                list.add(array.getString(i));
+            }
+            return list;
+        }
+
+        private static Map<String, Object> decodeData(JSONObject json) throws JSONException {
+            Map<String, Object> data = new LinkedHashMap<>();
+            for (Iterator<String> keys = json.keys(); keys.hasNext(); ) {
+                String key = keys.next();
+                Object value = json.get(key);
+                if (value instanceof JSONObject) {
+                    value = new Timestamp(new Date(((JSONObject) value).getLong("timestamp")));
+                } else if (value instanceof JSONArray) {
+                    value = decodeList((JSONArray) value);
+                } else if (value instanceof Integer) {
+                    value = ((Integer) value).longValue();
+                }
+                data.put(key, value);
+            }
+            return data;
+        }
+    }
+
+    /**
+     * One file being uploaded to Cloud Storage
+     */
+    private static class Upload {
+        final Batch batch;
+        final String path;
+        final File file;
+        final String contentType;
+        String sessionUri;
+        long bytesTransferred = 0;
+        int attempts = 0;
+
+        Upload(Batch batch, String path, File file, String contentType) {
+            this.batch = batch;
+            this.path = path;
+            this.file = file;
+            this.contentType = contentType;
+        }
+    }
+}
@@ -10,14 +10,9 @@ import androidx.annotation.NonNull;
 
 import com.google.android.gms.tasks.OnFailureListener;
 import com.google.android.gms.tasks.OnSuccessListener;
-import com.google.android.gms.tasks.Task;
-import com.google.mlkit.vision.barcode.BarcodeScanner;
-import com.google.mlkit.vision.barcode.BarcodeScannerOptions;
-import com.google.mlkit.vision.barcode.BarcodeScanning;
 import com.google.mlkit.vision.barcode.common.Barcode;
-import com.google.mlkit.vision.common.InputImage;
 
-import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -28,17 +23,19 @@ import java.util.List;
  */
 public class BarcodeImageScanner extends ImageScanner{
 
-    private InputImage image;
     private final Context context;
+    private final ScannerService scannerService;
     private final OnBarcodeScannedListener listener;
 
     /**
      * Constructs a new BarcodeImageScanner
      * @param context context of this scanner
+     * @param scannerService service holding the barcode scanner to use
      * @param listener listener that handles the action when barcode is scanned
      */
-    public BarcodeImageScanner(Context context, OnBarcodeScannedListener listener) {
+    public BarcodeImageScanner(Context context, ScannerService scannerService, OnBarcodeScannedListener listener) {
         this.context = context;
+        this.scannerService = scannerService;
         this.listener = listener;
 
     }
@@ -49,17 +46,11 @@ public class BarcodeImageScanner extends ImageScanner{
      */
     @Override
     public void scanImage(String imageUri) {
-        try {
-            image = InputImage.fromFilePath(context, Uri.parse(imageUri));
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-        BarcodeScanner scanner = BarcodeScanning.getClient();
-        Task<List<Barcode>> result = scanner.process(image)
+        scannerService.scanBarcodes(Uri.parse(imageUri))
                 .addOnSuccessListener(new OnSuccessListener<List<Barcode>>() {
                     @Override
                     public void onSuccess(List<Barcode> barcodes) {
-                        selectProductInfoFromBarcode(barcodes,context);
+                        selectProductInfoFromBarcode(barcodes,context,imageUri);
                     }
                 })
                 .addOnFailureListener(new OnFailureListener() {
@@ -75,12 +66,14 @@ public class BarcodeImageScanner extends ImageScanner{
     }
 
     /**
-     * Ensures that only 1 barcode was scanned and extracts the value encoded into the barcode
+     * Extracts the value encoded into the barcode if only 1 barcode was scanned
      * Depending on the value type, lets user set it as either item description or Serial Number
+     * If several barcodes were scanned, offers to add an item for each of them instead
      * @param barcodes List of barcodes detected and scanned by the scanner
      * @param context context in which the scanner is being used in the app
+     * @param imageUri the scanned image
      */
-    private void selectProductInfoFromBarcode(List<Barcode> barcodes, Context context) {
+    private void selectProductInfoFromBarcode(List<Barcode> barcodes, Context context, String imageUri) {
         if (barcodes.size() == 0) {
             Toast.makeText(context.getApplicationContext(),
                     ("No barcodes were detected. Please use a different image."),
@@ -117,9 +110,16 @@ public class BarcodeImageScanner extends ImageScanner{
 
         }
         else {
-            Toast.makeText(context.getApplicationContext(),
-                    ("Multiple barcodes detected. Please choose an image with one barcode."),
-                    Toast.LENGTH_LONG).show();
+            new AlertDialog.Builder(context)
+                    .setTitle("Multiple barcodes detected")
+                    .setMessage("Add a new item for each barcode instead?")
+                    .setPositiveButton("YES",(dialog,which)->{
+                        new ShelfScanner(context, scannerService).offerItems(ShelfScanner.collectValues(
+                                Collections.singletonList(Uri.parse(imageUri)),
+                                Collections.singletonList(ShelfScanner.displayValues(barcodes))));
+                    })
+                    .setNegativeButton("NO", null)
+                    .show();
         }
     }
 
@@ -0,0 +1,240 @@
+package com.example.househomey.scanner;
+
+import android.Manifest;
+import android.content.pm.PackageManager;
+import android.media.Image;
+import android.os.Bundle;
+import android.util.Log;
+import android.util.Size;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
+import androidx.annotation.NonNull;
+import androidx.annotation.OptIn;
+import androidx.camera.core.CameraSelector;
+import androidx.camera.core.ExperimentalGetImage;
+import androidx.camera.core.ImageAnalysis;
+import androidx.camera.core.ImageProxy;
+import androidx.camera.core.Preview;
+import androidx.camera.core.resolutionselector.ResolutionSelector;
+import androidx.camera.core.resolutionselector.ResolutionStrategy;
+import androidx.camera.lifecycle.ProcessCameraProvider;
+import androidx.camera.view.PreviewView;
+import androidx.core.content.ContextCompat;
+import androidx.fragment.app.DialogFragment;
+import androidx.fragment.app.Fragment;
+
+import com.example.househomey.R;
+import com.google.android.gms.tasks.Task;
+import com.google.android.material.button.MaterialButtonToggleGroup;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.mlkit.vision.barcode.common.Barcode;
+import com.google.mlkit.vision.common.InputImage;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A full screen camera view that reads a barcode or serial number live, without taking a photo.
+ * Camera frames are passed to the form's warmed-up detectors as they arrive. Frames that arrive
+ * while a detection is running are dropped, so the preview never lags behind the detectors.
+ * Once the same value is read from {@link #STABLE_FRAMES} frames in a row, it is filled into
+ * the form and the camera closes.
+ * @see ScannerService
+ */
+public class LiveScanDialog extends DialogFragment {
+    private static final String TAG = "LiveScanDialog";
+    /**
+     * The number of consecutive frames a value must be read from before it is used
+     */
+    public static final int STABLE_FRAMES = 3;
+    // Frames a bit larger than the barcode target are enough for both detectors
+    private static final Size TARGET_RESOLUTION = new Size(1280, 720);
+
+    private final ExecutorService analysisExecutor = Executors.newSingleThreadExecutor();
+    private final StableResultFilter filter = new StableResultFilter(STABLE_FRAMES);
+    private ActivityResultLauncher<String> permissionLauncher;
+    private ScannerService scannerService;
+    private PreviewView previewView;
+    private TextView hintView;
+    private volatile boolean serialNumberMode = false;
+    private boolean finished = false;
+    private long startNanos;
+    private int frameCount = 0;
+
+    /**
+     * Makes the dialog full screen and prepares the camera permission request
+     * @param savedInstanceState If non-null, this fragment is being re-constructed
+     *                           from a previous saved state as given here.
+     */
+    @Override
+    public void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setStyle(STYLE_NO_TITLE, android.R.style.Theme_Black_NoTitleBar_Fullscreen);
+        permissionLauncher = registerForActivityResult(new ActivityResultContracts.RequestPermission(), granted -> {
+            if (granted) {
+                startCamera();
+            } else {
+                Toast.makeText(requireContext().getApplicationContext(),
+                        "Camera permission is needed to scan live.",
+                        Toast.LENGTH_SHORT).show();
+                dismiss();
+            }
+        });
+    }
+
+    /**
+     * Creates the camera preview and the barcode/serial number toggle
+     * @param inflater           The LayoutInflater object that can be used to inflate
+     *                           any views in the fragment,
+     * @param container          If non-null, this is the parent view that the fragment's
+     *                           UI should be attached to.
+     * @param savedInstanceState If non-null, this fragment is being re-constructed
+     *                           from a previous saved state as given here.
+     * @return The live scan view
+     */
+    @Override
+    public View onCreateView(@NonNull LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
+        View rootView = inflater.inflate(R.layout.dialog_live_scan, container, false);
+        previewView = rootView.findViewById(R.id.live_scan_preview);
+        hintView = rootView.findViewById(R.id.live_scan_hint);
+        rootView.findViewById(R.id.live_scan_close_button).setOnClickListener(v -> dismiss());
+        ((MaterialButtonToggleGroup) rootView.findViewById(R.id.live_scan_mode))
+                .addOnButtonCheckedListener((group, checkedId, isChecked) -> {
+                    if (!isChecked) return;
+                    serialNumberMode = checkedId == R.id.live_scan_serial_button;
+                    hintView.setText(serialNumberMode
+                            ? "Point the camera at the serial number"
+                            : "Point the camera at a barcode");
+                    filter.reset();
+                });
+
+        Fragment parent = requireParentFragment();
+        if (parent instanceof ScannerService.Provider) {
+            scannerService = ((ScannerService.Provider) parent).getScannerService();
+        } else {
+            throw new ClassCastException(parent + " must implement ScannerService.Provider");
+        }
+        return rootView;
+    }
+
+    /**
+     * Starts the camera, asking for permission first if needed
+     * @param view               The view returned by onCreateView.
+     * @param savedInstanceState If non-null, this fragment is being re-constructed
+     *                           from a previous saved state as given here.
+     */
+    @Override
+    public void onViewCreated(@NonNull View view, Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+        if (ContextCompat.checkSelfPermission(requireContext(), Manifest.permission.CAMERA)
+                == PackageManager.PERMISSION_GRANTED) {
+            startCamera();
+        } else {
+            permissionLauncher.launch(Manifest.permission.CAMERA);
+        }
+    }
+
+    /**
+     * Stops the frame analysis thread once the dialog is closed
+     */
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        analysisExecutor.shutdown();
+    }
+
+    /**
+     * Binds the preview and the frame analysis to the camera for as long as the view exists
+     */
+    private void startCamera() {
+        ListenableFuture<ProcessCameraProvider> providerFuture = ProcessCameraProvider.getInstance(requireContext());
+        providerFuture.addListener(() -> {
+            if (getView() == null) return;
+            ProcessCameraProvider provider;
+            try {
+                provider = providerFuture.get();
+            } catch (ExecutionException | InterruptedException e) {
+                Log.e(TAG, "Failed to open the camera", e);
+                dismiss();
+                return;
+            }
+            Preview preview = new Preview.Builder().build();
+            preview.setSurfaceProvider(previewView.getSurfaceProvider());
+            ImageAnalysis analysis = new ImageAnalysis.Builder()
+                    .setBackpressureStrategy(ImageAnalysis.STRATEGY_KEEP_ONLY_LATEST)
+                    .setResolutionSelector(new ResolutionSelector.Builder()
+                            .setResolutionStrategy(new ResolutionStrategy(TARGET_RESOLUTION,
+                                    ResolutionStrategy.FALLBACK_RULE_CLOSEST_HIGHER_THEN_LOWER))
+                            .build())
+                    .build();
+            analysis.setAnalyzer(analysisExecutor, this::analyze);
+            provider.unbindAll();
+            provider.bindToLifecycle(getViewLifecycleOwner(), CameraSelector.DEFAULT_BACK_CAMERA, preview, analysis);
+            startNanos = System.nanoTime();
+        }, ContextCompat.getMainExecutor(requireContext()));
+    }
+
+    /**
+     * Reads one camera frame. The frame is only closed once its detection completes, which is
+     * what makes the camera drop the frames that arrive meanwhile.
+     * @param frame The latest camera frame
+     */
+    @OptIn(markerClass = ExperimentalGetImage.class)
+    private void analyze(ImageProxy frame) {
+        Image mediaImage = frame.getImage();
+        if (mediaImage == null) {
+            frame.close();
+            return;
+        }
+        InputImage image = InputImage.fromMediaImage(mediaImage, frame.getImageInfo().getRotationDegrees());
+        boolean readSerialNumber = serialNumberMode;
+        Task<String> read = readSerialNumber
+                ? scannerService.scanText(image).continueWith(task -> SNImageScanner.selectBestLine(task.getResult()))
+                : scannerService.scanBarcodes(image).continueWith(task -> readBarcode(task.getResult()));
+        read.addOnCompleteListener(task -> {
+            frame.close();
+            if (task.isSuccessful() && readSerialNumber == serialNumberMode) {
+                onFrameRead(task.getResult());
+            }
+        });
+    }
+
+    /**
+     * Fills in the form once a value is read from enough consecutive frames
+     * @param value The value read from a frame, or null if nothing was read
+     */
+    private void onFrameRead(String value) {
+        if (finished) return;
+        frameCount++;
+        String result = filter.offer(value);
+        if (result == null) return;
+        finished = true;
+        Log.i(TAG, "Read " + (serialNumberMode ? "serial number" : "barcode") + " in "
+                + (System.nanoTime() - startNanos) / 1_000_000 + " ms over " + frameCount + " frames");
+
+        Fragment parent = getParentFragment();
+        if (serialNumberMode && parent instanceof SNImageScanner.OnImageScannedListener) {
+            ((SNImageScanner.OnImageScannedListener) parent).onSNScanningComplete(result);
+        } else if (!serialNumberMode && parent instanceof BarcodeImageScanner.OnBarcodeScannedListener) {
+            ((BarcodeImageScanner.OnBarcodeScannedListener) parent).onBarcodeOKPressed(result);
+        }
+        dismiss();
+    }
+
+    /**
+     * Reads the value of the only barcode in a frame
+     * @param barcodes The barcodes detected in the frame
+     * @return The barcode's value, or null if the frame has no or several barcodes
+     */
+    private static String readBarcode(List<Barcode> barcodes) {
+        return barcodes.size() == 1 ? barcodes.get(0).getDisplayValue() : null;
+    }
+}
@@ -4,18 +4,12 @@ import android.app.AlertDialog;
 import android.content.Context;
 import android.net.Uri;
 import android.util.Log;
+import android.widget.Toast;
 
-import com.google.mlkit.vision.common.InputImage;
 import com.google.mlkit.vision.text.Text;
-import com.google.mlkit.vision.text.TextRecognition;
-import com.google.mlkit.vision.text.TextRecognizer;
-import com.google.mlkit.vision.text.latin.TextRecognizerOptions;
 
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * A class for handling the scanning of serial numbers and updating item information accordingly
@@ -24,6 +18,7 @@ import java.util.regex.Pattern;
  */
 public class SNImageScanner extends ImageScanner {
     private Context context;
+    private ScannerService scannerService;
     private OnImageScannedListener listener;
 
     /**
@@ -36,11 +31,13 @@ public class SNImageScanner extends ImageScanner {
     /**
      * Constructs a new SNImageScanner
      *
-     * @param context  The context of this scanner
-     * @param listener The listener to notify when scanning complete
+     * @param context        The context of this scanner
+     * @param scannerService The service holding the text recognizer to use
+     * @param listener       The listener to notify when scanning complete
      */
-    public SNImageScanner(Context context, OnImageScannedListener listener) {
+    public SNImageScanner(Context context, ScannerService scannerService, OnImageScannedListener listener) {
         this.context = context;
+        this.scannerService = scannerService;
         this.listener = listener;
     }
 
@@ -51,13 +48,16 @@ public class SNImageScanner extends ImageScanner {
      */
     @Override
     public void scanImage(String imageUri) {
-        TextRecognizer recognizer =
-                TextRecognition.getClient(TextRecognizerOptions.DEFAULT_OPTIONS);
-        try {
-            recognizer.process(InputImage.fromFilePath(context, Uri.parse(imageUri)))
-                    .addOnSuccessListener(visionText -> {
-                        String resultText = selectBestLine(visionText);
-                        Log.i("Scanner", resultText);
+        scannerService.scanText(Uri.parse(imageUri))
+                .addOnSuccessListener(visionText -> {
+                    List<String> candidates = selectBestLines(visionText, SerialNumberExtractor.DEFAULT_CANDIDATES);
+                    Log.i("Scanner", candidates.toString());
+                    if (candidates.isEmpty()) {
+                        Toast.makeText(context.getApplicationContext(),
+                                "No serial number was detected. Please use a different image.",
+                                Toast.LENGTH_LONG).show();
+                    } else if (candidates.size() == 1) {
+                        String resultText = candidates.get(0);
                         new AlertDialog.Builder(context)
                                 .setTitle("Serial number scanned: ")
                                 .setMessage(resultText +
@@ -67,50 +67,60 @@ public class SNImageScanner extends ImageScanner {
                                 })
                                 .setNegativeButton("NO", null)
                                 .show();
-
-                    })
-                    .addOnFailureListener(
-                            e -> Log.e("Scanner", "Failed to load Image from local file"));
-        } catch (IOException e) {
-            Log.e("Scanner", "Failed to load Image from local file");
-        }
+                    } else {
+                        chooseCandidate(candidates);
+                    }
+                })
+                .addOnFailureListener(
+                        e -> Log.e("Scanner", "Failed to scan serial number: " + e));
     }
 
     /**
-     * Selects the best line from MLKit text by choosing the text with
-     * the most digits
+     * Lets the user pick the serial number out of the most likely candidates, most likely
+     * first, instead of scanning again when the first guess is wrong
      *
-     * @param text The MLKit text to select the number from
-     * @return the chosen serial number
+     * @param candidates The candidates to choose from
      */
-    private static String selectBestLine(Text text) {
-
-        String bestElement = "";
-        List<String> strings = new ArrayList<>();
-        Pattern pattern = Pattern.compile("\\d");
-        int maxTotalDigits = 0;
+    private void chooseCandidate(List<String> candidates) {
+        String[] choices = candidates.toArray(new String[0]);
+        int[] chosen = {0};
+        new AlertDialog.Builder(context)
+                .setTitle("Choose the serial number: ")
+                .setSingleChoiceItems(choices, 0, (dialog, which) -> chosen[0] = which)
+                .setPositiveButton("OK", (dialog, which) -> {
+                    listener.onSNScanningComplete(choices[chosen[0]]);
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
 
-        //Get all the text elements/words from the image as strings
+    /**
+     * Selects the most likely serial numbers from MLKit text
+     *
+     * @param text  The MLKit text to select the numbers from
+     * @param limit The most serial numbers to select
+     * @return the candidate serial numbers, most likely first
+     * @see SerialNumberExtractor
+     */
+    static List<String> selectBestLines(Text text, int limit) {
+        List<String> lines = new ArrayList<>();
         for (Text.TextBlock block : text.getTextBlocks()) {
             for (Text.Line line : block.getLines()) {
-                for (Text.Element element : line.getElements())
-                    strings.add(element.getText());
+                lines.add(line.getText());
             }
         }
+        return SerialNumberExtractor.extract(lines, limit);
+    }
 
-        //Select the string that has the most numbers in it
-        for (String str : strings) {
-            Matcher matcher = pattern.matcher(str);
-            int totalDigits = 0;
-            while (matcher.find()) {
-                totalDigits++;
-            }
-            if (totalDigits > maxTotalDigits) {
-                maxTotalDigits = totalDigits;
-                bestElement = str;
-            }
-        }
-        return bestElement;
+    /**
+     * Selects the most likely serial number from MLKit text
+     *
+     * @param text The MLKit text to select the number from
+     * @return the chosen serial number, or an empty string if none was found
+     */
+    static String selectBestLine(Text text) {
+        List<String> candidates = selectBestLines(text, 1);
+        return candidates.isEmpty() ? "" : candidates.get(0);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,170 @@
+package com.example.househomey.scanner;
+
+import android.content.ContentResolver;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Rect;
+import android.media.ExifInterface;
+import android.net.Uri;
+
+import androidx.annotation.Nullable;
+
+import com.example.househomey.photo.ImageCompressor;
+import com.google.mlkit.vision.common.InputImage;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Prepares photos for the ML Kit detectors. Rather than decoding the full photo to an ARGB
+ * bitmap, the photo is decoded with the subsampling that suits the detector, optionally only
+ * within a region of interest, and converted to a grayscale NV21 buffer. The detectors only look
+ * at luminance, so a 12 MP photo is handed over as a few megabytes instead of 48.
+ * @see ScannerService
+ */
+public final class ScanPreprocessor {
+    /**
+     * Length in pixels of the longer side barcodes are detected at. Barcodes need about two
+     * pixels per bar, which even a small barcode in a photo has at this size.
+     */
+    public static final int BARCODE_TARGET_DIMENSION = 1280;
+    /**
+     * Length in pixels of the longer side text is recognized at, keeping the small print of
+     * serial number labels above the size ML Kit can read
+     */
+    public static final int TEXT_TARGET_DIMENSION = 1920;
+    // Chroma of a gray pixel in NV21
+    private static final byte NEUTRAL_CHROMA = (byte) 128;
+
+    private ScanPreprocessor() {}
+
+    /**
+     * Decodes a photo into a grayscale image for detection
+     * @param resolver        Resolves the photo's URI
+     * @param uri             The URI of the photo
+     * @param targetDimension The smallest length in pixels the longer side is decoded at
+     * @param region          The region to detect in, in the pixels of the photo as stored
+     *                        (before its EXIF rotation), or null for the whole photo
+     * @return The image to pass to a detector
+     * @throws IOException if the photo cannot be read or decoded
+     */
+    public static InputImage preprocess(ContentResolver resolver, Uri uri, int targetDimension,
+                                        @Nullable Rect region) throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        try (InputStream input = open(resolver, uri)) {
+            BitmapFactory.decodeStream(input, null, options);
+        }
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            throw new IOException("Not an image: " + uri);
+        }
+        int rotation;
+        try (InputStream input = open(resolver, uri)) {
+            rotation = getRotationDegrees(new ExifInterface(input).getAttributeInt(
+                    ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL));
+        }
+
+        Rect bounds = new Rect(0, 0, options.outWidth, options.outHeight);
+        if (region != null && !bounds.intersect(region)) {
+            throw new IllegalArgumentException("Region " + region + " is outside the photo");
+        }
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = ImageCompressor.computeSampleSize(bounds.width(), bounds.height(), targetDimension);
+        // Half the memory of ARGB, and the colour is discarded anyway
+        options.inPreferredConfig = Bitmap.Config.RGB_565;
+
+        Bitmap bitmap;
+        try (InputStream input = open(resolver, uri)) {
+            if (region == null) {
+                bitmap = BitmapFactory.decodeStream(input, null, options);
+            } else {
+                BitmapRegionDecoder decoder = BitmapRegionDecoder.newInstance(input);
+                if (decoder == null) throw new IOException("Could not decode " + uri);
+                bitmap = decoder.decodeRegion(bounds, options);
+                decoder.recycle();
+            }
+        }
+        if (bitmap == null) throw new IOException("Could not decode " + uri);
+
+        // NV21 stores chroma for 2x2 blocks, so odd edges are dropped
+        int width = bitmap.getWidth() & ~1;
+        int height = bitmap.getHeight() & ~1;
+        byte[] nv21 = createNv21(width, height);
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            bitmap.getPixels(row, 0, width, 0, y, width, 1);
+            writeLuminanceRow(row, width, nv21, y * width);
+        }
+        bitmap.recycle();
+        return InputImage.fromByteArray(nv21, width, height, rotation, InputImage.IMAGE_FORMAT_NV21);
+    }
+
+    /**
+     * Allocates a gray NV21 buffer: a luminance plane followed by neutral interleaved chroma
+     * @param width  The width in pixels, which must be even
+     * @param height The height in pixels, which must be even
+     * @return The buffer, with the luminance plane still black
+     */
+    public static byte[] createNv21(int width, int height) {
+        int lumaSize = width * height;
+        byte[] nv21 = new byte[lumaSize + lumaSize / 2];
+        Arrays.fill(nv21, lumaSize, nv21.length, NEUTRAL_CHROMA);
+        return nv21;
+    }
+
+    /**
+     * Writes the luminance of a row of pixels into a buffer
+     * @param row    The row's pixels as ARGB
+     * @param width  The number of pixels to convert
+     * @param buffer The buffer to write to
+     * @param offset The index of the row's first pixel in the buffer
+     */
+    public static void writeLuminanceRow(int[] row, int width, byte[] buffer, int offset) {
+        for (int x = 0; x < width; x++) {
+            buffer[offset + x] = (byte) luminance(row[x]);
+        }
+    }
+
+    /**
+     * Computes the BT.601 luma of a pixel, as camera NV21 frames carry it
+     * @param argb The pixel as ARGB
+     * @return The luma, from 0 to 255
+     */
+    public static int luminance(int argb) {
+        int r = (argb >> 16) & 0xff;
+        int g = (argb >> 8) & 0xff;
+        int b = argb & 0xff;
+        return (77 * r + 150 * g + 29 * b + 128) >> 8;
+    }
+
+    /**
+     * Converts an EXIF orientation to the clockwise rotation that turns the photo upright.
+     * Detectors cannot mirror an image, so mirrored orientations get their nearest rotation.
+     * @param orientation The photo's EXIF orientation
+     * @return 0, 90, 180 or 270
+     */
+    private static int getRotationDegrees(int orientation) {
+        switch (orientation) {
+            case ExifInterface.ORIENTATION_ROTATE_90:
+            case ExifInterface.ORIENTATION_TRANSPOSE:
+                return 90;
+            case ExifInterface.ORIENTATION_ROTATE_180:
+            case ExifInterface.ORIENTATION_FLIP_VERTICAL:
+                return 180;
+            case ExifInterface.ORIENTATION_ROTATE_270:
+            case ExifInterface.ORIENTATION_TRANSVERSE:
+                return 270;
+            default:
+                return 0;
+        }
+    }
+
+    private static InputStream open(ContentResolver resolver, Uri uri) throws FileNotFoundException {
+        InputStream input = resolver.openInputStream(uri);
+        if (input == null) throw new FileNotFoundException(uri.toString());
+        return input;
+    }
+}
@@ -6,6 +6,9 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.Button;
 
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.PickVisualMediaRequest;
+import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.fragment.app.Fragment;
 
 import com.example.househomey.R;
@@ -21,6 +24,24 @@ import com.google.android.material.bottomsheet.BottomSheetDialogFragment;
 public class ScannerPickerDialog extends BottomSheetDialogFragment implements ImagePickerDialog.OnImagePickedListener {
     private ImageScanner scanner;
     private ImagePickerDialog imagePickerDialog;
+    private ActivityResultLauncher<PickVisualMediaRequest> shelfPhotoLauncher;
+
+    /**
+     * Prepares the picker for the photos of a shelf scan
+     * @param savedInstanceState If non-null, this fragment is being re-constructed
+     *                           from a previous saved state as given here.
+     */
+    @Override
+    public void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        shelfPhotoLauncher = registerForActivityResult(
+                new ActivityResultContracts.PickMultipleVisualMedia(ShelfScanner.MAX_IMAGES), images -> {
+                    if (!images.isEmpty()) {
+                        new ShelfScanner(requireActivity(), getScannerService()).scan(images);
+                    }
+                    dismiss();
+                });
+    }
 
     /**
      * Create new Scanner picker dialog
@@ -42,6 +63,8 @@ public class ScannerPickerDialog extends BottomSheetDialogFragment implements Im
         Button serialNumButton = rootView.findViewById(R.id.serialNum_button);
         barcodeButton.setOnClickListener(v -> launchBarcodeScanner());
         serialNumButton.setOnClickListener(v -> launchSerialNumScanner());
+        rootView.findViewById(R.id.live_scan_button).setOnClickListener(v -> launchLiveScanner());
+        rootView.findViewById(R.id.shelf_scan_button).setOnClickListener(v -> launchShelfScanner());
         imagePickerDialog = new ImagePickerDialog();
         return rootView;
     }
@@ -58,7 +81,7 @@ public class ScannerPickerDialog extends BottomSheetDialogFragment implements Im
         } else {
             throw new ClassCastException(parent + " must implement OnImagePickedListener");
         }
-        scanner = new SNImageScanner(getContext(), listener);
+        scanner = new SNImageScanner(getContext(), getScannerService(), listener);
         imagePickerDialog.show(getChildFragmentManager(), imagePickerDialog.getTag());
     }
 
@@ -74,10 +97,42 @@ public class ScannerPickerDialog extends BottomSheetDialogFragment implements Im
         } else {
             throw new ClassCastException(parent + " must implement OnImagePickedListener");
         }
-        scanner = new BarcodeImageScanner(getContext(), listener);
+        scanner = new BarcodeImageScanner(getContext(), getScannerService(), listener);
         imagePickerDialog.show(getChildFragmentManager(), imagePickerDialog.getTag());
     }
 
+    /**
+     * Opens the live camera scanner in place of this dialog. It belongs to the form, so the
+     * form receives its result.
+     */
+    private void launchLiveScanner() {
+        LiveScanDialog liveScanDialog = new LiveScanDialog();
+        liveScanDialog.show(requireParentFragment().getChildFragmentManager(), "LiveScanDialog");
+        dismiss();
+    }
+
+    /**
+     * Lets the user pick one or more photos of a shelf, then adds an item for each barcode in them
+     */
+    private void launchShelfScanner() {
+        shelfPhotoLauncher.launch(new PickVisualMediaRequest.Builder()
+                .setMediaType(ActivityResultContracts.PickVisualMedia.ImageOnly.INSTANCE)
+                .build());
+    }
+
+    /**
+     * Gets the scanner service of the form that opened this dialog, whose detectors are
+     * already warmed up
+     * @return The parent fragment's scanner service
+     */
+    private ScannerService getScannerService() {
+        Fragment parent = requireParentFragment();
+        if (parent instanceof ScannerService.Provider) {
+            return ((ScannerService.Provider) parent).getScannerService();
+        }
+        throw new ClassCastException(parent + " must implement ScannerService.Provider");
+    }
+
     /**
      * Scans a given image using the appropriate scanner
      * @param imageUri uri of the image to scan
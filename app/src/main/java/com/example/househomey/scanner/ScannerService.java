@@ -0,0 +1,263 @@
+package com.example.househomey.scanner;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+import android.net.Uri;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import com.example.househomey.metrics.LatencyRecorder;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.mlkit.vision.barcode.BarcodeScanner;
+import com.google.mlkit.vision.barcode.BarcodeScannerOptions;
+import com.google.mlkit.vision.barcode.BarcodeScanning;
+import com.google.mlkit.vision.barcode.common.Barcode;
+import com.google.mlkit.vision.common.InputImage;
+import com.google.mlkit.vision.text.Text;
+import com.google.mlkit.vision.text.TextRecognition;
+import com.google.mlkit.vision.text.TextRecognizer;
+import com.google.mlkit.vision.text.latin.TextRecognizerOptions;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Owns the ML Kit barcode scanner and text recognizer of a form. Each detector is created once,
+ * warmed up with a blank image when the form opens, so the user's first scan does not pay for
+ * loading its model, and closed when the form is destroyed. Images are preprocessed by
+ * {@link ScanPreprocessor} and detected on a bounded background executor shared by every form.
+ * The latency of each detector's first detection and of later detections is recorded and
+ * written to the log.
+ * @see BarcodeImageScanner
+ * @see SNImageScanner
+ */
+public class ScannerService implements DefaultLifecycleObserver {
+    private static final String TAG = "ScannerService";
+    private static final int WARM_UP_SIZE = 32;
+    private static final int SAMPLES = 64;
+    private static final int MAX_QUEUED_SCANS = 4;
+
+    // Detection is CPU bound, so images are detected one at a time. Scans fail while the queue is full.
+    private static final ExecutorService EXECUTOR = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(MAX_QUEUED_SCANS), task -> new Thread(task, "scanner"));
+    private static final LatencyRecorder firstScanLatency = new LatencyRecorder(SAMPLES);
+    private static final LatencyRecorder scanLatency = new LatencyRecorder(SAMPLES);
+
+    private final Context context;
+    private BarcodeScanner barcodeScanner;
+    private TextRecognizer textRecognizer;
+    private boolean barcodeScannerUsed = false;
+    private boolean textRecognizerUsed = false;
+    private boolean closed = false;
+
+    /**
+     * Constructs a scanner service. Detectors are created when it is started or first used,
+     * until the service is closed.
+     * @param context The context to load images with
+     */
+    public ScannerService(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    /**
+     * Creates and warms up both detectors when the owner is created
+     * @param owner The form that owns this service
+     */
+    @Override
+    public void onCreate(@NonNull LifecycleOwner owner) {
+        InputImage blank = InputImage.fromBitmap(
+                Bitmap.createBitmap(WARM_UP_SIZE, WARM_UP_SIZE, Bitmap.Config.ARGB_8888), 0);
+        detectBarcodes(blank)
+                .addOnFailureListener(e -> Log.w(TAG, "Failed to warm up barcode scanner: " + e));
+        recognizeText(blank)
+                .addOnFailureListener(e -> Log.w(TAG, "Failed to warm up text recognizer: " + e));
+    }
+
+    /**
+     * Closes both detectors when the owner is destroyed, freeing their native resources
+     * @param owner The form that owns this service
+     */
+    @Override
+    public void onDestroy(@NonNull LifecycleOwner owner) {
+        close();
+    }
+
+    /**
+     * Detects the barcodes in a photo
+     * @param imageUri The URI of the photo
+     * @return A task resulting in the detected barcodes
+     */
+    public Task<List<Barcode>> scanBarcodes(Uri imageUri) {
+        return scanBarcodes(imageUri, null);
+    }
+
+    /**
+     * Detects the barcodes in a region of a photo
+     * @param imageUri The URI of the photo
+     * @param region   The region to scan, in the pixels of the photo as stored, or null for all of it
+     * @return A task resulting in the detected barcodes
+     */
+    public Task<List<Barcode>> scanBarcodes(Uri imageUri, @Nullable Rect region) {
+        return loadImage(imageUri, ScanPreprocessor.BARCODE_TARGET_DIMENSION, region)
+                .onSuccessTask(this::detectBarcodes);
+    }
+
+    /**
+     * Recognizes the text in a photo
+     * @param imageUri The URI of the photo
+     * @return A task resulting in the recognized text
+     */
+    public Task<Text> scanText(Uri imageUri) {
+        return scanText(imageUri, null);
+    }
+
+    /**
+     * Recognizes the text in a region of a photo
+     * @param imageUri The URI of the photo
+     * @param region   The region to scan, in the pixels of the photo as stored, or null for all of it
+     * @return A task resulting in the recognized text
+     */
+    public Task<Text> scanText(Uri imageUri, @Nullable Rect region) {
+        return loadImage(imageUri, ScanPreprocessor.TEXT_TARGET_DIMENSION, region)
+                .onSuccessTask(this::recognizeText);
+    }
+
+    /**
+     * Detects the barcodes in an image that is already decoded, e.g. a camera frame.
+     * Can be called from any thread.
+     * @param image The image to scan
+     * @return A task resulting in the detected barcodes
+     */
+    public Task<List<Barcode>> scanBarcodes(InputImage image) {
+        return detectBarcodes(image);
+    }
+
+    /**
+     * Recognizes the text in an image that is already decoded, e.g. a camera frame.
+     * Can be called from any thread.
+     * @param image The image to scan
+     * @return A task resulting in the recognized text
+     */
+    public Task<Text> scanText(InputImage image) {
+        return recognizeText(image);
+    }
+
+    /**
+     * Closes both detectors. Scans started afterwards fail with an {@link IllegalStateException}.
+     */
+    public synchronized void close() {
+        closed = true;
+        if (barcodeScanner != null) {
+            barcodeScanner.close();
+            barcodeScanner = null;
+        }
+        if (textRecognizer != null) {
+            textRecognizer.close();
+            textRecognizer = null;
+        }
+        Log.i(TAG, "First scan: " + firstScanLatency.summarize() + "; later scans: " + scanLatency.summarize());
+    }
+
+    /**
+     * Checks whether the service was closed, e.g. because its form was destroyed. Long scans
+     * check this between photos so they stop with their form.
+     * @return True if the service is closed
+     */
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Decodes a photo into a grayscale image off the main thread
+     * @param imageUri        The URI of the photo
+     * @param targetDimension The resolution that suits the detector
+     * @param region          The region to decode, or null for the whole photo
+     * @return A task resulting in the decoded image
+     * @see ScanPreprocessor
+     */
+    private Task<InputImage> loadImage(Uri imageUri, int targetDimension, @Nullable Rect region) {
+        try {
+            return Tasks.call(EXECUTOR, () -> {
+                long start = System.nanoTime();
+                InputImage image = ScanPreprocessor.preprocess(context.getContentResolver(), imageUri,
+                        targetDimension, region);
+                Log.d(TAG, "Preprocessed " + image.getWidth() + "x" + image.getHeight() + " image in "
+                        + (System.nanoTime() - start) / 1_000_000 + " ms");
+                return image;
+            });
+        } catch (RejectedExecutionException e) {
+            return Tasks.forException(e);
+        }
+    }
+
+    private synchronized Task<List<Barcode>> detectBarcodes(InputImage image) {
+        // A scan that finishes loading after the form is destroyed must not create a detector
+        // that nothing would close
+        if (closed) {
+            return Tasks.forException(new IllegalStateException("Scanner service is closed"));
+        }
+        if (barcodeScanner == null) {
+            barcodeScanner = BarcodeScanning.getClient(new BarcodeScannerOptions.Builder()
+                    .setExecutor(EXECUTOR)
+                    .build());
+        }
+        LatencyRecorder recorder = barcodeScannerUsed ? scanLatency : firstScanLatency;
+        barcodeScannerUsed = true;
+        try {
+            return timed(barcodeScanner.process(image), recorder, "Barcode");
+        } catch (RejectedExecutionException e) {
+            return Tasks.forException(e);
+        }
+    }
+
+    private synchronized Task<Text> recognizeText(InputImage image) {
+        if (closed) {
+            return Tasks.forException(new IllegalStateException("Scanner service is closed"));
+        }
+        if (textRecognizer == null) {
+            textRecognizer = TextRecognition.getClient(new TextRecognizerOptions.Builder()
+                    .setExecutor(EXECUTOR)
+                    .build());
+        }
+        LatencyRecorder recorder = textRecognizerUsed ? scanLatency : firstScanLatency;
+        textRecognizerUsed = true;
+        try {
+            return timed(textRecognizer.process(image), recorder, "Text");
+        } catch (RejectedExecutionException e) {
+            return Tasks.forException(e);
+        }
+    }
+
+    /**
+     * Records how long a detection took once it completes
+     * @param detection The running detection
+     * @param recorder  The recorder for first or later detections
+     * @param name      The name of the detector, for the log
+     * @return The detection
+     */
+    private static <T> Task<T> timed(Task<T> detection, LatencyRecorder recorder, String name) {
+        long start = System.nanoTime();
+        return detection.addOnCompleteListener(task -> {
+            long nanos = System.nanoTime() - start;
+            recorder.record(nanos);
+            Log.d(TAG, name + " detection took " + nanos / 1_000_000 + " ms");
+        });
+    }
+
+    /**
+     * Implemented by fragments that own a scanner service, for the dialogs they open
+     */
+    public interface Provider {
+        ScannerService getScannerService();
+    }
+}
@@ -0,0 +1,279 @@
+package com.example.househomey.scanner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Picks the most likely serial numbers out of the lines of text read from a label. Every word,
+ * every run of adjacent words joined together (OCR often splits a serial number at a gap) and
+ * every whole line is scored in one pass over the text, reusing one buffer, and the best
+ * few distinct candidates are kept.
+ * <p>
+ * A candidate scores higher for digits, for mixing letters and digits, for a typical length,
+ * for following an "S/N" or "Serial" label and for matching a known manufacturer format.
+ * Candidates with characters a serial number never has, such as dates, prices and web
+ * addresses, or without any digits are skipped.
+ * @see SNImageScanner
+ */
+public final class SerialNumberExtractor {
+    /**
+     * The number of candidates offered to the user by default
+     */
+    public static final int DEFAULT_CANDIDATES = 3;
+    static final int MIN_LENGTH = 5;
+    static final int MAX_LENGTH = 24;
+
+    private static final int REJECTED = Integer.MIN_VALUE;
+    private static final int DIGIT_SCORE = 2;
+    private static final int MIXED_BONUS = 6;
+    private static final int TYPICAL_LENGTH_BONUS = 4;
+    private static final int LABEL_BONUS = 20;
+    private static final int FORMAT_BONUS = 10;
+    private static final int JOIN_PENALTY = 3;
+    private static final int LOWERCASE_PENALTY = 2;
+
+    // Labels are matched ignoring case, optionally followed by ':', '.' or '#'
+    private static final String[] LABELS = {"S/N", "SN", "SERIAL", "SER"};
+    // Words that may follow a label, as in "Serial No." or "Serial Number:"
+    private static final String[] LABEL_SUFFIXES = {"NO", "NUMBER"};
+
+    // Serial formats of common manufacturers: '9' is a digit, 'A' an uppercase letter,
+    // 'X' either, and any other character stands for itself
+    private static final String[] FORMATS = {
+            "AXXXXXXXXXXX",    // Apple, before 2021
+            "XXXXXXXXXX",      // Apple since 2021, HP
+            "XXXXXXX",         // Dell service tag
+            "AAXXXXXX",        // Lenovo
+            "RXXXXXXXXXX",     // Samsung phones and tablets
+            "9XXX9XXXXXXXXXX", // Samsung TVs and appliances
+    };
+
+    private SerialNumberExtractor() {}
+
+    /**
+     * Extracts the most likely serial numbers from lines of text
+     * @param lines The lines of text in reading order
+     * @param limit The most candidates to return
+     * @return The distinct candidates, most likely first, or no candidates if nothing in the
+     * text looks like a serial number
+     */
+    public static List<String> extract(List<String> lines, int limit) {
+        Ranking ranking = new Ranking(limit);
+        StringBuilder candidate = new StringBuilder(MAX_LENGTH + 1);
+        Words words = new Words();
+        boolean previousLineLabelled = false;
+        for (String line : lines) {
+            words.split(line);
+            for (int first = 0; first < words.count; first++) {
+                if (words.label[first]) continue;
+                boolean labelled = words.prefix[first] > 0
+                        || (first > 0 ? words.label[first - 1] : previousLineLabelled);
+                candidate.setLength(0);
+                // Join the following words one at a time, until a label or the length limit
+                for (int last = first; last < words.count && !words.label[last]; last++) {
+                    int start = words.start[last] + (last == first ? words.prefix[last] : 0);
+                    candidate.append(line, start, words.end[last]);
+                    if (candidate.length() > MAX_LENGTH) break;
+                    int score = score(candidate, last - first, labelled);
+                    if (score != REJECTED) ranking.offer(candidate, score);
+                }
+            }
+            previousLineLabelled = words.count > 0 && words.label[words.count - 1];
+        }
+        return ranking.toList();
+    }
+
+    /**
+     * Scores how likely a candidate is a serial number
+     * @param candidate The candidate
+     * @param joins     The number of gaps between words that were joined to form it
+     * @param labelled  Whether the candidate follows a serial number label
+     * @return The score, or {@link #REJECTED} if it cannot be a serial number
+     */
+    static int score(CharSequence candidate, int joins, boolean labelled) {
+        int length = candidate.length();
+        if (length < MIN_LENGTH || length > MAX_LENGTH) return REJECTED;
+        int digits = 0, letters = 0, lowercase = 0, hyphens = 0;
+        for (int i = 0; i < length; i++) {
+            char c = candidate.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits++;
+            } else if (c >= 'A' && c <= 'Z') {
+                letters++;
+            } else if (c >= 'a' && c <= 'z') {
+                letters++;
+                lowercase++;
+            } else if (c == '-') {
+                hyphens++;
+            } else {
+                return REJECTED;
+            }
+        }
+        if (digits == 0 || candidate.charAt(0) == '-' || candidate.charAt(length - 1) == '-') {
+            return REJECTED;
+        }
+
+        int score = DIGIT_SCORE * digits - LOWERCASE_PENALTY * lowercase - hyphens - JOIN_PENALTY * joins;
+        if (letters > 0) score += MIXED_BONUS;
+        if (length >= 8 && length <= 16) score += TYPICAL_LENGTH_BONUS;
+        if (labelled) score += LABEL_BONUS;
+        if (matchesFormat(candidate)) score += FORMAT_BONUS;
+        return score;
+    }
+
+    /**
+     * Checks whether a candidate has the format of a known manufacturer
+     * @param candidate The candidate
+     * @return True if it matches any of the formats
+     */
+    static boolean matchesFormat(CharSequence candidate) {
+        for (String format : FORMATS) {
+            if (matches(candidate, format)) return true;
+        }
+        return false;
+    }
+
+    private static boolean matches(CharSequence candidate, String format) {
+        if (candidate.length() != format.length()) return false;
+        for (int i = 0; i < format.length(); i++) {
+            char c = candidate.charAt(i);
+            boolean digit = c >= '0' && c <= '9';
+            boolean upper = c >= 'A' && c <= 'Z';
+            switch (format.charAt(i)) {
+                case '9':
+                    if (!digit) return false;
+                    break;
+                case 'A':
+                    if (!upper) return false;
+                    break;
+                case 'X':
+                    if (!digit && !upper) return false;
+                    break;
+                default:
+                    if (c != format.charAt(i)) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds a serial number label at the start of a word
+     * @param line   The line holding the word
+     * @param start  The start of the word
+     * @param end    The end of the word
+     * @param labels The labels to look for
+     * @return The length of the label and the punctuation after it, or 0 if the word does not
+     * start with a label
+     */
+    private static int labelLength(String line, int start, int end, String[] labels) {
+        for (String label : labels) {
+            int length = label.length();
+            if (end - start < length || !line.regionMatches(true, start, label, 0, length)) continue;
+            if (start + length < end && isLabelPunctuation(line.charAt(start + length))) length++;
+            if (start + length == end || isLabelPunctuation(line.charAt(start + length - 1))) {
+                return length;
+            }
+        }
+        return 0;
+    }
+
+    private static boolean isLabelPunctuation(char c) {
+        return c == ':' || c == '.' || c == '#';
+    }
+
+    /**
+     * The words of one line, reused from line to line. Each word is trimmed of the punctuation
+     * OCR picks up around it, and marked if it is a label.
+     */
+    private static final class Words {
+        int[] start = new int[16];
+        int[] end = new int[16];
+        // The length of a label glued to the front of the word, as in "S/N:C02XK0ABJGH5"
+        int[] prefix = new int[16];
+        boolean[] label = new boolean[16];
+        int count;
+
+        void split(String line) {
+            count = 0;
+            int i = 0;
+            int length = line.length();
+            while (i < length) {
+                while (i < length && Character.isWhitespace(line.charAt(i))) i++;
+                int wordStart = i;
+                while (i < length && !Character.isWhitespace(line.charAt(i))) i++;
+                int wordEnd = i;
+                // Trim the punctuation around the word
+                while (wordEnd > wordStart && ",;:.)".indexOf(line.charAt(wordEnd - 1)) >= 0) wordEnd--;
+                while (wordStart < wordEnd && "#(".indexOf(line.charAt(wordStart)) >= 0) wordStart++;
+                if (wordStart < wordEnd) add(line, wordStart, wordEnd, i);
+            }
+        }
+
+        private void add(String line, int wordStart, int wordEnd, int untrimmedEnd) {
+            if (count == start.length) {
+                start = Arrays.copyOf(start, count * 2);
+                end = Arrays.copyOf(end, count * 2);
+                prefix = Arrays.copyOf(prefix, count * 2);
+                label = Arrays.copyOf(label, count * 2);
+            }
+            // The trimmed ':' still belongs to a label, as in "Serial:"
+            int labelLength = labelLength(line, wordStart, untrimmedEnd, LABELS);
+            boolean isLabel = labelLength >= wordEnd - wordStart
+                    || (count > 0 && label[count - 1]
+                    && labelLength(line, wordStart, untrimmedEnd, LABEL_SUFFIXES) >= wordEnd - wordStart);
+            start[count] = wordStart;
+            end[count] = wordEnd;
+            label[count] = isLabel;
+            // Only a label ended by punctuation is split off a word, so "SN4021" stays whole
+            prefix[count] = !isLabel && labelLength > 0 && isLabelPunctuation(line.charAt(wordStart + labelLength - 1))
+                    ? labelLength : 0;
+            count++;
+        }
+    }
+
+    /**
+     * The best distinct candidates seen so far, best first
+     */
+    private static final class Ranking {
+        final String[] texts;
+        final int[] scores;
+        int size = 0;
+
+        Ranking(int limit) {
+            texts = new String[limit];
+            scores = new int[limit];
+        }
+
+        void offer(CharSequence candidate, int score) {
+            if (texts.length == 0 || (size == texts.length && score <= scores[size - 1])) return;
+            for (int i = 0; i < size; i++) {
+                if (texts[i].contentEquals(candidate)) {
+                    if (score <= scores[i]) return;
+                    remove(i);
+                    break;
+                }
+            }
+            // Earlier candidates win ties
+            int position = size == texts.length ? size - 1 : size;
+            while (position > 0 && scores[position - 1] < score) {
+                texts[position] = texts[position - 1];
+                scores[position] = scores[position - 1];
+                position--;
+            }
+            texts[position] = candidate.toString();
+            scores[position] = score;
+            if (size < texts.length) size++;
+        }
+
+        private void remove(int index) {
+            System.arraycopy(texts, index + 1, texts, index, size - index - 1);
+            System.arraycopy(scores, index + 1, scores, index, size - index - 1);
+            size--;
+        }
+
+        List<String> toList() {
+            return new ArrayList<>(Arrays.asList(texts).subList(0, size));
+        }
+    }
+}
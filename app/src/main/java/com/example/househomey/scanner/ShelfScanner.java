@@ -0,0 +1,249 @@
+package com.example.househomey.scanner;
+
+import android.app.AlertDialog;
+import android.content.Context;
+import android.net.Uri;
+import android.util.Log;
+import android.widget.Toast;
+
+import com.example.househomey.MainActivity;
+import com.example.househomey.item.Item;
+import com.example.househomey.item.ItemBatchWriter;
+import com.example.househomey.photo.ContentHash;
+import com.example.househomey.photo.PhotoUploadManager;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.mlkit.vision.barcode.common.Barcode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates an item for every barcode on a shelf, reading every barcode in one or more photos
+ * instead of one barcode per photo. Each barcode value found is offered once, however many
+ * photos show it. The chosen items are created as drafts described by their barcode, with the
+ * photo they were found in; their cost and details can be filled in later.
+ * <p>
+ * A photo is uploaded once however many of the items show it, and every item is written in
+ * batched writes once the photos are uploaded. The scanner only holds on to its activity and
+ * scanner service until the upload starts, and stops scanning if the service is closed.
+ * @see PhotoUploadManager
+ * @see ItemBatchWriter
+ */
+public class ShelfScanner {
+    /**
+     * The most photos that can be scanned together
+     */
+    public static final int MAX_IMAGES = 20;
+    private static final String DRAFT_COMMENT = "Added by shelf scan";
+
+    private final Context context;
+    private final ScannerService scannerService;
+
+    /**
+     * Constructs a new ShelfScanner
+     * @param context        The activity the scanner is used in
+     * @param scannerService The service holding the barcode scanner to use
+     */
+    public ShelfScanner(Context context, ScannerService scannerService) {
+        this.context = context;
+        this.scannerService = scannerService;
+    }
+
+    /**
+     * Reads every barcode in the photos and offers to create an item for each value
+     * @param images The photos to scan
+     */
+    public void scan(List<Uri> images) {
+        List<List<String>> values = new ArrayList<>();
+        scanFrom(images, 0, values).addOnSuccessListener(unused -> offerItems(collectValues(images, values)));
+    }
+
+    /**
+     * Offers to create an item for each barcode value found
+     * @param values The photo each value was first found in, by value
+     */
+    public void offerItems(Map<String, Uri> values) {
+        if (values.isEmpty()) {
+            Toast.makeText(context.getApplicationContext(),
+                    "No barcodes were detected. Please use a different image.",
+                    Toast.LENGTH_LONG).show();
+            return;
+        }
+        // Photos are hashed while the user picks the barcodes to keep
+        Map<Uri, Task<String>> hashes = new HashMap<>();
+        for (Uri image : values.values()) {
+            if (!hashes.containsKey(image)) {
+                hashes.put(image, ContentHash.computeAsync(context.getContentResolver(), image));
+            }
+        }
+
+        String[] labels = values.keySet().toArray(new String[0]);
+        boolean[] checked = new boolean[labels.length];
+        Arrays.fill(checked, true);
+        new AlertDialog.Builder(context)
+                .setTitle("Barcodes found: " + labels.length)
+                .setMultiChoiceItems(labels, checked, (dialog, which, isChecked) -> checked[which] = isChecked)
+                .setPositiveButton("Add Items", (dialog, which) -> {
+                    Map<String, Uri> chosen = new LinkedHashMap<>();
+                    for (int i = 0; i < labels.length; i++) {
+                        if (checked[i]) chosen.put(labels[i], values.get(labels[i]));
+                    }
+                    Tasks.whenAllSuccess(hashes.values())
+                            .addOnSuccessListener(unused -> createItems(chosen, hashes))
+                            .addOnFailureListener(e -> showFailure(context.getApplicationContext(), e));
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    /**
+     * Merges the barcode values read from several photos, keeping each value once along with
+     * the first photo it was read from
+     * @param images The photos that were scanned
+     * @param values The barcode values read from each photo, in the same order
+     * @return The photo of each distinct non-empty value, by value, in the order they were read
+     */
+    public static <T> Map<String, T> collectValues(List<T> images, List<List<String>> values) {
+        Map<String, T> collected = new LinkedHashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            for (String value : values.get(i)) {
+                if (value != null && !value.isEmpty() && !collected.containsKey(value)) {
+                    collected.put(value, images.get(i));
+                }
+            }
+        }
+        return collected;
+    }
+
+    /**
+     * Scans the photos one after another, since the scanner service only queues a few scans
+     * @param images The photos to scan
+     * @param index  The index of the next photo to scan
+     * @param values The barcode values read from each photo so far
+     * @return A task that completes once every photo is scanned
+     */
+    private Task<Void> scanFrom(List<Uri> images, int index, List<List<String>> values) {
+        if (index == images.size()) return Tasks.forResult(null);
+        if (scannerService.isClosed()) {
+            Log.i("Scanner", "Stopped the shelf scan, since its form was closed");
+            return Tasks.forCanceled();
+        }
+        return scannerService.scanBarcodes(images.get(index))
+                .continueWithTask(task -> {
+                    if (task.isSuccessful()) {
+                        values.add(displayValues(task.getResult()));
+                    } else {
+                        Log.e("Scanner", "Failed to scan " + images.get(index) + ": " + task.getException());
+                        values.add(Collections.emptyList());
+                    }
+                    return scanFrom(images, index + 1, values);
+                });
+    }
+
+    /**
+     * Reads the values of barcodes
+     * @param barcodes The barcodes detected in a photo
+     * @return The value of each barcode
+     */
+    static List<String> displayValues(List<Barcode> barcodes) {
+        List<String> values = new ArrayList<>();
+        for (Barcode barcode : barcodes) {
+            values.add(barcode.getDisplayValue());
+        }
+        return values;
+    }
+
+    /**
+     * Builds a draft item for each chosen value and uploads their photos before writing them
+     * @param values The photo of each chosen value, by value
+     * @param hashes The task hashing each photo into its id
+     */
+    private void createItems(Map<String, Uri> values, Map<Uri, Task<String>> hashes) {
+        if (values.isEmpty()) return;
+        MainActivity activity = (MainActivity) context;
+        CollectionReference itemRef = activity.getItemRef();
+        Timestamp now = Timestamp.now();
+        Map<DocumentReference, Map<String, Object>> items = new LinkedHashMap<>();
+        Map<String, Uri> photos = new LinkedHashMap<>();
+        for (Map.Entry<String, Uri> value : values.entrySet()) {
+            String photoId = hashes.get(value.getValue()).getResult();
+            photos.put(photoId, value.getValue());
+
+            Map<String, Object> data = new HashMap<>();
+            data.put("description", value.getKey());
+            data.put("acquisitionDate", now);
+            data.put("cost", "0");
+            data.put("comment", DRAFT_COMMENT);
+            DocumentReference document = itemRef.document();
+            Item item = new Item(document.getId(), data);
+            item.setPhotoIds(Collections.singletonList(photoId));
+            items.put(document, item.getData());
+        }
+        Toast.makeText(context.getApplicationContext(),
+                "Adding " + items.size() + " items...", Toast.LENGTH_SHORT).show();
+        PhotoUploadManager.getInstance(context).upload(items, photos, activity.getPhotoReferences(),
+                new DraftWriter(context.getApplicationContext(), items));
+    }
+
+    /**
+     * Tells the user the items could not be added
+     * @param context The application context to show the message in
+     * @param e       The reason the items could not be added
+     */
+    private static void showFailure(Context context, Exception e) {
+        Log.e("IMAGE_UPLOAD", "Failed to add scanned items: " + e);
+        Toast.makeText(context, "Failed to add the scanned items. Please try again.", Toast.LENGTH_LONG).show();
+    }
+
+    /**
+     * Writes the draft items once their photos are uploaded. It only holds the application
+     * context, since the upload may outlive the activity the scan was started in.
+     */
+    private static class DraftWriter implements PhotoUploadManager.Listener {
+        private final Context context;
+        private final Map<DocumentReference, Map<String, Object>> items;
+
+        DraftWriter(Context context, Map<DocumentReference, Map<String, Object>> items) {
+            this.context = context;
+            this.items = items;
+        }
+
+        /**
+         * Progress is not shown, since the shelf scan has no screen of its own
+         * @param bytesTransferred The bytes uploaded so far, over every photo
+         * @param totalBytes       The bytes to upload in total
+         */
+        @Override
+        public void onUploadProgress(long bytesTransferred, long totalBytes) {}
+
+        /**
+         * Writes the draft items once their photos are uploaded
+         */
+        @Override
+        public void onPhotosUploaded() {
+            int count = items.size();
+            ItemBatchWriter.write(items, "Shelf Scan")
+                    .addOnSuccessListener(unused -> Toast.makeText(context,
+                            "Added " + count + " items", Toast.LENGTH_SHORT).show())
+                    .addOnFailureListener(e -> Log.e("Firestore", "Failed to write scanned items: " + e));
+        }
+
+        /**
+         * Tells the user the items could not be added
+         * @param e The error of the last failed upload
+         */
+        @Override
+        public void onUploadFailed(Exception e) {
+            showFailure(context, e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.househomey.scanner;
+
+/**
+ * Accepts a value read from camera frames only once the same value was read from several
+ * frames in a row, so a misread from a single blurry frame is never used.
+ * @see LiveScanDialog
+ */
+public class StableResultFilter {
+    private final int requiredFrames;
+    private String candidate;
+    private int count = 0;
+
+    /**
+     * Constructs a filter
+     * @param requiredFrames The number of consecutive frames a value must be read from
+     */
+    public StableResultFilter(int requiredFrames) {
+        this.requiredFrames = requiredFrames;
+    }
+
+    /**
+     * Offers the value read from the next frame
+     * @param value The value read, or null or empty if nothing was read
+     * @return The value once it was read from enough consecutive frames, otherwise null
+     */
+    public String offer(String value) {
+        if (value == null || value.isEmpty()) {
+            reset();
+            return null;
+        }
+        if (value.equals(candidate)) {
+            count++;
+        } else {
+            candidate = value;
+            count = 1;
+        }
+        return count >= requiredFrames ? candidate : null;
+    }
+
+    /**
+     * Forgets the frames offered so far
+     */
+    public void reset() {
+        candidate = null;
+        count = 0;
+    }
+}
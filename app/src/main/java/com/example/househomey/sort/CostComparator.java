@@ -18,6 +18,6 @@ public class CostComparator implements Comparator<Item> {
      */
     @Override
     public int compare(Item o1, Item o2) {
-        return  o1.getCost().compareTo(o2.getCost());
+        return Long.compare(o1.getSortKeys().costCents, o2.getSortKeys().costCents);
     }
 }
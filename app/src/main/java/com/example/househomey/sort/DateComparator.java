@@ -18,6 +18,6 @@ public class DateComparator implements Comparator<Item> {
      */
     @Override
     public int compare(Item o1, Item o2) {
-        return  o1.getAcquisitionDate().compareTo(o2.getAcquisitionDate());
+        return Long.compare(o1.getSortKeys().acquisitionTime, o2.getSortKeys().acquisitionTime);
     }
 }
@@ -18,6 +18,6 @@ public class DescriptionComparator implements Comparator<Item> {
      */
     @Override
     public int compare(Item o1, Item o2) {
-        return  o1.getDescription().toLowerCase().compareTo(o2.getDescription().toLowerCase());
+        return o1.getSortKeys().description.compareTo(o2.getSortKeys().description);
     }
 }
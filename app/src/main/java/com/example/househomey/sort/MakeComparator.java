@@ -18,6 +18,6 @@ public class MakeComparator implements Comparator<Item> {
      */
     @Override
     public int compare(Item o1, Item o2) {
-        return  o1.getMake().toLowerCase().compareTo(o2.getMake().toLowerCase());
+        return o1.getSortKeys().make.compareTo(o2.getSortKeys().make);
     }
 }
@@ -0,0 +1,32 @@
+package com.example.househomey.sort;
+
+import com.example.househomey.item.Item;
+import com.example.househomey.tags.Tag;
+
+import java.util.List;
+
+/**
+ * The values the sort comparators compare, computed once per item so that sorting only compares
+ * pre-folded strings and primitives. An item caches its keys and drops them when its tags change.
+ * @see Item#getSortKeys()
+ */
+public final class SortKeys {
+    final String description;
+    final String make;
+    final long acquisitionTime;
+    final long costCents;
+    final String firstTagLabel;
+
+    /**
+     * Computes the sort keys of an item
+     * @param item The item to compute the keys of
+     */
+    public SortKeys(Item item) {
+        this.description = item.getDescription().toLowerCase();
+        this.make = item.getMake().toLowerCase();
+        this.acquisitionTime = item.getAcquisitionTime();
+        this.costCents = item.getCostCents();
+        List<Tag> tags = item.getTags();
+        this.firstTagLabel = tags.isEmpty() ? null : tags.get(0).getTagLabel();
+    }
+}
@@ -7,11 +7,10 @@ import android.util.Log;
 import android.view.View;
 
 import androidx.annotation.NonNull;
-import androidx.core.os.BundleCompat;
 
-import com.example.househomey.item.Item;
 import com.example.househomey.MainActivity;
 import com.example.househomey.R;
+import com.example.househomey.metrics.FirestoreMetrics;
 import com.example.househomey.utils.FragmentUtils;
 import com.google.android.material.chip.Chip;
 import com.google.firebase.firestore.FieldValue;
@@ -20,15 +19,13 @@ import com.google.firebase.firestore.WriteBatch;
 
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Dialog that allows users to select and apply existing tags
  * @author Matthew Neufeld
  */
 public class ApplyTagFragment extends TagFragment implements Serializable {
-    private ArrayList<Item> selectedItems;
+    private ArrayList<String> selectedItemIds;
 
     /**
      * Called to create the dialog, initializing UI components and setting up button listeners.
@@ -41,7 +38,7 @@ public class ApplyTagFragment extends TagFragment implements Serializable {
     public Dialog onCreateDialog(Bundle savedInstanceState) {
         View rootView = requireActivity().getLayoutInflater().inflate(R.layout.fragment_apply_tags, null);
         this.tagRef = ((MainActivity) requireActivity()).getTagRef();
-        selectedItems = BundleCompat.getParcelableArrayList(getArguments(), "itemList", Item.class);
+        selectedItemIds = requireArguments().getStringArrayList("itemIds");
 
         chipGroup = rootView.findViewById(R.id.chip_group_labels);
         getTagCollection();
@@ -54,11 +51,11 @@ public class ApplyTagFragment extends TagFragment implements Serializable {
                     ManageTagFragment manageTagFragment = new ManageTagFragment();
 
                     Bundle tagArgs = new Bundle();
-                    tagArgs.putParcelableArrayList("itemList", selectedItems);
+                    tagArgs.putStringArrayList("itemIds", selectedItemIds);
                     manageTagFragment.setArguments(tagArgs);
                     manageTagFragment.show(requireActivity().getSupportFragmentManager(), "tagDialog");
                 })
-                .setPositiveButton("Apply", (dialog, which) -> applyItemsToTag(rootView, selectedItems))
+                .setPositiveButton("Apply", (dialog, which) -> applyItemsToTag(rootView, selectedItemIds))
                 .create();
     }
 
@@ -74,23 +71,21 @@ public class ApplyTagFragment extends TagFragment implements Serializable {
     /**
      * Save items to Firestore for the given tags.
      *
-     * @param selectedItems Items to which the tags will be applied
+     * @param selectedItemIds Ids of the items to which the tags will be applied
      */
-    private void applyItemsToTag(View rootView, ArrayList<Item> selectedItems) {
+    private void applyItemsToTag(View rootView, ArrayList<String> selectedItemIds) {
         ArrayList<String> selectedTags = new ArrayList<>();
         for (int id : chipGroup.getCheckedChipIds()) {
             Chip chip = rootView.findViewById(id);
             selectedTags.add(chip.getText().toString());
         }
-        if (!selectedItems.isEmpty()) {
-            List<String> idList = selectedItems.stream()
-                    .map(Item::getId)
-                    .collect(Collectors.toList());
+        if (!selectedItemIds.isEmpty()) {
             WriteBatch batch = FirebaseFirestore.getInstance().batch();
             for (String tag : selectedTags) {
                 batch.update(tagRef.document(tag),
-                        "items", FieldValue.arrayUnion(idList.toArray()));
+                        "items", FieldValue.arrayUnion(selectedItemIds.toArray()));
             }
+            FirestoreMetrics.count("Tags", FirestoreMetrics.Operation.WRITE, selectedTags.size());
             batch.commit()
                     .addOnSuccessListener((result) -> Log.i("Firestore", "Items successfully applied to tag"))
                     .addOnFailureListener((error) -> Log.e("Firestore", "Failed to apply items to tag.", error));
@@ -8,11 +8,10 @@ import android.widget.Button;
 import android.widget.EditText;
 
 import androidx.annotation.NonNull;
-import androidx.core.os.BundleCompat;
 
-import com.example.househomey.item.Item;
 import com.example.househomey.MainActivity;
 import com.example.househomey.R;
+import com.example.househomey.metrics.FirestoreMetrics;
 import com.example.househomey.utils.FragmentUtils;
 import com.google.android.material.chip.Chip;
 
@@ -40,7 +39,7 @@ public class ManageTagFragment extends TagFragment {
     public Dialog onCreateDialog(Bundle savedInstanceState) {
         View rootView = requireActivity().getLayoutInflater().inflate(R.layout.fragment_manage_tags, null);
         this.tagRef = ((MainActivity) requireActivity()).getTagRef();
-        final ArrayList<Item> selectedItems = BundleCompat.getParcelableArrayList(getArguments(), "itemList", Item.class);
+        final ArrayList<String> selectedItemIds = requireArguments().getStringArrayList("itemIds");
 
         // Initialize UI components
         chipGroup = rootView.findViewById(R.id.chip_group_labels);
@@ -63,7 +62,7 @@ public class ManageTagFragment extends TagFragment {
                 .setPositiveButton("Done", (d, which) -> {
                     ApplyTagFragment applyTagFragment = new ApplyTagFragment();
                     Bundle tagArgs = new Bundle();
-                    tagArgs.putParcelableArrayList("itemList", selectedItems);
+                    tagArgs.putStringArrayList("itemIds", selectedItemIds);
                     applyTagFragment.setArguments(tagArgs);
                     applyTagFragment.show(requireActivity().getSupportFragmentManager(),"tagDialog");
                 })
@@ -78,12 +77,13 @@ public class ManageTagFragment extends TagFragment {
      */
     protected void makeTagChip(String label) {
         final Chip chip = FragmentUtils.makeChip(label, true, chipGroup, requireContext(), R.drawable.tag_chip, R.color.brown, R.color.brown);
-        chip.setOnCloseIconClickListener(v ->
-                tagRef.document(label).delete().addOnSuccessListener(result -> {
-                    chipGroup.removeView(chip);
-                    tagList.removeIf(tag -> tag.getTagLabel().equals(chip.getText().toString()));
-                })
-        );
+        chip.setOnCloseIconClickListener(v -> {
+            FirestoreMetrics.count("Tags", FirestoreMetrics.Operation.DELETE, 1);
+            tagRef.document(label).delete().addOnSuccessListener(result -> {
+                chipGroup.removeView(chip);
+                tagList.removeIf(tag -> tag.getTagLabel().equals(chip.getText().toString()));
+            });
+        });
     }
 
     /**
@@ -100,6 +100,7 @@ public class ManageTagFragment extends TagFragment {
             makeTagChip(tagLabel);
             Map<String, Object> data = new HashMap<>();
             data.put("items", new ArrayList<>());
+            FirestoreMetrics.count("Tags", FirestoreMetrics.Operation.WRITE, 1);
             tagRef.document(tagLabel).set(data);
         }
         tagEditText.getText().clear();
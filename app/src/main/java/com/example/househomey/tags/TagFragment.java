@@ -2,6 +2,7 @@ package com.example.househomey.tags;
 
 import androidx.fragment.app.DialogFragment;
 
+import com.example.househomey.metrics.FirestoreMetrics;
 import com.google.android.material.chip.ChipGroup;
 import com.google.firebase.firestore.CollectionReference;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
@@ -26,6 +27,7 @@ public abstract class TagFragment extends DialogFragment {
      */
     protected void getTagCollection() {
         tagRef.get().addOnSuccessListener(queryDocumentSnapshots -> {
+            FirestoreMetrics.count("Tags", FirestoreMetrics.Operation.READ, queryDocumentSnapshots.size());
             for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
                 Tag tag = new Tag(document.getId(), document.getData());
                 if (!tagList.stream()
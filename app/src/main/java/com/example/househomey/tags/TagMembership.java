@@ -0,0 +1,260 @@
+package com.example.househomey.tags;
+
+import com.example.househomey.item.Item;
+import com.example.househomey.item.ItemOrdinals;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A two-way index between tags and the items they contain, so items never have to query
+ * Firestore for their own tags. Every tag gets an ordinal, and every item an ordinal from
+ * {@link ItemOrdinals}; each tag keeps a bitset of the ordinals of its items and each item keeps
+ * a bitset of the ordinals of its tags. A filter index sharing the item ordinals can use a tag's
+ * bitset as is. Tags are added, replaced and removed one at a time from tag snapshot changes,
+ * and each update reports the items whose tags changed, so only those items need to be updated.
+ * @see Tag
+ */
+public class TagMembership {
+    private final ItemOrdinals itemOrdinals;
+    private final Map<String, Integer> ordinalsByLabel = new HashMap<>();
+    private final ArrayList<Tag> tagsByOrdinal = new ArrayList<>();
+    private final ArrayList<BitSet> itemOrdinalsByTag = new ArrayList<>();
+    private final BitSet freeOrdinals = new BitSet();
+    private final ArrayList<BitSet> tagOrdinalsByItem = new ArrayList<>();
+
+    /**
+     * Constructs an empty index numbering its own items
+     */
+    public TagMembership() {
+        this(new ItemOrdinals());
+    }
+
+    /**
+     * Constructs an empty index
+     * @param itemOrdinals the ordinals of the items, shared with other indexes of the items
+     */
+    public TagMembership(ItemOrdinals itemOrdinals) {
+        this.itemOrdinals = itemOrdinals;
+    }
+
+    /**
+     * Getter for the item ordinals the tags' bitsets refer to
+     * @return the ordinals of the items
+     */
+    public ItemOrdinals getItemOrdinals() {
+        return itemOrdinals;
+    }
+
+    /**
+     * Replaces the whole index with the memberships of the given tags
+     * @param tags every tag in the user's tag collection
+     */
+    public void setTags(List<Tag> tags) {
+        ordinalsByLabel.clear();
+        tagsByOrdinal.clear();
+        itemOrdinalsByTag.clear();
+        freeOrdinals.clear();
+        tagOrdinalsByItem.clear();
+        for (Tag tag : tags) {
+            putTag(tag);
+        }
+    }
+
+    /**
+     * Adds a tag, or replaces the tag with the same label
+     * @param tag the new or modified tag
+     * @return the ids of the items that were added to or removed from the tag
+     */
+    public Set<String> putTag(Tag tag) {
+        BitSet newItems = new BitSet();
+        for (String itemId : tag.getItemIds()) {
+            newItems.set(itemOrdinals.ordinalOf(itemId));
+        }
+        Integer ordinal = ordinalsByLabel.get(tag.getTagLabel());
+        Set<String> changedItemIds = new HashSet<>();
+        if (ordinal == null) {
+            ordinal = freeOrdinals.isEmpty() ? tagsByOrdinal.size() : freeOrdinals.nextSetBit(0);
+            freeOrdinals.clear(ordinal);
+            ordinalsByLabel.put(tag.getTagLabel(), ordinal);
+            if (ordinal == tagsByOrdinal.size()) {
+                tagsByOrdinal.add(tag);
+                itemOrdinalsByTag.add(newItems);
+            } else {
+                tagsByOrdinal.set(ordinal, tag);
+                itemOrdinalsByTag.set(ordinal, newItems);
+            }
+        } else {
+            BitSet removedItems = (BitSet) itemOrdinalsByTag.get(ordinal).clone();
+            removedItems.andNot(newItems);
+            tagsByOrdinal.set(ordinal, tag);
+            itemOrdinalsByTag.set(ordinal, newItems);
+            for (int item = removedItems.nextSetBit(0); item >= 0; item = removedItems.nextSetBit(item + 1)) {
+                clearMembership(item, ordinal);
+                changedItemIds.add(itemOrdinals.getId(item));
+            }
+        }
+        for (int item = newItems.nextSetBit(0); item >= 0; item = newItems.nextSetBit(item + 1)) {
+            while (tagOrdinalsByItem.size() <= item) {
+                tagOrdinalsByItem.add(null);
+            }
+            BitSet tagOrdinals = tagOrdinalsByItem.get(item);
+            if (tagOrdinals == null) {
+                tagOrdinals = new BitSet();
+                tagOrdinalsByItem.set(item, tagOrdinals);
+            }
+            if (!tagOrdinals.get(ordinal)) {
+                tagOrdinals.set(ordinal);
+                changedItemIds.add(itemOrdinals.getId(item));
+            }
+        }
+        return changedItemIds;
+    }
+
+    /**
+     * Removes a tag
+     * @param tagLabel the label of the deleted tag
+     * @return the ids of the items that had the tag
+     */
+    public Set<String> removeTag(String tagLabel) {
+        Integer ordinal = ordinalsByLabel.remove(tagLabel);
+        if (ordinal == null) return Collections.emptySet();
+        BitSet items = itemOrdinalsByTag.get(ordinal);
+        Set<String> itemIds = new HashSet<>();
+        for (int item = items.nextSetBit(0); item >= 0; item = items.nextSetBit(item + 1)) {
+            clearMembership(item, ordinal);
+            itemIds.add(itemOrdinals.getId(item));
+        }
+        tagsByOrdinal.set(ordinal, null);
+        itemOrdinalsByTag.set(ordinal, null);
+        freeOrdinals.set(ordinal);
+        return itemIds;
+    }
+
+    /**
+     * Getter for a single tag
+     * @param tagLabel the label of the tag
+     * @return the latest version of the tag, or null if there is no such tag
+     */
+    public Tag getTag(String tagLabel) {
+        Integer ordinal = ordinalsByLabel.get(tagLabel);
+        return ordinal == null ? null : tagsByOrdinal.get(ordinal);
+    }
+
+    /**
+     * Getter for the items of a single tag
+     * @param tagLabel the label of the tag
+     * @return the ids of the tag's items, or an empty set if there is no such tag
+     */
+    public Set<String> getItemIds(String tagLabel) {
+        Integer ordinal = ordinalsByLabel.get(tagLabel);
+        if (ordinal == null) return Collections.emptySet();
+        BitSet items = itemOrdinalsByTag.get(ordinal);
+        Set<String> itemIds = new HashSet<>();
+        for (int item = items.nextSetBit(0); item >= 0; item = items.nextSetBit(item + 1)) {
+            itemIds.add(itemOrdinals.getId(item));
+        }
+        return Collections.unmodifiableSet(itemIds);
+    }
+
+    /**
+     * Selects the items that belong to at least one of the given tags
+     * @param tagLabels the labels of the tags
+     * @return a new bitset of the ordinals of the tags' items, which is empty if none of the
+     * tags exist
+     */
+    public BitSet withAnyTag(Collection<String> tagLabels) {
+        BitSet result = new BitSet();
+        for (String tagLabel : tagLabels) {
+            Integer ordinal = ordinalsByLabel.get(tagLabel);
+            if (ordinal != null) result.or(itemOrdinalsByTag.get(ordinal));
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether an item belongs to at least one of the given tags
+     * @param itemId    id of the item
+     * @param tagLabels the labels of the tags
+     * @return true if the item has one of the tags
+     */
+    public boolean hasAnyTag(String itemId, Collection<String> tagLabels) {
+        BitSet tagOrdinals = getTagOrdinals(itemId);
+        if (tagOrdinals == null) return false;
+        for (String tagLabel : tagLabels) {
+            Integer ordinal = ordinalsByLabel.get(tagLabel);
+            if (ordinal != null && tagOrdinals.get(ordinal)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Getter for the tags of a single item
+     * @param itemId id of the item
+     * @return the tags containing the item sorted by label, or an empty list if it has none
+     */
+    public List<Tag> getTags(String itemId) {
+        BitSet tagOrdinals = getTagOrdinals(itemId);
+        if (tagOrdinals == null) return Collections.emptyList();
+        List<Tag> itemTags = new ArrayList<>(tagOrdinals.cardinality());
+        for (int i = tagOrdinals.nextSetBit(0); i >= 0; i = tagOrdinals.nextSetBit(i + 1)) {
+            itemTags.add(tagsByOrdinal.get(i));
+        }
+        Collections.sort(itemTags);
+        return itemTags;
+    }
+
+    /**
+     * Replaces an item's tags with the tags it belongs to in the current mapping
+     * @param item the item whose tags are set
+     */
+    public void applyTo(Item item) {
+        item.setTags(getTags(item.getId()));
+    }
+
+    /**
+     * Checks whether an item's tags have the same labels as the tags it belongs to in the
+     * current mapping
+     * @param item the item to check
+     * @return true if applying the mapping would not change the labels of the item's tags
+     */
+    public boolean isCurrent(Item item) {
+        List<Tag> currentTags = item.getTags();
+        List<Tag> newTags = getTags(item.getId());
+        if (currentTags.size() != newTags.size()) return false;
+        // Both lists are sorted by label
+        for (int i = 0; i < currentTags.size(); i++) {
+            if (!currentTags.get(i).getTagLabel().equals(newTags.get(i).getTagLabel())) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Getter for the tag ordinals of a single item
+     * @param itemId id of the item
+     * @return the ordinals of the item's tags, or null if it has none
+     */
+    private BitSet getTagOrdinals(String itemId) {
+        int item = itemOrdinals.find(itemId);
+        return item < 0 || item >= tagOrdinalsByItem.size() ? null : tagOrdinalsByItem.get(item);
+    }
+
+    /**
+     * Removes a tag ordinal from an item's tags
+     * @param item    ordinal of the item
+     * @param ordinal ordinal of the tag
+     */
+    private void clearMembership(int item, int ordinal) {
+        BitSet tagOrdinals = tagOrdinalsByItem.get(item);
+        if (tagOrdinals == null) return;
+        tagOrdinals.clear(ordinal);
+        if (tagOrdinals.isEmpty()) tagOrdinalsByItem.set(item, null);
+    }
+}
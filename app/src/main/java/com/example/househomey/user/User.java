@@ -11,6 +11,7 @@ public class User {
     private final String username;
     private final CollectionReference itemRef;
     private final CollectionReference tagRef;
+    private final CollectionReference photoRef;
 
     /**
      * This constructs a new user getting references to their firestore information
@@ -21,6 +22,7 @@ public class User {
         this.username = username;
         itemRef = FirebaseFirestore.getInstance().collection("user/" + username + "/item");
         tagRef = FirebaseFirestore.getInstance().collection("user/" + username + "/tag");
+        photoRef = FirebaseFirestore.getInstance().collection("user/" + username + "/photo");
     }
 
     /**
@@ -37,6 +39,12 @@ public class User {
      */
     public CollectionReference getTagRef() { return tagRef; }
 
+    /**
+     * Getter for photoRef
+     * @return A reference to the user's firestore collection of photo reference counts
+     */
+    public CollectionReference getPhotoRef() { return photoRef; }
+
     /**
      * Getter for username
      * @return The user's unique username as a String
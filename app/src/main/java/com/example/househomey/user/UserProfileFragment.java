@@ -1,6 +1,7 @@
 package com.example.househomey.user;
 
 import android.app.Activity;
+import android.content.Context;
 import android.content.Intent;
 import android.os.Bundle;
 import android.os.Handler;
@@ -16,7 +17,11 @@ import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 
 import com.example.househomey.R;
+import com.example.househomey.inventory.InventoryRepository;
+import com.example.househomey.photo.ImageCompressor;
+import com.example.househomey.photo.PhotoUploadManager;
 import com.example.househomey.signin.SignInActivity;
+import com.google.android.material.switchmaterial.SwitchMaterial;
 import com.google.firebase.auth.FirebaseAuth;
 
 /**
@@ -30,7 +35,7 @@ public class UserProfileFragment extends Fragment {
     /**
      * Called to create the user profile fragment's view hierarchy. Inflates the fragment layout from
      * the specified XML resource, populates the item list from the bundle arguments, and sets up UI
-     * elements such as the username TextView and logout button.
+     * elements such as the username TextView, photo settings and logout button.
      *
      * @param inflater           The LayoutInflater object that can be used to inflate any views in
      *                           the fragment.
@@ -49,9 +54,21 @@ public class UserProfileFragment extends Fragment {
         ((TextView) rootView.findViewById(R.id.user_profile_username)).setText(auth.getCurrentUser().getDisplayName());
         ((TextView) rootView.findViewById(R.id.user_profile_email)).setText(auth.getCurrentUser().getEmail());
 
+        // Photos added from now on follow the setting
+        SwitchMaterial keepOriginalsSwitch = rootView.findViewById(R.id.user_profile_keep_originals_switch);
+        Context context = requireContext();
+        keepOriginalsSwitch.setChecked(ImageCompressor.fromPreferences(context).keepsOriginals());
+        keepOriginalsSwitch.setOnCheckedChangeListener((buttonView, isChecked) -> {
+            context.getSharedPreferences(ImageCompressor.PREFERENCES_NAME, Context.MODE_PRIVATE).edit()
+                    .putBoolean(ImageCompressor.KEY_KEEP_ORIGINALS, isChecked)
+                    .apply();
+            PhotoUploadManager.getInstance(context).setCompressor(ImageCompressor.fromPreferences(context));
+        });
+
         final Button logoutButton = rootView.findViewById(R.id.user_profile_logout_button);
         logoutButton.setOnClickListener(v -> {
             FirebaseAuth.getInstance().signOut();
+            InventoryRepository.closeInstance();
             logoutButton.setBackgroundResource(R.drawable.logout_button_clicked);
             logoutButton.setTextColor(getResources().getColor(R.color.creme, rootView.getContext().getTheme()));
             new Handler(Looper.getMainLooper()).postDelayed(() -> {
@@ -1,7 +1,6 @@
 package com.example.househomey.utils;
 
 import android.content.Context;
-import android.util.Log;
 
 import androidx.annotation.IdRes;
 import androidx.appcompat.app.AppCompatActivity;
@@ -12,16 +11,17 @@ import androidx.fragment.app.FragmentTransaction;
 
 import com.example.househomey.MainActivity;
 import com.example.househomey.R;
+import com.example.househomey.photo.ContentHash;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 import com.google.android.material.chip.Chip;
 import com.google.android.material.chip.ChipGroup;
 import com.google.android.material.datepicker.CalendarConstraints;
 import com.google.android.material.datepicker.DateValidatorPointBackward;
 import com.google.android.material.datepicker.MaterialDatePicker;
-import com.google.firebase.storage.StorageReference;
 
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.TimeZone;
 import java.util.UUID;
@@ -168,18 +168,25 @@ public class FragmentUtils {
     }
 
     /**
-     * Deletes photos from Firebase Cloud Storage based on the user and provided list of photo IDs.
+     * Determines whether a string is the id of a photo in Cloud Storage, rather than a local URI.
+     * Photos are identified by their content hash, or by a UUID if they were uploaded before hashing.
+     *
+     * @param str a string
+     */
+    public static boolean isPhotoId(String str) {
+        return ContentHash.isHash(str) || isValidUUID(str);
+    }
+
+    /**
+     * Releases an item's references to photos in Firebase Cloud Storage. Each photo is deleted
+     * once no other item refers to it.
      *
      * @param context  The context associated with the Firebase storage operations.
-     * @param photoIds  A list of photo IDs (UUIDs) representing the image filenames to be deleted.
+     * @param photoIds  A list of photo IDs representing the image filenames to be released.
      */
     public static void deletePhotosFromCloud(Context context, List<String> photoIds) {
-        for (String imageId : photoIds) {
-            StorageReference imageRef = ((MainActivity) context).getImageRef(imageId);
-            imageRef.delete()
-                    .addOnSuccessListener(taskSnapshot -> Log.d("IMAGE_DELETE", "Successfully removed image from: " + imageRef))
-                    .addOnFailureListener(e -> Log.e("IMAGE_DELETE", "Failed to delete image from Cloud Storage: " + e));
-        }
+        // An item holds one reference to each of its photos, however often it shows them
+        ((MainActivity) context).getPhotoReferences().release(new LinkedHashSet<>(photoIds));
     }
 
     /**
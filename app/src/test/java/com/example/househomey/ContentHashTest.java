@@ -0,0 +1,46 @@
+package com.example.househomey;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.househomey.photo.ContentHash;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class ContentHashTest {
+    private String hash(byte[] bytes) throws IOException {
+        return ContentHash.compute(new ByteArrayInputStream(bytes));
+    }
+
+    @Test
+    public void testKnownHash() throws IOException {
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+                hash("abc".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testIdenticalPhotosShareHash() throws IOException {
+        // Larger than the read buffer, so the hash spans several reads
+        byte[] photo = new byte[20000];
+        Arrays.fill(photo, (byte) 7);
+        byte[] copy = photo.clone();
+        assertEquals(hash(photo), hash(copy));
+        copy[19999] = 8;
+        assertNotEquals(hash(photo), hash(copy));
+    }
+
+    @Test
+    public void testIsHash() throws IOException {
+        assertTrue(ContentHash.isHash(hash(new byte[0])));
+        assertFalse(ContentHash.isHash("3f2504e0-4f89-11d3-9a0c-0305e82c3301"));
+        assertFalse(ContentHash.isHash("content://media/external/images/media/12"));
+        assertFalse(ContentHash.isHash(null));
+    }
+}
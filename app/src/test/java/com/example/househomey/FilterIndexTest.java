@@ -0,0 +1,158 @@
+package com.example.househomey;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.househomey.filter.model.DateFilter;
+import com.example.househomey.filter.model.Filter;
+import com.example.househomey.filter.model.FilterIndex;
+import com.example.househomey.filter.model.KeywordFilter;
+import com.example.househomey.filter.model.MakeFilter;
+import com.example.househomey.filter.model.TagFilter;
+import com.example.househomey.item.Item;
+import com.example.househomey.tags.Tag;
+import com.example.househomey.tags.TagMembership;
+import com.google.firebase.Timestamp;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class FilterIndexTest {
+    private FilterIndex index;
+    private ArrayList<Item> items;
+
+    @Before
+    public void setUp() {
+        index = new FilterIndex();
+        items = new ArrayList<>();
+        items.add(createTestItem("1", "Sony", "Sony Camera", new Date(1000)));
+        items.add(createTestItem("2", "SAMSUNG", "Samsung  Monitor", new Date(2000)));
+        items.add(createTestItem("3", "sony", "Sony TV", new Date(3000)));
+        items.add(createTestItem("4", "LG", "Kitchen fridge", new Date(3000)));
+        for (Item item : items) {
+            index.add(item);
+        }
+    }
+
+    public Item createTestItem(String id, String make, String description, Date date) {
+        Map<String, Object> itemData = new HashMap<>();
+        itemData.put("make", make);
+        itemData.put("description", description);
+        itemData.put("cost", "100.00");
+        itemData.put("acquisitionDate", new Timestamp(date));
+        return new Item(id, itemData);
+    }
+
+    private void assertSameAsFilterList(Filter filter) {
+        assertEquals(filter.filterList(items), index.getItems(index.evaluate(Collections.singleton(filter))));
+    }
+
+    @Test
+    public void testDateFilterMatchesFilterList() {
+        DateFilter dateFilter = new DateFilter();
+        dateFilter.setStartDate(new Date(2000));
+        assertSameAsFilterList(dateFilter);
+        dateFilter.setEndDate(new Date(2000));
+        assertSameAsFilterList(dateFilter);
+        dateFilter.setStartDate(null);
+        dateFilter.setEndDate(new Date(2999));
+        assertSameAsFilterList(dateFilter);
+        dateFilter.setStartDate(new Date(3001));
+        assertSameAsFilterList(dateFilter);
+    }
+
+    @Test
+    public void testMakeFilterIgnoresCase() {
+        assertSameAsFilterList(new MakeFilter("SONY"));
+        assertSameAsFilterList(new MakeFilter("samsung"));
+        assertSameAsFilterList(new MakeFilter("Apple"));
+        assertEquals(2, index.withMake("sOnY").cardinality());
+    }
+
+    @Test
+    public void testKeywordFilterMatchesFilterList() {
+        assertSameAsFilterList(new KeywordFilter(new ArrayList<>(Arrays.asList("sony", "FRIDGE"))));
+        assertSameAsFilterList(new KeywordFilter(new ArrayList<>(Collections.singletonList("monitor"))));
+        assertSameAsFilterList(new KeywordFilter(new ArrayList<>(Collections.singletonList("cam"))));
+    }
+
+    @Test
+    public void testTagFilterMatchesFilterList() {
+        Map<String, Object> tagData = new HashMap<>();
+        tagData.put("items", new ArrayList<>(Arrays.asList("2", "4", "missing")));
+        Set<Tag> selectedTags = new HashSet<>();
+        selectedTags.add(new Tag("Home", tagData));
+        assertSameAsFilterList(new TagFilter(selectedTags));
+    }
+
+    @Test
+    public void testCombinedFiltersIntersect() {
+        List<Filter> filters = new ArrayList<>();
+        filters.add(new MakeFilter("sony"));
+        DateFilter dateFilter = new DateFilter();
+        dateFilter.setStartDate(new Date(2000));
+        filters.add(dateFilter);
+        ArrayList<Item> result = index.getItems(index.evaluate(filters));
+        assertEquals(1, result.size());
+        assertEquals("3", result.get(0).getId());
+    }
+
+    @Test
+    public void testInactiveFiltersSelectEveryItem() {
+        assertNull(new MakeFilter("").select(index));
+        assertNull(new DateFilter().select(index));
+        assertNull(new KeywordFilter(new ArrayList<>()).select(index));
+        assertNull(new TagFilter(new HashSet<>()).select(index));
+        assertEquals(items, index.getItems(index.evaluate(Collections.singleton(new MakeFilter("")))));
+    }
+
+    @Test
+    public void testTagFilterFollowsTagMembership() {
+        TagMembership membership = new TagMembership();
+        FilterIndex tagIndex = new FilterIndex(membership);
+        for (Item item : items) {
+            tagIndex.add(item);
+        }
+        Map<String, Object> tagData = new HashMap<>();
+        tagData.put("items", new ArrayList<>(Arrays.asList("2", "missing")));
+        Tag home = new Tag("Home", tagData);
+        membership.setTags(Collections.singletonList(home));
+        TagFilter tagFilter = new TagFilter(new HashSet<>(Collections.singletonList(home)));
+        assertEquals(Collections.singletonList(items.get(1)), tagIndex.getItems(tagFilter.select(tagIndex)));
+
+        // Tagging an item after the filter was created is seen by the filter
+        Map<String, Object> newTagData = new HashMap<>();
+        newTagData.put("items", new ArrayList<>(Arrays.asList("2", "4")));
+        membership.putTag(new Tag("Home", newTagData));
+        assertEquals(Arrays.asList(items.get(1), items.get(3)), tagIndex.getItems(tagFilter.select(tagIndex)));
+        assertTrue(tagFilter.matches(items.get(3), tagIndex));
+        assertFalse(tagFilter.matches(items.get(0), tagIndex));
+    }
+
+    @Test
+    public void testRemoveAndReplaceItems() {
+        index.remove("1");
+        assertEquals(1, index.withMake("sony").cardinality());
+        assertEquals(0, index.withAnyKeyword(Collections.singletonList("camera")).cardinality());
+
+        // Re-adding an id replaces the old entry
+        index.add(createTestItem("5", "Sony", "Sony Headphones", new Date(5000)));
+        index.add(createTestItem("4", "LG", "Kitchen oven", new Date(3000)));
+        assertEquals(4, index.all().cardinality());
+        assertEquals(0, index.withAnyKeyword(Collections.singletonList("fridge")).cardinality());
+        assertEquals(1, index.withAnyKeyword(Collections.singletonList("oven")).cardinality());
+        assertEquals(1, index.acquiredBetween(new Date(4000), null).cardinality());
+    }
+}
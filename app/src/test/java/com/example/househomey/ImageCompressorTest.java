@@ -0,0 +1,25 @@
+package com.example.househomey;
+
+import static org.junit.Assert.assertEquals;
+
+import com.example.househomey.photo.ImageCompressor;
+
+import org.junit.Test;
+
+public class ImageCompressorTest {
+    @Test
+    public void testSampleSizeKeepsLongerSideAboveMaximum() {
+        // A 12 MP camera photo is decoded at half size, 2016 px, then scaled to 1600 px
+        assertEquals(2, ImageCompressor.computeSampleSize(4032, 3024, 1600));
+        assertEquals(4, ImageCompressor.computeSampleSize(3024, 6400, 1600));
+        assertEquals(1, ImageCompressor.computeSampleSize(3199, 1000, 1600));
+        assertEquals(1, ImageCompressor.computeSampleSize(800, 600, 1600));
+    }
+
+    @Test
+    public void testScaleFitsMaximumWithoutEnlarging() {
+        assertEquals(1600f / 2016, ImageCompressor.computeScale(2016, 1512, 1600), 1e-6);
+        assertEquals(0.5f, ImageCompressor.computeScale(1000, 3200, 1600), 1e-6);
+        assertEquals(1f, ImageCompressor.computeScale(800, 600, 1600), 1e-6);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.househomey;
+
+import static org.junit.Assert.assertEquals;
+
+import com.example.househomey.inventory.InventoryTotals;
+import com.example.househomey.item.Item;
+import com.google.firebase.Timestamp;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+public class InventoryTotalsTest {
+    private InventoryTotals totals;
+
+    @Before
+    public void setUp() {
+        totals = new InventoryTotals();
+    }
+
+    public Item createTestItem(String id, String cost) {
+        Map<String, Object> itemData = new HashMap<>();
+        itemData.put("description", "Item " + id);
+        itemData.put("cost", cost);
+        itemData.put("acquisitionDate", new Timestamp(new Date()));
+        return new Item(id, itemData);
+    }
+
+    @Test
+    public void testEmptyTotals() {
+        assertEquals(0, totals.getCount());
+        assertEquals("$0.00", totals.getTotalText());
+        assertEquals(0, totals.getMinCents());
+        assertEquals(0, totals.getMaxCents());
+        assertEquals(0, totals.getMeanCents());
+    }
+
+    @Test
+    public void testAddAndRemoveItems() {
+        Item cheap = createTestItem("1", "0.10");
+        Item duplicate = createTestItem("2", "0.10");
+        Item expensive = createTestItem("3", "1999.99");
+        totals.add(cheap);
+        totals.add(duplicate);
+        totals.add(expensive);
+
+        assertEquals(3, totals.getCount());
+        assertEquals(200019, totals.getTotalCents());
+        assertEquals("$2000.19", totals.getTotalText());
+        assertEquals(10, totals.getMinCents());
+        assertEquals(199999, totals.getMaxCents());
+        assertEquals(66673, totals.getMeanCents());
+
+        totals.remove(expensive);
+        assertEquals(2, totals.getCount());
+        assertEquals(10, totals.getMaxCents());
+
+        // One of the two items with the lowest cost is still there
+        totals.remove(cheap);
+        assertEquals(10, totals.getMinCents());
+        assertEquals("$0.10", totals.getTotalText());
+    }
+
+    @Test
+    public void testRemovingUnknownItemIsIgnored() {
+        totals.add(createTestItem("1", "5.00"));
+        totals.remove(createTestItem("2", "6.00"));
+        assertEquals(1, totals.getCount());
+        assertEquals("$5.00", totals.getTotalText());
+    }
+
+    @Test
+    public void testCopyIsIndependent() {
+        Item item = createTestItem("1", "5.00");
+        totals.add(item);
+        InventoryTotals copy = new InventoryTotals(totals);
+
+        totals.remove(item);
+        totals.add(createTestItem("2", "7.25"));
+        assertEquals(1, copy.getCount());
+        assertEquals("$5.00", copy.getTotalText());
+        assertEquals(500, copy.getMaxCents());
+    }
+}
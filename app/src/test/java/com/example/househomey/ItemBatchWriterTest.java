@@ -0,0 +1,35 @@
+package com.example.househomey;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.househomey.item.ItemBatchWriter;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class ItemBatchWriterTest {
+    @Test
+    public void testChunksFitInOneBatch() {
+        List<Integer> writes = new ArrayList<>();
+        for (int i = 0; i < 1001; i++) {
+            writes.add(i);
+        }
+        List<List<Integer>> chunks = ItemBatchWriter.chunk(writes, ItemBatchWriter.MAX_BATCH_WRITES);
+        assertEquals(3, chunks.size());
+        assertEquals(500, chunks.get(0).size());
+        assertEquals(500, chunks.get(1).size());
+        assertEquals(Collections.singletonList(1000), chunks.get(2));
+        assertEquals(Integer.valueOf(500), chunks.get(1).get(0));
+    }
+
+    @Test
+    public void testChunkSmallList() {
+        assertEquals(Collections.singletonList(Collections.singletonList("a")),
+                ItemBatchWriter.chunk(Collections.singletonList("a"), ItemBatchWriter.MAX_BATCH_WRITES));
+        assertTrue(ItemBatchWriter.chunk(Collections.emptyList(), ItemBatchWriter.MAX_BATCH_WRITES).isEmpty());
+    }
+}
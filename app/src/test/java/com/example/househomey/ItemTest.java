@@ -89,6 +89,7 @@ public class ItemTest {
         inputMap.put("serialNumber", "123456");
         inputMap.put("comment", "chipped");
         Item item = new Item(id, inputMap);
+        inputMap.put("costCents", 4700L);
         assertEquals(item.getData(), inputMap);
     }
 
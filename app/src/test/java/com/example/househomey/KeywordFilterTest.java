@@ -3,6 +3,7 @@ package com.example.househomey;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import com.example.househomey.filter.model.FilterIndex;
 import com.example.househomey.filter.model.KeywordFilter;
 import com.example.househomey.item.Item;
 import com.google.firebase.Timestamp;
@@ -89,4 +90,41 @@ public class KeywordFilterTest {
         assertTrue("Filtered list should be empty when input list is empty", filteredItems.isEmpty());
     }
 
+    @Test
+    public void testFilterListWithPrefixKeywords() {
+        keywords.add("Cam");
+        keywords.add("mon");
+        keywordFilter = new KeywordFilter(keywords, KeywordFilter.MatchMode.PREFIX);
+        ArrayList<Item> filteredItems = keywordFilter.filterList(items);
+        assertEquals("Filtered list should contain the camera and the monitor", 2, filteredItems.size());
+    }
+
+    @Test
+    public void testFilterListWithFuzzyKeywords() {
+        keywords.add("Camra");
+        keywords.add("Monitors");
+        keywordFilter = new KeywordFilter(keywords, KeywordFilter.MatchMode.FUZZY);
+        ArrayList<Item> filteredItems = keywordFilter.filterList(items);
+        assertEquals("Misspelled keywords should still match", 2, filteredItems.size());
+
+        keywords.clear();
+        keywords.add("TX");
+        keywordFilter = new KeywordFilter(keywords, KeywordFilter.MatchMode.FUZZY);
+        assertTrue("Short keywords should only match exactly", keywordFilter.filterList(items).isEmpty());
+    }
+
+    @Test
+    public void testKeywordIndexMatchesFilterList() {
+        FilterIndex index = new FilterIndex();
+        items.forEach(index::add);
+        keywords.add("sony");
+        keywords.add("MONITR");
+        keywords.add("te");
+        for (KeywordFilter.MatchMode mode : KeywordFilter.MatchMode.values()) {
+            keywordFilter = new KeywordFilter(keywords, mode);
+            assertEquals("Index lookup should agree with filterList in " + mode + " mode",
+                    keywordFilter.filterList(items), index.getItems(keywordFilter.select(index)));
+        }
+    }
+
 }
@@ -0,0 +1,35 @@
+package com.example.househomey;
+
+import static org.junit.Assert.assertEquals;
+
+import com.example.househomey.metrics.LatencyRecorder;
+
+import org.junit.Test;
+
+public class LatencyRecorderTest {
+
+    @Test
+    public void testPercentilesUseNearestRank() {
+        LatencyRecorder recorder = new LatencyRecorder(100);
+        for (int i = 100; i >= 1; i--) {
+            recorder.record(i);
+        }
+        assertEquals(100, recorder.getCount());
+        assertEquals(50, recorder.getPercentile(50));
+        assertEquals(90, recorder.getPercentile(90));
+        assertEquals(1, recorder.getPercentile(0));
+        assertEquals(100, recorder.getPercentile(100));
+    }
+
+    @Test
+    public void testOldSamplesAreOverwritten() {
+        LatencyRecorder recorder = new LatencyRecorder(3);
+        assertEquals(0, recorder.getPercentile(50));
+        recorder.record(1000);
+        recorder.record(1);
+        recorder.record(2);
+        recorder.record(3);
+        assertEquals(4, recorder.getCount());
+        assertEquals(3, recorder.getPercentile(100));
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.househomey;
+
+import static org.junit.Assert.assertTrue;
+
+import com.example.househomey.photo.PhotoUploadManager;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+public class PhotoUploadManagerTest {
+    @Test
+    public void testBackoffDoublesWithinJitter() {
+        Random random = new Random(42);
+        for (int attempt = 1; attempt <= 4; attempt++) {
+            long ceiling = PhotoUploadManager.INITIAL_BACKOFF_MILLIS << (attempt - 1);
+            for (int i = 0; i < 100; i++) {
+                long backoff = PhotoUploadManager.computeBackoff(attempt, random);
+                assertTrue(backoff >= ceiling / 2);
+                assertTrue(backoff <= ceiling);
+            }
+        }
+    }
+
+    @Test
+    public void testBackoffIsCapped() {
+        Random random = new Random(42);
+        for (int attempt = 6; attempt <= 100; attempt++) {
+            long backoff = PhotoUploadManager.computeBackoff(attempt, random);
+            assertTrue(backoff >= PhotoUploadManager.MAX_BACKOFF_MILLIS / 2);
+            assertTrue(backoff <= PhotoUploadManager.MAX_BACKOFF_MILLIS);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.househomey;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.example.househomey.filter.model.DateFilter;
+import com.example.househomey.filter.model.Filter;
+import com.example.househomey.filter.model.KeywordFilter;
+import com.example.househomey.filter.model.MakeFilter;
+import com.example.househomey.filter.model.QueryPlan;
+import com.example.househomey.filter.model.TagFilter;
+import com.example.househomey.tags.Tag;
+import com.example.househomey.tags.TagMembership;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class QueryPlanTest {
+
+    private TagFilter createTagFilter(int itemCount) {
+        ArrayList<String> itemIds = new ArrayList<>();
+        for (int i = 0; i < itemCount; i++) {
+            itemIds.add("item" + i);
+        }
+        Map<String, Object> tagData = new HashMap<>();
+        tagData.put("items", itemIds);
+        Set<Tag> selectedTags = new HashSet<>();
+        selectedTags.add(new Tag("Home", tagData));
+        return new TagFilter(selectedTags);
+    }
+
+    private DateFilter createDateFilter() {
+        DateFilter dateFilter = new DateFilter();
+        dateFilter.setStartDate(new Date(1000));
+        return dateFilter;
+    }
+
+    @Test
+    public void testTagFilterIsPreferred() {
+        List<Filter> filters = new ArrayList<>();
+        DateFilter dateFilter = createDateFilter();
+        TagFilter tagFilter = createTagFilter(3);
+        filters.add(dateFilter);
+        filters.add(tagFilter);
+        QueryPlan plan = QueryPlan.of(filters);
+        assertSame(tagFilter, plan.getPushedFilter());
+        assertEquals(Collections.singletonList(dateFilter), plan.getResidualFilters());
+    }
+
+    @Test
+    public void testLargeTagFilterFallsBackToDateFilter() {
+        List<Filter> filters = new ArrayList<>();
+        DateFilter dateFilter = createDateFilter();
+        TagFilter tagFilter = createTagFilter(31);
+        filters.add(tagFilter);
+        filters.add(dateFilter);
+        assertFalse(tagFilter.canPushDown());
+        assertTrue(createTagFilter(30).canPushDown());
+        assertSame(dateFilter, QueryPlan.of(filters).getPushedFilter());
+    }
+
+    @Test
+    public void testTagFilterUsesCurrentTags() {
+        TagFilter tagFilter = createTagFilter(3);
+        TagMembership membership = new TagMembership();
+        assertFalse(tagFilter.withCurrentTags(membership).canPushDown());
+
+        Map<String, Object> tagData = new HashMap<>();
+        tagData.put("items", new ArrayList<>(Collections.singletonList("item9")));
+        Tag currentTag = new Tag("Home", tagData);
+        membership.setTags(Collections.singletonList(currentTag));
+        TagFilter currentFilter = tagFilter.withCurrentTags(membership);
+        assertTrue(currentFilter.canPushDown());
+        assertEquals(Collections.singleton(currentTag), currentFilter.selectedTags);
+    }
+
+    @Test
+    public void testMakeAndKeywordFiltersStayOnDevice() {
+        List<Filter> filters = new ArrayList<>();
+        filters.add(new MakeFilter("Sony"));
+        filters.add(new KeywordFilter(new ArrayList<>(Collections.singletonList("tv"))));
+        filters.add(new DateFilter());
+        filters.add(createTagFilter(0));
+        QueryPlan plan = QueryPlan.of(filters);
+        assertNull(plan.getPushedFilter());
+        assertEquals(filters, plan.getResidualFilters());
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.househomey;
+
+import static org.junit.Assert.assertEquals;
+
+import com.example.househomey.scanner.ScanPreprocessor;
+
+import org.junit.Test;
+
+public class ScanPreprocessorTest {
+    @Test
+    public void testLuminance() {
+        assertEquals(0, ScanPreprocessor.luminance(0xff000000));
+        assertEquals(255, ScanPreprocessor.luminance(0xffffffff));
+        assertEquals(128, ScanPreprocessor.luminance(0xff808080));
+        // Green contributes the most to brightness and blue the least
+        assertEquals(149, ScanPreprocessor.luminance(0xff00ff00));
+        assertEquals(77, ScanPreprocessor.luminance(0xffff0000));
+        assertEquals(29, ScanPreprocessor.luminance(0xff0000ff));
+    }
+
+    @Test
+    public void testNv21Layout() {
+        byte[] nv21 = ScanPreprocessor.createNv21(4, 2);
+        assertEquals(12, nv21.length);
+        ScanPreprocessor.writeLuminanceRow(new int[]{0xffffffff, 0xff000000, 0xff808080, 0xffffffff}, 4, nv21, 4);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(0, nv21[i]);
+        }
+        assertEquals((byte) 255, nv21[4]);
+        assertEquals(0, nv21[5]);
+        assertEquals((byte) 128, nv21[6]);
+        // The chroma plane is gray
+        for (int i = 8; i < 12; i++) {
+            assertEquals((byte) 128, nv21[i]);
+        }
+    }
+}
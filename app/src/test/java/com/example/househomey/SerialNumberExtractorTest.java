@@ -0,0 +1,45 @@
+package com.example.househomey;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.househomey.scanner.SerialNumberExtractor;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class SerialNumberExtractorTest {
+    @Test
+    public void testLabelledSerialNumberComesFirst() {
+        List<String> lines = Arrays.asList("MODEL A1234567", "S/N: C02XK0ABJGH5", "MADE IN CHINA");
+        assertEquals("C02XK0ABJGH5", SerialNumberExtractor.extract(lines, 3).get(0));
+    }
+
+    @Test
+    public void testSplitSerialNumberIsJoined() {
+        List<String> lines = Arrays.asList("Serial No.", "4021 7788 AB");
+        assertEquals(Collections.singletonList("40217788AB"), SerialNumberExtractor.extract(lines, 1));
+    }
+
+    @Test
+    public void testCandidatesAreRankedAndDistinct() {
+        List<String> lines = Arrays.asList("SN:ABC12345", "ABC12345", "Model XR5500");
+        assertEquals(Arrays.asList("ABC12345", "XR5500", "ModelXR5500"), SerialNumberExtractor.extract(lines, 3));
+    }
+
+    @Test
+    public void testLabelWithoutPunctuationIsKept() {
+        assertEquals(Collections.singletonList("SN4021AB"),
+                SerialNumberExtractor.extract(Collections.singletonList("SN4021AB"), 1));
+    }
+
+    @Test
+    public void testTextWithoutSerialNumbers() {
+        List<String> lines = Arrays.asList("Visit www.example.com", "12/05/2023", "$19.99", "WARRANTY VOID");
+        assertTrue(SerialNumberExtractor.extract(lines, 3).isEmpty());
+        assertTrue(SerialNumberExtractor.extract(Collections.singletonList("S/N: C02XK0ABJGH5"), 0).isEmpty());
+    }
+}
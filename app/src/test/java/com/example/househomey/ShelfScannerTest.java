@@ -0,0 +1,35 @@
+package com.example.househomey;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.househomey.scanner.ShelfScanner;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class ShelfScannerTest {
+    @Test
+    public void testValuesAreKeptOnceWithFirstImage() {
+        List<String> images = Arrays.asList("shelf1.jpg", "shelf2.jpg");
+        List<List<String>> values = Arrays.asList(
+                Arrays.asList("012345678905", "4006381333931", "012345678905"),
+                Arrays.asList("4006381333931", "SN-42"));
+        Map<String, String> collected = ShelfScanner.collectValues(images, values);
+        assertEquals(Arrays.asList("012345678905", "4006381333931", "SN-42"), new ArrayList<>(collected.keySet()));
+        assertEquals("shelf1.jpg", collected.get("012345678905"));
+        assertEquals("shelf1.jpg", collected.get("4006381333931"));
+        assertEquals("shelf2.jpg", collected.get("SN-42"));
+    }
+
+    @Test
+    public void testEmptyValuesAreSkipped() {
+        List<List<String>> values = Arrays.asList(Arrays.asList("", null), Collections.<String>emptyList());
+        assertTrue(ShelfScanner.collectValues(Arrays.asList("a.jpg", "b.jpg"), values).isEmpty());
+    }
+}
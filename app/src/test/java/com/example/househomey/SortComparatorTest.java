@@ -5,6 +5,8 @@ import com.example.househomey.sort.CostComparator;
 import com.example.househomey.sort.DateComparator;
 import com.example.househomey.sort.DescriptionComparator;
 import com.example.househomey.sort.MakeComparator;
+import com.example.househomey.sort.TagComparator;
+import com.example.househomey.tags.Tag;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -94,6 +96,21 @@ public class SortComparatorTest {
         testComparator(new MakeComparator(), unsortedList, item3, item2, item1);
     }
 
+    @Test
+    public void testTagComparatorSeesTagChanges() {
+        ArrayList<Item> unsortedList = new ArrayList<>(testList);
+        item1.addTag(new Tag("b", new HashMap<>()));
+        item3.addTag(new Tag("a", new HashMap<>()));
+
+        // Items without tags are sorted last
+        testComparator(new TagComparator(), unsortedList, item3, item1, item2);
+
+        // Changing an item's tags after sorting must invalidate its cached sort keys
+        item3.clearTags();
+        item2.addTag(new Tag("c", new HashMap<>()));
+        testComparator(new TagComparator(), unsortedList, item1, item2, item3);
+    }
+
     private void testComparator(Comparator<Item> comparator, List<Item> unsortedList, Item... expectedOrder) {
         // Sort the list using the provided comparator
         Collections.sort(unsortedList, comparator);
@@ -0,0 +1,41 @@
+package com.example.househomey;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.example.househomey.scanner.StableResultFilter;
+
+import org.junit.Test;
+
+public class StableResultFilterTest {
+    @Test
+    public void testAcceptsValueReadFromConsecutiveFrames() {
+        StableResultFilter filter = new StableResultFilter(3);
+        assertNull(filter.offer("SN123"));
+        assertNull(filter.offer("SN123"));
+        assertEquals("SN123", filter.offer("SN123"));
+        assertEquals("SN123", filter.offer("SN123"));
+    }
+
+    @Test
+    public void testMisreadRestartsCount() {
+        StableResultFilter filter = new StableResultFilter(3);
+        filter.offer("SN123");
+        filter.offer("SN123");
+        assertNull(filter.offer("SN128"));
+        assertNull(filter.offer("SN123"));
+        assertNull(filter.offer("SN123"));
+        assertEquals("SN123", filter.offer("SN123"));
+    }
+
+    @Test
+    public void testEmptyFrameRestartsCount() {
+        StableResultFilter filter = new StableResultFilter(2);
+        filter.offer("012345678905");
+        assertNull(filter.offer(null));
+        assertNull(filter.offer("012345678905"));
+        assertEquals("012345678905", filter.offer("012345678905"));
+        filter.offer("");
+        assertNull(filter.offer("012345678905"));
+    }
+}
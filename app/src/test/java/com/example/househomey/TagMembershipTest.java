@@ -0,0 +1,105 @@
+package com.example.househomey;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.househomey.item.Item;
+import com.example.househomey.item.ItemOrdinals;
+import com.example.househomey.tags.Tag;
+import com.example.househomey.tags.TagMembership;
+import com.google.firebase.Timestamp;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+public class TagMembershipTest {
+    private TagMembership membership;
+
+    private Tag createTag(String label, String... itemIds) {
+        Map<String, Object> tagData = new HashMap<>();
+        tagData.put("items", new ArrayList<>(Arrays.asList(itemIds)));
+        return new Tag(label, tagData);
+    }
+
+    private List<String> labels(List<Tag> tags) {
+        List<String> labels = new ArrayList<>();
+        for (Tag tag : tags) {
+            labels.add(tag.getTagLabel());
+        }
+        return labels;
+    }
+
+    @Before
+    public void setUp() {
+        membership = new TagMembership();
+        membership.setTags(Arrays.asList(createTag("Office", "1", "2"), createTag("Kitchen", "2", "3")));
+    }
+
+    @Test
+    public void testTagsOfItemAreSortedByLabel() {
+        assertEquals(Arrays.asList("Kitchen", "Office"), labels(membership.getTags("2")));
+        assertEquals(Collections.singletonList("Office"), labels(membership.getTags("1")));
+        assertTrue(membership.getTags("4").isEmpty());
+    }
+
+    @Test
+    public void testPutTagReportsOnlyChangedItems() {
+        assertEquals(new HashSet<>(Arrays.asList("1", "4")), membership.putTag(createTag("Office", "2", "4")));
+        assertTrue(membership.getTags("1").isEmpty());
+        assertEquals(Collections.singletonList("Office"), labels(membership.getTags("4")));
+        assertTrue(membership.putTag(createTag("Office", "4", "2")).isEmpty());
+        assertEquals(new HashSet<>(Arrays.asList("2", "4")), membership.getItemIds("Office"));
+    }
+
+    @Test
+    public void testRemoveTagFreesItsOrdinal() {
+        assertEquals(new HashSet<>(Arrays.asList("2", "3")), membership.removeTag("Kitchen"));
+        assertNull(membership.getTag("Kitchen"));
+        assertEquals(Collections.singletonList("Office"), labels(membership.getTags("2")));
+        assertTrue(membership.getTags("3").isEmpty());
+
+        // The new tag reuses Kitchen's ordinal without inheriting its items
+        assertEquals(Collections.singleton("5"), membership.putTag(createTag("Garage", "5")));
+        assertEquals(Collections.singletonList("Office"), labels(membership.getTags("2")));
+        assertTrue(membership.removeTag("Missing").isEmpty());
+    }
+
+    @Test
+    public void testSelectItemsByTagOrdinals() {
+        ItemOrdinals ordinals = membership.getItemOrdinals();
+        BitSet selected = membership.withAnyTag(Arrays.asList("Office", "Missing"));
+        assertEquals(2, selected.cardinality());
+        assertTrue(selected.get(ordinals.find("1")));
+        assertTrue(selected.get(ordinals.find("2")));
+        assertEquals(3, membership.withAnyTag(Arrays.asList("Office", "Kitchen")).cardinality());
+        assertTrue(membership.hasAnyTag("3", Arrays.asList("Office", "Kitchen")));
+        assertFalse(membership.hasAnyTag("3", Collections.singletonList("Office")));
+        assertFalse(membership.hasAnyTag("4", Collections.singletonList("Office")));
+    }
+
+    @Test
+    public void testApplyToAndIsCurrent() {
+        Map<String, Object> itemData = new HashMap<>();
+        itemData.put("description", "Kettle");
+        itemData.put("acquisitionDate", new Timestamp(new Date()));
+        itemData.put("cost", "20.00");
+        Item item = new Item("3", itemData);
+        assertFalse(membership.isCurrent(item));
+        membership.applyTo(item);
+        assertTrue(membership.isCurrent(item));
+        membership.putTag(createTag("Office", "1", "2", "3"));
+        assertFalse(membership.isCurrent(item));
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.househomey.benchmark;
+
+import com.example.househomey.filter.model.DateFilter;
+import com.example.househomey.filter.model.Filter;
+import com.example.househomey.filter.model.FilterIndex;
+import com.example.househomey.filter.model.KeywordFilter;
+import com.example.househomey.filter.model.MakeFilter;
+import com.example.househomey.filter.model.TagFilter;
+import com.example.househomey.item.Item;
+import com.example.househomey.tags.Tag;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures each filter on its own and combined, both by scanning the item list with
+ * {@link Filter#filterList} and by evaluating against a {@link FilterIndex}.
+ * Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private ArrayList<Item> items;
+    private FilterIndex index;
+    private DateFilter dateFilter;
+    private MakeFilter makeFilter;
+    private ArrayList<String> keywords;
+    private Set<Tag> selectedTags;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        InventoryGenerator generator = new InventoryGenerator(size, 42);
+        items = new ArrayList<>(generator.getItems());
+        index = new FilterIndex();
+        for (Item item : items) {
+            index.add(item);
+        }
+
+        // Roughly the last three years of a fourteen year inventory
+        dateFilter = new DateFilter();
+        dateFilter.setStartDate(new Date(InventoryGenerator.START_TIME + InventoryGenerator.TIME_SPAN / 14 * 11));
+        makeFilter = new MakeFilter(InventoryGenerator.make(3));
+        // One common and one rare word
+        keywords = new ArrayList<>(Arrays.asList(InventoryGenerator.word(5), InventoryGenerator.word(400)));
+        selectedTags = new HashSet<>(generator.getTags().subList(2, 4));
+    }
+
+    private List<Filter> combinedFilters() {
+        List<Filter> filters = new ArrayList<>();
+        filters.add(dateFilter);
+        filters.add(makeFilter);
+        filters.add(new KeywordFilter(keywords));
+        filters.add(new TagFilter(selectedTags));
+        return filters;
+    }
+
+    @Benchmark
+    public ArrayList<Item> scanDate() {
+        return dateFilter.filterList(items);
+    }
+
+    @Benchmark
+    public ArrayList<Item> scanMake() {
+        return makeFilter.filterList(items);
+    }
+
+    @Benchmark
+    public ArrayList<Item> scanKeywordExact() {
+        return new KeywordFilter(keywords).filterList(items);
+    }
+
+    @Benchmark
+    public ArrayList<Item> scanKeywordFuzzy() {
+        return new KeywordFilter(keywords, KeywordFilter.MatchMode.FUZZY).filterList(items);
+    }
+
+    @Benchmark
+    public ArrayList<Item> scanTag() {
+        return new TagFilter(selectedTags).filterList(items);
+    }
+
+    @Benchmark
+    public ArrayList<Item> scanCombined() {
+        ArrayList<Item> result = items;
+        for (Filter filter : combinedFilters()) {
+            result = filter.filterList(result);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public BitSet indexDate() {
+        return dateFilter.select(index);
+    }
+
+    @Benchmark
+    public BitSet indexMake() {
+        return makeFilter.select(index);
+    }
+
+    @Benchmark
+    public BitSet indexKeywordExact() {
+        return new KeywordFilter(keywords).select(index);
+    }
+
+    @Benchmark
+    public BitSet indexKeywordPrefix() {
+        return new KeywordFilter(keywords, KeywordFilter.MatchMode.PREFIX).select(index);
+    }
+
+    @Benchmark
+    public BitSet indexKeywordFuzzy() {
+        return new KeywordFilter(keywords, KeywordFilter.MatchMode.FUZZY).select(index);
+    }
+
+    @Benchmark
+    public BitSet indexTag() {
+        return new TagFilter(selectedTags).select(index);
+    }
+
+    @Benchmark
+    public ArrayList<Item> indexCombined() {
+        return index.getItems(index.evaluate(combinedFilters()));
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.househomey.benchmark;
+
+import com.example.househomey.item.Item;
+import com.example.househomey.tags.Tag;
+import com.example.househomey.tags.TagMembership;
+import com.google.firebase.Timestamp;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Builds synthetic inventories for the benchmarks. Makes, description words and tags are drawn
+ * with a skewed (Zipf-like) popularity, as in a real household inventory where a few brands and
+ * words are very common and most are rare. The same seed always gives the same inventory.
+ */
+public class InventoryGenerator {
+    static final int MAKE_COUNT = 60;
+    static final int WORD_COUNT = 800;
+    static final int TAG_COUNT = 25;
+    static final long START_TIME = 1262304000000L; // 2010-01-01
+    static final long TIME_SPAN = 14L * 365 * 24 * 60 * 60 * 1000;
+
+    private static final String[] SYLLABLES = {
+            "ba", "ce", "di", "fo", "gu", "ha", "je", "ki", "lo", "mu", "na", "pe", "ri", "so", "tu", "vy"
+    };
+
+    private final Random random;
+    private final double[] makeWeights = zipfWeights(MAKE_COUNT);
+    private final double[] wordWeights = zipfWeights(WORD_COUNT);
+    private final double[] tagWeights = zipfWeights(TAG_COUNT);
+    private final List<Item> items = new ArrayList<>();
+    private final List<Tag> tags = new ArrayList<>();
+
+    /**
+     * Generates an inventory
+     * @param size The number of items
+     * @param seed The seed of the random choices
+     */
+    public InventoryGenerator(int size, long seed) {
+        random = new Random(seed);
+        List<List<String>> tagItemIds = new ArrayList<>();
+        for (int t = 0; t < TAG_COUNT; t++) {
+            tagItemIds.add(new ArrayList<>());
+        }
+        for (int i = 0; i < size; i++) {
+            String id = "item" + i;
+            items.add(createItem(id));
+            // Most items have one or two tags, some have none
+            int tagCount = random.nextInt(4);
+            for (int t = 0; t < tagCount; t++) {
+                List<String> ids = tagItemIds.get(pick(tagWeights));
+                if (ids.isEmpty() || !ids.get(ids.size() - 1).equals(id)) ids.add(id);
+            }
+        }
+        for (int t = 0; t < TAG_COUNT; t++) {
+            Map<String, Object> tagData = new HashMap<>();
+            tagData.put("items", tagItemIds.get(t));
+            tags.add(new Tag(tagLabel(t), tagData));
+        }
+        TagMembership membership = new TagMembership();
+        membership.setTags(tags);
+        for (Item item : items) {
+            membership.applyTo(item);
+        }
+    }
+
+    /**
+     * Getter for the generated items
+     * @return The items, in creation order
+     */
+    public List<Item> getItems() {
+        return items;
+    }
+
+    /**
+     * Getter for the generated tags
+     * @return Every tag, most popular first
+     */
+    public List<Tag> getTags() {
+        return tags;
+    }
+
+    /**
+     * Name of a make by popularity rank
+     * @param rank 0 for the most common make
+     * @return The make, e.g. "Make0"
+     */
+    public static String make(int rank) {
+        return "Make" + rank;
+    }
+
+    /**
+     * A description word by popularity rank. Words are built from three syllables so that, as in
+     * real descriptions, only a few of them are one typo away from each other.
+     * @param rank 0 for the most common word
+     * @return The word, e.g. "bacedi"
+     */
+    public static String word(int rank) {
+        // Scramble the rank so that popular words do not share their first syllables
+        int code = (rank * 2749 + 1021) % (SYLLABLES.length * SYLLABLES.length * SYLLABLES.length);
+        StringBuilder word = new StringBuilder();
+        for (int s = 0; s < 3; s++) {
+            word.append(SYLLABLES[code % SYLLABLES.length]);
+            code /= SYLLABLES.length;
+        }
+        return word.toString();
+    }
+
+    /**
+     * Label of a tag by popularity rank
+     * @param rank 0 for the most common tag
+     * @return The label, e.g. "Tag0"
+     */
+    public static String tagLabel(int rank) {
+        return "Tag" + rank;
+    }
+
+    private Item createItem(String id) {
+        StringBuilder description = new StringBuilder();
+        int wordCount = 2 + random.nextInt(4);
+        for (int w = 0; w < wordCount; w++) {
+            if (w > 0) description.append(' ');
+            description.append(word(pick(wordWeights)));
+        }
+        // Costs spread over several orders of magnitude, mostly under a few hundred dollars
+        long cents = (long) Math.exp(8 + random.nextGaussian() * 1.5);
+        Map<String, Object> data = new HashMap<>();
+        data.put("description", description.toString());
+        data.put("make", make(pick(makeWeights)));
+        data.put("model", "M" + random.nextInt(1000));
+        data.put("cost", cents / 100 + "." + String.format("%02d", cents % 100));
+        data.put("acquisitionDate", new Timestamp(new Date(START_TIME + (long) (random.nextDouble() * TIME_SPAN))));
+        return new Item(id, data);
+    }
+
+    private int pick(double[] cumulativeWeights) {
+        double r = random.nextDouble();
+        int low = 0;
+        int high = cumulativeWeights.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulativeWeights[mid] < r) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * Cumulative Zipf weights with exponent 1, normalized to end at 1
+     */
+    private static double[] zipfWeights(int count) {
+        double[] weights = new double[count];
+        double sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += 1.0 / (i + 1);
+            weights[i] = sum;
+        }
+        for (int i = 0; i < count; i++) {
+            weights[i] /= sum;
+        }
+        return weights;
+    }
+}
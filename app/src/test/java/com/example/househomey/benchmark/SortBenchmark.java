@@ -0,0 +1,82 @@
+package com.example.househomey.benchmark;
+
+import com.example.househomey.item.Item;
+import com.example.househomey.sort.CostComparator;
+import com.example.househomey.sort.DateComparator;
+import com.example.househomey.sort.DescriptionComparator;
+import com.example.househomey.sort.MakeComparator;
+import com.example.househomey.sort.TagComparator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures sorting a shuffled inventory by each sort order, ascending and descending as the
+ * home screen does. Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SortBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    @Param({"description", "date", "make", "cost", "tag"})
+    public String sortBy;
+
+    @Param({"true", "false"})
+    public boolean ascending;
+
+    private List<Item> items;
+    private Comparator<Item> comparator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        items = new ArrayList<>(new InventoryGenerator(size, 42).getItems());
+        Collections.shuffle(items, new Random(7));
+        switch (sortBy) {
+            case "date":
+                comparator = new DateComparator();
+                break;
+            case "make":
+                comparator = new MakeComparator();
+                break;
+            case "cost":
+                comparator = new CostComparator();
+                break;
+            case "tag":
+                comparator = new TagComparator();
+                break;
+            default:
+                comparator = new DescriptionComparator();
+        }
+        if (!ascending) comparator = comparator.reversed();
+    }
+
+    @Benchmark
+    public List<Item> sort() {
+        List<Item> sorted = new ArrayList<>(items);
+        sorted.sort(comparator);
+        return sorted;
+    }
+}